@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.agent;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.annotations.Debug;
+import org.dbg4j.core.rules.DebugRule;
+import org.dbg4j.core.rules.DebugRuleRegistry;
+import org.dbg4j.core.rules.DebugRules;
+
+/**
+ * Java agent that instruments methods annotated with {@link Debug}, so debugging works without AspectJ or Spring AOP
+ * (including private methods and self-invocations).
+ *
+ * Usage: <code>-javaagent:dbg4j-agent.jar[=com.mycompany.package1,com.mycompany.package2]</code>. Agent arguments
+ * are optional comma-separated list of packages to instrument (all classes are inspected by default). Agent can
+ * also be attached to running JVM (already loaded classes are retransformed).
+ *
+ * Methods without annotations can be debugged by runtime rules (see {@link DebugRuleRegistry}, rules can also be
+ * managed via JMX bean {@link DebugRules}); classes matched by added or removed rules are retransformed.
+ *
+ * Do not use agent together with AspectJ weaving of <code>DebuggingAspect</code> - classes woven by AspectJ are
+ * skipped.
+ *
+ * @see DebugClassTransformer
+ * @see org.dbg4j.core.aop.DebugAdvice
+ * @author Maksym Fedoryshyn
+ */
+public class DebugAgent {
+
+    public static void premain(@Nullable String args, Instrumentation instrumentation) {
+        install(args, instrumentation);
+    }
+
+    public static void agentmain(@Nullable String args, Instrumentation instrumentation) {
+        DebugClassTransformer transformer = install(args, instrumentation);
+        if(instrumentation.isRetransformClassesSupported()) {
+            retransformLoadedClasses(instrumentation, transformer);
+        }
+    }
+
+    protected static DebugClassTransformer install(@Nullable String args, Instrumentation instrumentation) {
+        DebugClassTransformer transformer = new DebugClassTransformer(parsePackages(args));
+        instrumentation.addTransformer(transformer, instrumentation.isRetransformClassesSupported());
+        if(instrumentation.isRetransformClassesSupported()) {
+            DebugRuleRegistry.addListener(new RetransformingListener(instrumentation, transformer));
+        }
+        DebugRules.register();
+        return transformer;
+    }
+
+    protected static void retransformLoadedClasses(Instrumentation instrumentation,
+            DebugClassTransformer transformer) {
+        List<Class> classes = new ArrayList<Class>();
+        for(Class clz: instrumentation.getAllLoadedClasses()) {
+            if(isRetransformable(instrumentation, transformer, clz)
+                    && (hasDebugMethods(clz) || DebugRuleRegistry.matchesClass(clz.getName()))) {
+                classes.add(clz);
+            }
+        }
+        retransform(instrumentation, classes);
+    }
+
+    private static boolean isRetransformable(Instrumentation instrumentation, DebugClassTransformer transformer,
+            Class clz) {
+        return instrumentation.isModifiableClass(clz) && clz.getClassLoader() != null
+                && transformer.isIncluded(clz.getName().replace('.', '/'));
+    }
+
+    private static void retransform(Instrumentation instrumentation, List<Class> classes) {
+        for(Class clz: classes) {
+            try {
+                instrumentation.retransformClasses(clz);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    private static boolean hasDebugMethods(Class clz) {
+        try {
+            for(Method method: clz.getDeclaredMethods()) {
+                if(method.isAnnotationPresent(Debug.class)) {
+                    return true;
+                }
+            }
+        } catch (Throwable ignored) {}
+        return false;
+    }
+
+    /**
+     * Retransforms loaded classes matched by changed rules: new rules are applied, instrumentation of removed rules is
+     * reverted.
+     */
+    static class RetransformingListener implements DebugRuleRegistry.Listener {
+        private final Instrumentation instrumentation;
+        private final DebugClassTransformer transformer;
+
+        RetransformingListener(Instrumentation instrumentation, DebugClassTransformer transformer) {
+            this.instrumentation = instrumentation;
+            this.transformer = transformer;
+        }
+
+        @Override
+        public void rulesChanged(@Nonnull Collection<DebugRule> changed) {
+            List<Class> classes = new ArrayList<Class>();
+            for(Class clz: instrumentation.getAllLoadedClasses()) {
+                if(!isRetransformable(instrumentation, transformer, clz)) {
+                    continue;
+                }
+                for(DebugRule rule: changed) {
+                    if(rule.matchesClass(clz.getName())) {
+                        classes.add(clz);
+                        break;
+                    }
+                }
+            }
+            retransform(instrumentation, classes);
+        }
+    }
+
+    static String[] parsePackages(@Nullable String args) {
+        List<String> packages = new ArrayList<String>();
+        if(args != null) {
+            for(String pkg: args.split(",")) {
+                pkg = pkg.trim();
+                if(pkg.length() > 0) {
+                    packages.add(pkg.replace('.', '/') + "/");
+                }
+            }
+        }
+        return packages.toArray(new String[packages.size()]);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.agent;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import org.dbg4j.core.rules.DebugRuleRegistry;
+
+/**
+ * Class transformer that injects debugging prologue into methods annotated with
+ * {@link org.dbg4j.core.annotations.Debug} or matched by {@link DebugRuleRegistry} rules (see
+ * {@link org.dbg4j.core.aop.DebugAdvice} for the injected code).
+ * Transformation does not add fields or methods, so classes may be retransformed.
+ *
+ * Classes that do not refer <code>@Debug</code> annotation and are not matched by rules are not parsed at all. Any transformation error leaves
+ * class untouched.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DebugClassTransformer implements ClassFileTransformer {
+
+    static final String DEBUG_ANNOTATION = "Lorg/dbg4j/core/annotations/Debug;";
+
+    private static final byte[] DEBUG_ANNOTATION_BYTES = DEBUG_ANNOTATION.getBytes();
+    private static final String[] EXCLUDED_PACKAGES = {"java/", "javax/", "sun/", "com/sun/", "jdk/",
+            "org/aspectj/", "org/objectweb/asm/", "org/dbg4j/core/", "org/dbg4j/agent/asm/"};
+
+    private final String[] includedPackages;
+
+    /**
+     * @param includedPackages packages to instrument in internal form (<code>com/mycompany/</code>). All packages
+     *                         are instrumented if empty.
+     */
+    public DebugClassTransformer(@Nullable String... includedPackages) {
+        this.includedPackages = (includedPackages != null) ? includedPackages : new String[0];
+    }
+
+    @Nullable
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+            ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        if(loader == null || className == null || !isIncluded(className)) {
+            return null;
+        }
+        try {
+            return instrument(className, classfileBuffer);
+        } catch (Throwable ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * @param className class name in internal form (<code>com/mycompany/MyClass</code>)
+     * @return
+     */
+    public boolean isIncluded(@Nonnull String className) {
+        for(String excluded: EXCLUDED_PACKAGES) {
+            if(className.startsWith(excluded)) {
+                return false;
+            }
+        }
+        if(includedPackages.length == 0) {
+            return true;
+        }
+        for(String included: includedPackages) {
+            if(className.startsWith(included)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Instrument class.
+     *
+     * @param classfileBuffer class bytes
+     * @return instrumented class bytes or <code>null</code> if class has no methods to debug
+     */
+    @Nullable
+    public byte[] instrument(@Nonnull byte[] classfileBuffer) {
+        return instrument(DebugRuleRegistry.isEmpty() ? null : new ClassReader(classfileBuffer).getClassName(),
+                classfileBuffer);
+    }
+
+    /**
+     * Instrument class. Methods annotated with {@link org.dbg4j.core.annotations.Debug} and methods matched by
+     * {@link DebugRuleRegistry} rules are instrumented.
+     *
+     * @param className class name in internal form
+     * @param classfileBuffer class bytes
+     * @return instrumented class bytes or <code>null</code> if class has no methods to debug
+     */
+    @Nullable
+    public byte[] instrument(@Nullable String className, @Nonnull byte[] classfileBuffer) {
+        String ruleClassName = (className != null) ? className.replace('/', '.') : null;
+        if(ruleClassName != null && !DebugRuleRegistry.matchesClass(ruleClassName)) {
+            ruleClassName = null;
+        }
+        if(ruleClassName == null && !contains(classfileBuffer, DEBUG_ANNOTATION_BYTES)) {
+            return null;
+        }
+        ClassReader reader = new ClassReader(classfileBuffer);
+        DebugMethodsCollector collector = new DebugMethodsCollector(ruleClassName);
+        reader.accept(collector, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        if(!collector.isInstrumentable()) {
+            return null;
+        }
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        reader.accept(new DebugClassVisitor(writer, collector.methods), ClassReader.EXPAND_FRAMES);
+        return writer.toByteArray();
+    }
+
+    private static boolean contains(byte[] bytes, byte[] pattern) {
+        outer:
+        for(int i = 0; i <= bytes.length - pattern.length; i++) {
+            for(int j = 0; j < pattern.length; j++) {
+                if(bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Collects methods to instrument and checks if class may be instrumented.
+     */
+    private static class DebugMethodsCollector extends ClassVisitor {
+        final Set<String> methods = new HashSet<String>();
+        final String ruleClassName;
+        int version;
+        boolean isInterface;
+        boolean woven;
+
+        DebugMethodsCollector(String ruleClassName) {
+            super(Opcodes.ASM9);
+            this.ruleClassName = ruleClassName;
+        }
+
+        boolean isInstrumentable() {
+            return !methods.isEmpty() && !isInterface && !woven && (version & 0xFFFF) >= Opcodes.V1_5;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                String[] interfaces) {
+            this.version = version;
+            this.isInterface = (access & Opcodes.ACC_INTERFACE) != 0;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature,
+                Object value) {
+            if(name.startsWith("ajc$")) {
+                woven = true;
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String descriptor,
+                String signature, String[] exceptions) {
+            if(name.startsWith("ajc$") || name.contains("_aroundBody")) {
+                woven = true;
+            }
+            if((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_BRIDGE
+                    | Opcodes.ACC_SYNTHETIC)) != 0 || name.startsWith("<")) {
+                return null;
+            }
+            if(ruleClassName != null && DebugRuleRegistry.match(ruleClassName, name) != null) {
+                methods.add(name + descriptor);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                    if(visible && DEBUG_ANNOTATION.equals(annotationDescriptor)) {
+                        methods.add(name + descriptor);
+                    }
+                    return null;
+                }
+            };
+        }
+    }
+
+    /**
+     * Instruments collected methods.
+     */
+    private static class DebugClassVisitor extends ClassVisitor {
+        private final Set<String> methods;
+        private String owner;
+        private boolean frames;
+
+        DebugClassVisitor(ClassVisitor classVisitor, Set<String> methods) {
+            super(Opcodes.ASM9, classVisitor);
+            this.methods = methods;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                String[] interfaces) {
+            super.visit(version, access, name, signature, superName, interfaces);
+            this.owner = name;
+            this.frames = (version & 0xFFFF) >= Opcodes.V1_6;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                String[] exceptions) {
+            MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+            if(methodVisitor != null && methods.contains(name + descriptor)) {
+                return new DebugMethodVisitor(methodVisitor, owner, access, name, descriptor, frames);
+            }
+            return methodVisitor;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Injects debugging prologue (see {@link org.dbg4j.core.aop.DebugAdvice}) at the beginning of the method. Original
+ * method body is kept as is.
+ *
+ * @author Maksym Fedoryshyn
+ */
+class DebugMethodVisitor extends MethodVisitor {
+
+    static final String ADVICE = "org/dbg4j/core/aop/DebugAdvice";
+    static final String DEBUG_DESCRIPTOR =
+            "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/String;Ljava/lang/Object;[Ljava/lang/Object;)"
+                    + "Ljava/lang/Object;";
+
+    //indexed by Type.getSort()
+    private static final String[] WRAPPERS = {null, "java/lang/Boolean", "java/lang/Character", "java/lang/Byte",
+            "java/lang/Short", "java/lang/Integer", "java/lang/Float", "java/lang/Long", "java/lang/Double"};
+    private static final String[] UNBOX_METHODS = {null, "booleanValue", "charValue", "byteValue", "shortValue",
+            "intValue", "floatValue", "longValue", "doubleValue"};
+
+    private final String owner;
+    private final String name;
+    private final String descriptor;
+    private final boolean isStatic;
+    private final boolean frames;
+    private final Type[] argumentTypes;
+    private final Type returnType;
+    private boolean framePending;
+
+    DebugMethodVisitor(MethodVisitor methodVisitor, String owner, int access, String name, String descriptor,
+            boolean frames) {
+        super(Opcodes.ASM9, methodVisitor);
+        this.owner = owner;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.isStatic = (access & Opcodes.ACC_STATIC) != 0;
+        this.frames = frames;
+        this.argumentTypes = Type.getArgumentTypes(descriptor);
+        this.returnType = Type.getReturnType(descriptor);
+    }
+
+    @Override
+    public void visitCode() {
+        super.visitCode();
+
+        Label original = new Label();
+        Label proceed = new Label();
+
+        super.visitFieldInsn(Opcodes.GETSTATIC, ADVICE, "enabled", "Z");
+        super.visitJumpInsn(Opcodes.IFEQ, original);
+        super.visitMethodInsn(Opcodes.INVOKESTATIC, ADVICE, "isActive", "()Z", false);
+        super.visitJumpInsn(Opcodes.IFEQ, original);
+
+        super.visitLdcInsn(Type.getObjectType(owner));
+        super.visitLdcInsn(name);
+        super.visitLdcInsn(descriptor);
+        if(isStatic) {
+            super.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            super.visitVarInsn(Opcodes.ALOAD, 0);
+        }
+        pushArguments();
+        super.visitMethodInsn(Opcodes.INVOKESTATIC, ADVICE, "debug", DEBUG_DESCRIPTOR, false);
+
+        super.visitInsn(Opcodes.DUP);
+        super.visitFieldInsn(Opcodes.GETSTATIC, ADVICE, "PROCEED", "Ljava/lang/Object;");
+        super.visitJumpInsn(Opcodes.IF_ACMPEQ, proceed);
+        unboxAndReturn();
+
+        super.visitLabel(proceed);
+        if(frames) {
+            Object[] locals = getInitialLocals();
+            super.visitFrame(Opcodes.F_NEW, locals.length, locals, 1, new Object[]{"java/lang/Object"});
+        }
+        super.visitInsn(Opcodes.POP);
+        super.visitLabel(original);
+        //frame for the original code is emitted right before its first instruction, unless original code starts
+        //with its own frame
+        framePending = frames;
+    }
+
+    private void pushArguments() {
+        pushInt(argumentTypes.length);
+        super.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object");
+        int slot = isStatic ? 0 : 1;
+        for(int i = 0; i < argumentTypes.length; i++) {
+            Type type = argumentTypes[i];
+            super.visitInsn(Opcodes.DUP);
+            pushInt(i);
+            super.visitVarInsn(type.getOpcode(Opcodes.ILOAD), slot);
+            if(type.getSort() < Type.ARRAY) {
+                String wrapper = WRAPPERS[type.getSort()];
+                super.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf",
+                        "(" + type.getDescriptor() + ")L" + wrapper + ";", false);
+            }
+            super.visitInsn(Opcodes.AASTORE);
+            slot += type.getSize();
+        }
+    }
+
+    private void unboxAndReturn() {
+        int sort = returnType.getSort();
+        if(sort == Type.VOID) {
+            super.visitInsn(Opcodes.POP);
+        } else if(sort < Type.ARRAY) {
+            super.visitTypeInsn(Opcodes.CHECKCAST, WRAPPERS[sort]);
+            super.visitMethodInsn(Opcodes.INVOKEVIRTUAL, WRAPPERS[sort], UNBOX_METHODS[sort],
+                    "()" + returnType.getDescriptor(), false);
+        } else {
+            super.visitTypeInsn(Opcodes.CHECKCAST, returnType.getInternalName());
+        }
+        super.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+    }
+
+    private void pushInt(int value) {
+        if(value <= 5) {
+            super.visitInsn(Opcodes.ICONST_0 + value);
+        } else if(value <= Byte.MAX_VALUE) {
+            super.visitIntInsn(Opcodes.BIPUSH, value);
+        } else {
+            super.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+    }
+
+    private Object[] getInitialLocals() {
+        List<Object> locals = new ArrayList<Object>();
+        if(!isStatic) {
+            locals.add(owner);
+        }
+        for(Type type: argumentTypes) {
+            switch(type.getSort()) {
+                case Type.BOOLEAN:
+                case Type.CHAR:
+                case Type.BYTE:
+                case Type.SHORT:
+                case Type.INT:
+                    locals.add(Opcodes.INTEGER);
+                    break;
+                case Type.FLOAT:
+                    locals.add(Opcodes.FLOAT);
+                    break;
+                case Type.LONG:
+                    locals.add(Opcodes.LONG);
+                    break;
+                case Type.DOUBLE:
+                    locals.add(Opcodes.DOUBLE);
+                    break;
+                default:
+                    locals.add(type.getInternalName());
+            }
+        }
+        return locals.toArray();
+    }
+
+    private void flushFrame() {
+        if(framePending) {
+            framePending = false;
+            Object[] locals = getInitialLocals();
+            super.visitFrame(Opcodes.F_NEW, locals.length, locals, 0, new Object[0]);
+        }
+    }
+
+    @Override
+    public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
+        framePending = false;
+        super.visitFrame(type, numLocal, local, numStack, stack);
+    }
+
+    @Override
+    public void visitInsn(int opcode) {
+        flushFrame();
+        super.visitInsn(opcode);
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+        flushFrame();
+        super.visitIntInsn(opcode, operand);
+    }
+
+    @Override
+    public void visitVarInsn(int opcode, int var) {
+        flushFrame();
+        super.visitVarInsn(opcode, var);
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+        flushFrame();
+        super.visitTypeInsn(opcode, type);
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+        flushFrame();
+        super.visitFieldInsn(opcode, owner, name, descriptor);
+    }
+
+    @Override
+    public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+        flushFrame();
+        super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+            Object... bootstrapMethodArguments) {
+        flushFrame();
+        super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+    }
+
+    @Override
+    public void visitJumpInsn(int opcode, Label label) {
+        flushFrame();
+        super.visitJumpInsn(opcode, label);
+    }
+
+    @Override
+    public void visitLdcInsn(Object value) {
+        flushFrame();
+        super.visitLdcInsn(value);
+    }
+
+    @Override
+    public void visitIincInsn(int var, int increment) {
+        flushFrame();
+        super.visitIincInsn(var, increment);
+    }
+
+    @Override
+    public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+        flushFrame();
+        super.visitTableSwitchInsn(min, max, dflt, labels);
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+        flushFrame();
+        super.visitLookupSwitchInsn(dflt, keys, labels);
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+        flushFrame();
+        super.visitMultiANewArrayInsn(descriptor, numDimensions);
+    }
+}
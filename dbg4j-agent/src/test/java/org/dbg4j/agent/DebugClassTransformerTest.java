@@ -0,0 +1,190 @@
+package org.dbg4j.agent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dbg4j.core.aop.DebugAdvice;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+import org.dbg4j.core.rules.DebugRule;
+import org.dbg4j.core.rules.DebugRuleRegistry;
+
+import static org.junit.Assert.*;
+
+public class DebugClassTransformerTest {
+
+    DebugClassTransformer transformer;
+    Object instance;
+
+    @Before
+    public void setUp() throws Exception {
+        transformer = new DebugClassTransformer();
+        Class clz = new InstrumentingClassLoader(transformer, InstrumentedTestClass.class.getName())
+                .loadClass(InstrumentedTestClass.class.getName());
+        instance = clz.newInstance();
+        DebugAdvice.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+        DebugAdvice.setEnabled(true);
+    }
+
+    @Test
+    public void testInstrument_noDebugMethods() throws Exception {
+        assertNull(transformer.instrument(readClass(DebugClassTransformerTest.class.getName())));
+        assertFalse(transformer.isIncluded("org/dbg4j/core/DebugUtils"));
+        assertFalse(new DebugClassTransformer("com/mycompany/").isIncluded("org/dbg4j/agent/Test"));
+        assertTrue(new DebugClassTransformer("com/mycompany/").isIncluded("com/mycompany/Test"));
+    }
+
+    @Test
+    public void testNoContext() throws Exception {
+        //instrumented methods are not entered without active contexts
+        assertFalse(DebugAdvice.enabled);
+        assertEquals(10, invoke("add", 1, 2L, 3.0, "ab"));
+        assertNull(DebugContext.getContext());
+    }
+
+    @Test
+    public void testDebug() throws Exception {
+        DebugContext.init(null);
+        assertTrue(DebugAdvice.enabled);
+
+        assertEquals(10, invoke("add", 1, 2L, 3.0, "ab"));
+        assertEquals(Arrays.asList("a", "b"), invoke("list", (Object) new String[]{"a", "b"}));
+        assertEquals(0, invoke("countDown", 3));
+        assertEquals(1, invoke("notDebugged"));
+
+        List<DebugData> records = new ArrayList<DebugData>(DebugContext.getContext().getDebugData());
+        assertEquals(4, records.size());
+        assertEquals("int twice(int)", records.get(0).get("Method"));
+        assertEquals("2", records.get(0).get("Result").toString());
+        assertEquals("int add(int, long, double, String)", records.get(1).get("Method"));
+        assertEquals("10", records.get(1).get("Result").toString());
+        assertEquals(4, ((Collection) records.get(1).get("Arguments")).size());
+        assertNotNull(records.get(1).get("Fields"));
+        assertEquals("List list(String[])", records.get(2).get("Method"));
+        assertEquals("int countDown(int)", records.get(3).get("Method"));
+    }
+
+    @Test
+    public void testDebug_exception() throws Exception {
+        DebugContext.init(null);
+
+        try {
+            invoke("fail", "message");
+            fail("IllegalStateException should be thrown");
+        } catch (InvocationTargetException e) {
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+            assertEquals("message", e.getCause().getMessage());
+        }
+
+        Collection<DebugData> records = DebugContext.getContext().getDebugData();
+        assertEquals(1, records.size());
+        assertNotNull(records.iterator().next().get("Error"));
+    }
+
+    @Test
+    public void testDebug_rule() throws Exception {
+        DebugRuleRegistry.register(new DebugRule(InstrumentedTestClass.class.getName(), "notDebugged"));
+        try {
+            instance = new InstrumentingClassLoader(transformer, InstrumentedTestClass.class.getName())
+                    .loadClass(InstrumentedTestClass.class.getName()).newInstance();
+            DebugContext.init(null);
+
+            assertEquals(0, invoke("notDebugged"));
+
+            Collection<DebugData> records = DebugContext.getContext().getDebugData();
+            assertEquals(1, records.size());
+            assertEquals("int notDebugged()", records.iterator().next().get("Method"));
+        } finally {
+            DebugRuleRegistry.clear();
+        }
+
+        //rule is removed, so method is not debugged
+        assertEquals(0, invoke("notDebugged"));
+        assertEquals(1, DebugContext.getContext().getDebugData().size());
+    }
+
+    @Test
+    public void testDebug_disabled() throws Exception {
+        DebugContext.init(null);
+        DebugAdvice.setEnabled(false);
+        assertFalse(DebugAdvice.enabled);
+
+        assertEquals(10, invoke("add", 1, 2L, 3.0, "ab"));
+        assertEquals(0, DebugContext.getContext().getDebugData().size());
+    }
+
+    private Object invoke(String name, Object... args) throws Exception {
+        for(Method method: instance.getClass().getMethods()) {
+            if(method.getName().equals(name)) {
+                return method.invoke(instance, args);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    static byte[] readClass(String className) throws Exception {
+        InputStream in = DebugClassTransformerTest.class.getClassLoader()
+                .getResourceAsStream(className.replace('.', '/') + ".class");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads given class itself (instrumented), everything else is loaded by parent.
+     */
+    static class InstrumentingClassLoader extends ClassLoader {
+        private final DebugClassTransformer transformer;
+        private final String className;
+
+        InstrumentingClassLoader(DebugClassTransformer transformer, String className) {
+            super(DebugClassTransformerTest.class.getClassLoader());
+            this.transformer = transformer;
+            this.className = className;
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if(!name.equals(className)) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> clz = findLoadedClass(name);
+            if(clz == null) {
+                try {
+                    byte[] bytes = transformer.transform(this, name.replace('.', '/'), null, null,
+                            readClass(name));
+                    assertNotNull(bytes);
+                    clz = defineClass(name, bytes, 0, bytes.length);
+                } catch (ClassNotFoundException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+            return clz;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.dbg4j.agent;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dbg4j.core.annotations.Debug;
+
+public class InstrumentedTestClass {
+
+    @Debug
+    private int counter = 0;
+
+    @Debug
+    public int add(int a, long b, double c, String d) {
+        return a + (int) b + (int) c + d.length() + twice(a);
+    }
+
+    @Debug
+    private int twice(int a) {
+        counter++;
+        return a * 2;
+    }
+
+    @Debug
+    public static List<String> list(String... values) {
+        return Arrays.asList(values);
+    }
+
+    @Debug
+    public void fail(String message) {
+        throw new IllegalStateException(message);
+    }
+
+    @Debug
+    public int countDown(int n) {
+        do {
+            n--;
+        } while (n > 0);
+        return n;
+    }
+
+    public int notDebugged() {
+        return counter;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Per-class cache for values computed by reflection. Lookups of cached values are lock-free, lock is taken only
+ * to compute missing value. Class keys are weak and values are soft, so cache does not pin classloaders of
+ * redeployed applications when dbg4j is shared between them (values usually reference methods or fields and so
+ * their classes).
+ *
+ * @param <V> cached value type
+ * @author Maksym Fedoryshyn
+ */
+public abstract class ClassCache<V> {
+
+    private final ConcurrentMap<Key, Reference<V>> values = new ConcurrentHashMap<Key, Reference<V>>();
+    private final ReferenceQueue<Class> queue = new ReferenceQueue<Class>();
+
+    @Nonnull
+    public V get(@Nonnull Class clz) {
+        Reference<V> reference = values.get(new Key(clz, null));
+        V value = (reference != null) ? reference.get() : null;
+        if(value != null) {
+            return value;
+        }
+        synchronized (this) {
+            expunge();
+            reference = values.get(new Key(clz, null));
+            value = (reference != null) ? reference.get() : null;
+            if(value == null) {
+                value = compute(clz);
+                values.put(new Key(clz, queue), new SoftReference<V>(value));
+            }
+            return value;
+        }
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Compute value for the class, called once per class (or again after value was garbage collected).
+     */
+    @Nonnull
+    protected abstract V compute(@Nonnull Class clz);
+
+    private void expunge() {
+        Reference<? extends Class> key;
+        while((key = queue.poll()) != null) {
+            values.remove(key);
+        }
+    }
+
+    private static class Key extends WeakReference<Class> {
+        private final int hash;
+
+        Key(Class clz, ReferenceQueue<Class> queue) {
+            super(clz, queue);
+            this.hash = System.identityHashCode(clz);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) {
+                return true;
+            }
+            if(!(obj instanceof Key)) {
+                return false;
+            }
+            Class clz = get();
+            return clz != null && clz == ((Key) obj).get();
+        }
+    }
+}
@@ -34,16 +34,20 @@ import javax.annotation.Nullable;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import org.dbg4j.core.adapters.EvaluationAdapter;
 import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
-import org.dbg4j.core.adapters.impl.DefaultEvaluationAdapter;
+import org.dbg4j.core.adapters.impl.BoundedEvaluationAdapter;
+import org.dbg4j.core.adapters.impl.StructuredEvaluationAdapter;
 import org.dbg4j.core.annotations.Adapter;
 import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.DeferredValue;
+import org.dbg4j.core.beans.StackTrace;
+import org.dbg4j.core.context.DebugContext;
 
 /**
  * Debugging utils. Used mostly by {@link DefaultDebuggingAdapter}
@@ -101,7 +105,7 @@ public class DebugUtils {
 
     /**
      * Method creates <code>Map&lt;String, String&gt;</code> that contains instance field names
-     * and their values. By default parameter value evaluates by {@link DefaultEvaluationAdapter} unless another
+     * and their values. By default parameter value evaluates by {@link BoundedEvaluationAdapter} unless another
      * evaluator is set by {@link Adapter} annotation.
      *
      * @param instance
@@ -112,9 +116,52 @@ public class DebugUtils {
     public static Map<String, String> getFieldValues(@Nonnull Object instance,
             @Nonnull Collection<Field> fieldsForDebug) {
         Map<String, String> result = new HashMap<String, String>();
+        for(Map.Entry<String, Object> entry: getFieldValues(instance, fieldsForDebug, false,
+                BoundedEvaluationAdapter.DEFAULT, false).entrySet()) {
+            result.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #getFieldValues(Object, java.util.Collection)}, but field values may be evaluated lazily and
+     * results of {@link StructuredEvaluationAdapter} are kept as structures.
+     *
+     * @param instance
+     * @param fieldsForDebug
+     * @param deferEvaluation if <code>true</code>, values are {@link DeferredValue}s, which are evaluated at
+     *                        serialization time
+     * @return
+     */
+    @Nonnull
+    public static Map<String, Object> getFieldValues(@Nonnull Object instance,
+            @Nonnull Collection<Field> fieldsForDebug, boolean deferEvaluation) {
+        return getFieldValues(instance, fieldsForDebug, deferEvaluation, BoundedEvaluationAdapter.DEFAULT, true);
+    }
+
+    /**
+     * Same as {@link #getFieldValues(Object, java.util.Collection, boolean)}, but fields without {@link Adapter}
+     * annotation are evaluated by given adapter.
+     *
+     * @param instance
+     * @param fieldsForDebug
+     * @param deferEvaluation
+     * @param defaultEvaluationAdapter
+     * @return
+     */
+    @Nonnull
+    public static Map<String, Object> getFieldValues(@Nonnull Object instance,
+            @Nonnull Collection<Field> fieldsForDebug, boolean deferEvaluation,
+            @Nonnull EvaluationAdapter defaultEvaluationAdapter) {
+        return getFieldValues(instance, fieldsForDebug, deferEvaluation, defaultEvaluationAdapter, true);
+    }
+
+    private static Map<String, Object> getFieldValues(Object instance, Collection<Field> fieldsForDebug,
+            boolean deferEvaluation, EvaluationAdapter defaultEvaluationAdapter, boolean structured) {
+        Map<String, Object> result = new HashMap<String, Object>();
 
         for(Field field: fieldsForDebug) {
-            String fieldValue = DefaultDebuggingAdapter.UNKNOWN_VALUE;
+            Object fieldValue = DefaultDebuggingAdapter.UNKNOWN_VALUE;
             try {
                 EvaluationAdapter evaluationAdapter = null;
                 if(field.isAnnotationPresent(Adapter.class)) {
@@ -122,15 +169,20 @@ public class DebugUtils {
                     evaluationAdapter = adapterAnnotation.value().newInstance();
                 }
                 if(evaluationAdapter == null) {
-                    evaluationAdapter = new DefaultEvaluationAdapter();
+                    evaluationAdapter = defaultEvaluationAdapter;
                 }
 
-                if(Modifier.isStatic(field.getModifiers())) {
-                    fieldValue = evaluationAdapter.evaluate(field.getDeclaringClass(),
-                            FieldUtils.readDeclaredStaticField(instance.getClass(), field.getName(), true));
+                if(!field.isAccessible()) {
+                    field.setAccessible(true);
+                }
+                Object value = field.get(Modifier.isStatic(field.getModifiers()) ? null : instance);
+                if(deferEvaluation) {
+                    fieldValue = new DeferredValue(evaluationAdapter, field.getDeclaringClass(), value);
+                } else if(structured && evaluationAdapter instanceof StructuredEvaluationAdapter) {
+                    fieldValue = ((StructuredEvaluationAdapter) evaluationAdapter)
+                            .evaluateStructured(field.getDeclaringClass(), value);
                 } else {
-                    fieldValue = evaluationAdapter.evaluate(field.getDeclaringClass(),
-                            FieldUtils.readDeclaredField(instance, field.getName(), true));
+                    fieldValue = evaluationAdapter.evaluate(field.getDeclaringClass(), value);
                 }
             } catch (Exception ignored) {}
             result.put(field.getName(), fieldValue);
@@ -236,6 +288,33 @@ public class DebugUtils {
         return result;
     }
 
+    /**
+     * Get stack trace of the throwable. Frames are filtered by current stack frame policy and interned in the frame
+     * table of current debug context, so records share common part of their stacks. Falls back to string if there is
+     * no debug context or stack trace can't be interned. Causes are not filtered.
+     *
+     * @param throwable
+     * @return {@link StackTrace} or <code>String</code>, both have the same string representation
+     * @see org.dbg4j.core.beans.StackFrameTable
+     * @see org.dbg4j.core.beans.StackFramePolicy
+     */
+    @Nonnull
+    public static Object getStackTrace(@Nonnull Throwable throwable) {
+        if(throwable.getCause() != null) {
+            return ExceptionUtils.getStackTrace(throwable);
+        }
+        String header = throwable.toString();
+        StackTraceElement[] frames = DebugContext.getStackFramePolicy().apply(throwable.getStackTrace());
+        DebugContext context = DebugContext.getContext();
+        if(context != null && context.getStackFrameTable() != null) {
+            StackTrace result = context.getStackFrameTable().intern(header, frames);
+            if(result != null) {
+                return result;
+            }
+        }
+        return StackTrace.format(header, frames);
+    }
+
     /**
      * Converts <code>DebugData</code> collection into json array string
      * @param debugDatas
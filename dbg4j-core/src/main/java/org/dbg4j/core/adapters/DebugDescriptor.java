@@ -0,0 +1,242 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.adapters;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.ClassCache;
+import org.dbg4j.core.annotations.Adapter;
+import org.dbg4j.core.annotations.Debug;
+import org.dbg4j.core.annotations.Ignore;
+import org.dbg4j.core.rules.DebugRule;
+
+import static org.dbg4j.core.DebugUtils.*;
+
+/**
+ * Precomputed description of the debugged method: signature string, argument types and evaluators, result evaluator
+ * and fields to debug (per instance class). Descriptors are built once per method (see
+ * {@link #forMethod(Method, Debug)}), so debugged calls do not inspect annotations and do not create evaluation
+ * adapters.
+ *
+ * Evaluation adapters set by {@link Adapter} annotation are created once and shared, so they should be thread safe.
+ * <code>null</code> adapter means that default one should be used.
+ *
+ * Descriptors are cached per declaring class (see {@link ClassCache}), cached descriptors are looked up without
+ * locking.
+ *
+ * @see org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter
+ * @author Maksym Fedoryshyn
+ */
+public class DebugDescriptor {
+
+    private static final ClassCache<Map<Method, DebugDescriptor>> DESCRIPTORS =
+            new ClassCache<Map<Method, DebugDescriptor>>() {
+                @Nonnull
+                @Override
+                protected Map<Method, DebugDescriptor> compute(@Nonnull Class clz) {
+                    return new ConcurrentHashMap<Method, DebugDescriptor>();
+                }
+            };
+
+    private final Method method;
+    private final Debug debug;
+    private final String signature;
+    private final Class[] parameterTypes;
+    private final boolean[] ignored;
+    private final EvaluationAdapter[] argumentAdapters;
+    private final Class returnType;
+    private final EvaluationAdapter resultAdapter;
+    private final boolean debugOnce;
+    private final boolean deferEvaluation;
+    private final String[] instanceFields;
+    private final Map<Class, Collection<Field>> fields = new ConcurrentHashMap<Class, Collection<Field>>();
+
+    /**
+     * Get descriptor of the method. Descriptors are cached per method; cached descriptor is replaced if it was built
+     * for another <code>debug</code> instance (f.e. for a {@link DebugRule}).
+     *
+     * @param method debugged method (may be <code>null</code>, f.e. in tests)
+     * @param debug debug annotation
+     * @return
+     */
+    @Nonnull
+    public static DebugDescriptor forMethod(@Nullable Method method, @Nullable Debug debug) {
+        if(method == null) {
+            return new DebugDescriptor(null, debug);
+        }
+        Map<Method, DebugDescriptor> descriptors = DESCRIPTORS.get(method.getDeclaringClass());
+        DebugDescriptor descriptor = descriptors.get(method);
+        if(descriptor != null && descriptor.debug == debug) {
+            return descriptor;
+        }
+        descriptor = new DebugDescriptor(method, debug);
+        descriptors.put(method, descriptor);
+        return descriptor;
+    }
+
+    protected DebugDescriptor(@Nullable Method method, @Nullable Debug debug) {
+        this.method = method;
+        this.debug = debug;
+        this.debugOnce = debug != null && debug.debugOnce();
+        this.deferEvaluation = debug != null && debug.deferEvaluation();
+        this.instanceFields = (debug != null) ? debug.instanceFields() : null;
+        if(method == null) {
+            signature = null;
+            parameterTypes = new Class[0];
+            ignored = new boolean[0];
+            argumentAdapters = new EvaluationAdapter[0];
+            returnType = null;
+            resultAdapter = null;
+            return;
+        }
+        signature = getMethodSignature(method);
+        parameterTypes = method.getParameterTypes();
+        ignored = new boolean[parameterTypes.length];
+        argumentAdapters = new EvaluationAdapter[parameterTypes.length];
+        EvaluationAdapter ruleAdapter = (debug instanceof DebugRule && ((DebugRule) debug).getAdapter() != null)
+                ? newAdapter(((DebugRule) debug).getAdapter()) : null;
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for(int i = 0; i < parameterTypes.length; i++) {
+            ignored[i] = containsAnnotation(parameterAnnotations[i], Ignore.class);
+            if(!ignored[i] && containsAnnotation(parameterAnnotations[i], Adapter.class)) {
+                argumentAdapters[i] = newAdapter(getAnnotation(parameterAnnotations[i], Adapter.class).value());
+            } else {
+                argumentAdapters[i] = ruleAdapter;
+            }
+        }
+        returnType = method.getReturnType();
+        resultAdapter = method.isAnnotationPresent(Adapter.class)
+                ? newAdapter(method.getAnnotation(Adapter.class).value()) : ruleAdapter;
+    }
+
+    @Nullable
+    public Method getMethod() {
+        return method;
+    }
+
+    @Nullable
+    public Debug getDebugAnnotation() {
+        return debug;
+    }
+
+    /**
+     * @return method signature (see {@link org.dbg4j.core.DebugUtils#getMethodSignature(Method)})
+     */
+    @Nullable
+    public String getSignature() {
+        return signature;
+    }
+
+    @Nonnull
+    public Class[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * @param i argument index
+     * @return <code>true</code> if argument is annotated with {@link Ignore}
+     */
+    public boolean isIgnored(int i) {
+        return ignored[i];
+    }
+
+    /**
+     * @param i argument index
+     * @return adapter set by {@link Adapter} annotation or <code>null</code>
+     */
+    @Nullable
+    public EvaluationAdapter getArgumentAdapter(int i) {
+        return argumentAdapters[i];
+    }
+
+    @Nullable
+    public Class getReturnType() {
+        return returnType;
+    }
+
+    public boolean isVoid() {
+        return returnType == null || Void.TYPE.equals(returnType);
+    }
+
+    /**
+     * @return adapter set by {@link Adapter} annotation of the method or <code>null</code>
+     */
+    @Nullable
+    public EvaluationAdapter getResultAdapter() {
+        return resultAdapter;
+    }
+
+    public boolean isDebugOnce() {
+        return debugOnce;
+    }
+
+    public boolean isDeferEvaluation() {
+        return deferEvaluation;
+    }
+
+    /**
+     * Get fields to debug according to {@link Debug#instanceFields()}. Fields are looked up once per instance class.
+     *
+     * @param instance
+     * @return fields (empty if fields should not be debugged)
+     */
+    @Nonnull
+    public Collection<Field> getFields(@Nullable Object instance) {
+        if(instance == null || instanceFields == null || instanceFields.length == 0
+                || (instanceFields.length == 1 && Debug.DEBUG_SKIP_FIELDS_CONSTANT.equals(instanceFields[0]))) {
+            return Collections.emptySet();
+        }
+        Collection<Field> result = fields.get(instance.getClass());
+        if(result == null) {
+            if(instanceFields.length == 1 && Debug.DEBUG_ALL_FIELDS_CONSTANT.equals(instanceFields[0])) {
+                result = getObjectFields(instance, Ignore.class, false);
+            } else if (instanceFields.length == 1
+                    && Debug.DEBUG_ANNOTATED_FIELDS_CONSTANT.equals(instanceFields[0])) {
+                result = getObjectFields(instance, Debug.class, true);
+            } else {
+                result = getObjectFields(instance, instanceFields);
+            }
+            for(Field field: result) {
+                try {
+                    field.setAccessible(true);
+                } catch (Exception ignored) {}
+            }
+            result = Collections.unmodifiableCollection(result);
+            fields.put(instance.getClass(), result);
+        }
+        return result;
+    }
+
+    @Nullable
+    private static EvaluationAdapter newAdapter(Class<? extends EvaluationAdapter> adapterClass) {
+        try {
+            return adapterClass.newInstance();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.adapters.impl;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.adapters.EvaluationAdapter;
+
+/**
+ * Evaluation adapter with limits. Strings, collections, maps and arrays are written element by element (in the same
+ * format as their <code>toString()</code> produces) until one of the limits is reached, so the full string of a huge
+ * argument is never built:
+ * <ul>
+ *     <li><code>maxLength</code> - max length of the result string;</li>
+ *     <li><code>maxElements</code> - max number of collection/map/array elements;</li>
+ *     <li><code>maxDepth</code> - max depth of nested collections/maps/arrays;</li>
+ *     <li><code>maxArrayBytes</code> - max number of bytes of primitive array to evaluate.</li>
+ * </ul>
+ * Other objects are evaluated by <code>toString()</code> and truncated. Truncated parts are replaced by
+ * <code>"..."</code>. Default {@link StructuredEvaluationAdapter} uses the same limits.
+ *
+ * @see EvaluationAdapter
+ * @see DefaultEvaluationAdapter
+ * @author Maksym Fedoryshyn
+ */
+public class BoundedEvaluationAdapter implements EvaluationAdapter {
+
+    public static final int DEFAULT_MAX_LENGTH = 4096;
+    public static final int DEFAULT_MAX_ELEMENTS = 100;
+    public static final int DEFAULT_MAX_DEPTH = 3;
+    public static final int DEFAULT_MAX_ARRAY_BYTES = 1024;
+
+    public static final String TRUNCATED = "...";
+
+    /** Shared instance with default limits */
+    public static final BoundedEvaluationAdapter DEFAULT = new BoundedEvaluationAdapter();
+
+    private final int maxLength;
+    private final int maxElements;
+    private final int maxDepth;
+    private final int maxArrayBytes;
+
+    public BoundedEvaluationAdapter() {
+        this(DEFAULT_MAX_LENGTH, DEFAULT_MAX_ELEMENTS, DEFAULT_MAX_DEPTH, DEFAULT_MAX_ARRAY_BYTES);
+    }
+
+    public BoundedEvaluationAdapter(int maxLength, int maxElements, int maxDepth, int maxArrayBytes) {
+        this.maxLength = maxLength;
+        this.maxElements = maxElements;
+        this.maxDepth = maxDepth;
+        this.maxArrayBytes = maxArrayBytes;
+    }
+
+    @Nonnull
+    @Override
+    public String evaluate(@Nullable Class clz, @Nullable Object arg) {
+        LimitedBuilder sb = new LimitedBuilder(maxLength);
+        try {
+            append(sb, arg, 0);
+        } catch (LimitReachedException e) {
+            sb.truncate();
+        }
+        return sb.toString();
+    }
+
+    protected void append(LimitedBuilder sb, Object value, int depth) {
+        if(value instanceof CharSequence) {
+            sb.append((CharSequence) value);
+        } else if(value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            if(depth >= maxDepth) {
+                sb.append("[").append(TRUNCATED).append("]");
+                return;
+            }
+            sb.append("[");
+            appendElements(sb, collection.iterator(), collection.size(), value, depth);
+            sb.append("]");
+        } else if(value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if(depth >= maxDepth) {
+                sb.append("{").append(TRUNCATED).append("}");
+                return;
+            }
+            sb.append("{");
+            appendElements(sb, map.entrySet().iterator(), map.size(), value, depth);
+            sb.append("}");
+        } else if(value instanceof Map.Entry) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) value;
+            append(sb, entry.getKey(), depth);
+            sb.append("=");
+            append(sb, entry.getValue(), depth);
+        } else if(value != null && value.getClass().isArray()) {
+            if(depth >= maxDepth) {
+                sb.append("[").append(TRUNCATED).append("]");
+                return;
+            }
+            appendArray(sb, value, depth);
+        } else {
+            sb.append(String.valueOf(value));
+        }
+    }
+
+    protected void appendArray(LimitedBuilder sb, Object array, int depth) {
+        int length = Array.getLength(array);
+        int limit = maxElements;
+        Class componentType = array.getClass().getComponentType();
+        if(componentType.isPrimitive()) {
+            limit = Math.min(limit, maxArrayBytes / sizeOf(componentType));
+        }
+        sb.append("[");
+        for(int i = 0; i < length; i++) {
+            if(i > 0) {
+                sb.append(", ");
+            }
+            if(i >= limit) {
+                sb.append(TRUNCATED).append("(").append(String.valueOf(length)).append(" total)");
+                break;
+            }
+            Object element = Array.get(array, i);
+            if(element == array) {
+                sb.append("(this Array)");
+            } else {
+                append(sb, element, depth + 1);
+            }
+        }
+        sb.append("]");
+    }
+
+    private void appendElements(LimitedBuilder sb, Iterator<?> iterator, int size, Object container, int depth) {
+        int i = 0;
+        while(iterator.hasNext()) {
+            if(i > 0) {
+                sb.append(", ");
+            }
+            if(i >= maxElements) {
+                sb.append(TRUNCATED).append("(").append(String.valueOf(size)).append(" total)");
+                return;
+            }
+            Object element = iterator.next();
+            if(element == container) {
+                sb.append(container instanceof Map ? "(this Map)" : "(this Collection)");
+            } else {
+                append(sb, element, depth + 1);
+            }
+            i++;
+        }
+    }
+
+    private static int sizeOf(Class primitive) {
+        if(primitive == Long.TYPE || primitive == Double.TYPE) {
+            return 8;
+        } else if(primitive == Integer.TYPE || primitive == Float.TYPE) {
+            return 4;
+        } else if(primitive == Short.TYPE || primitive == Character.TYPE) {
+            return 2;
+        }
+        return 1;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxArrayBytes() {
+        return maxArrayBytes;
+    }
+
+    /**
+     * String builder that stops when max length is reached.
+     */
+    protected static class LimitedBuilder {
+        private final StringBuilder sb = new StringBuilder();
+        private final int maxLength;
+
+        public LimitedBuilder(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        public LimitedBuilder append(CharSequence s) {
+            int available = maxLength - sb.length();
+            if(s.length() > available) {
+                sb.append(s, 0, Math.max(available, 0));
+                throw LimitReachedException.INSTANCE;
+            }
+            sb.append(s);
+            return this;
+        }
+
+        void truncate() {
+            sb.append(TRUNCATED);
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
+    private static class LimitReachedException extends RuntimeException {
+        static final LimitReachedException INSTANCE = new LimitReachedException();
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
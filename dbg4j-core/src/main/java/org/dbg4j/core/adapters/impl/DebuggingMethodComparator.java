@@ -19,6 +19,7 @@ package org.dbg4j.core.adapters.impl;
 import java.util.Comparator;
 
 import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.MethodDebugData;
 
 /**
  * Comparator that is used to compare <code>DebugData</code> created by {@link DefaultDebuggingAdapter}. It is for
@@ -35,10 +36,10 @@ public class DebuggingMethodComparator implements Comparator<DebugData> {
     @Override
     public int compare(DebugData o1, DebugData o2) {
         return (o1 != null && o2 != null)
-                && compareSafe(o1.get("Type"), o2.get("Type"))
-                && compareSafe(o1.get("Type"), DefaultDebuggingAdapter.TYPE)
-                && compareSafe(o1.get("Class"), o2.get("Class"))
-                && compareSafe(o1.get("Method"), o2.get("Method")) ? 0 : 1;
+                && compareSafe(o1.get(MethodDebugData.TYPE), o2.get(MethodDebugData.TYPE))
+                && compareSafe(o1.get(MethodDebugData.TYPE), DefaultDebuggingAdapter.TYPE)
+                && compareSafe(o1.get(MethodDebugData.CLASS), o2.get(MethodDebugData.CLASS))
+                && compareSafe(o1.get(MethodDebugData.METHOD), o2.get(MethodDebugData.METHOD)) ? 0 : 1;
     }
 
     private boolean compareSafe(Object o1, Object o2) {
@@ -16,9 +16,7 @@
 
 package org.dbg4j.core.adapters.impl;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -31,6 +29,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
+import org.dbg4j.core.adapters.DebugDescriptor;
 import org.dbg4j.core.adapters.DebuggingAdapter;
 import org.dbg4j.core.adapters.EvaluationAdapter;
 import org.dbg4j.core.adapters.MethodInvocationPoint;
@@ -38,6 +37,8 @@ import org.dbg4j.core.annotations.Adapter;
 import org.dbg4j.core.annotations.Debug;
 import org.dbg4j.core.annotations.Ignore;
 import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.DeferredValue;
+import org.dbg4j.core.beans.MethodDebugData;
 import org.dbg4j.core.context.DebugContext;
 
 import static org.dbg4j.core.DebugUtils.*;
@@ -53,6 +54,11 @@ public class DefaultDebuggingAdapter implements DebuggingAdapter {
     public static final String IGNORED_VALUE = "@Ignore";
     public static final String UNKNOWN_VALUE = "**unknown**";
     public static final String TYPE = "METHOD";
+    /**
+     * Context property: if set to <code>true</code>, all values are evaluated lazily (as if
+     * {@link Debug#deferEvaluation()} is set), so values of records that are never reported are not evaluated.
+     */
+    public static final String DEFER_EVALUATION_PROPERTY = "dbg4j.deferEvaluation";
 
     /**
      * See {@link Debug} for evaluation rules.
@@ -66,43 +72,64 @@ public class DefaultDebuggingAdapter implements DebuggingAdapter {
             return methodInvocationPoint.invoke();
         }
 
-        DebugData data = createMainData(methodInvocationPoint);
-        if(methodInvocationPoint.getDebugAnnotation().debugOnce()
+        long start = System.nanoTime();
+        DebugDescriptor descriptor = getDescriptor(methodInvocationPoint);
+        DebugData data = createMainData(methodInvocationPoint, descriptor);
+        if(descriptor.isDebugOnce()
                 && DebugContext.getContext().contains(data, new DebuggingMethodComparator())) {
             return methodInvocationPoint.invoke();
         }
 
-        appendArgumentsInfo(data, methodInvocationPoint);
-        appendInstanceFieldsInfo(data, methodInvocationPoint);
+        appendArgumentsInfo(data, methodInvocationPoint, descriptor);
+        appendInstanceFieldsInfo(data, methodInvocationPoint, descriptor);
         appendStackTraceInfo(data);
 
         Object result = null;
         Throwable error = null;
+        long invocationStart = System.nanoTime();
         try {
             result = methodInvocationPoint.invoke();
         } catch (Throwable throwable) {
             error = throwable;
         }
+        long invocationTime = System.nanoTime() - invocationStart;
+        data.set(MethodDebugData.DURATION, Math.round(invocationTime / 1000d) / 1000d);
 
         if(error != null) {
-            data.set("Error", ExceptionUtils.getStackTrace(error));
-            DebugContext.getContext().addDebugRecord(data);
+            data.set(MethodDebugData.ERROR, ExceptionUtils.getStackTrace(error));
+            addDebugRecord(data, start, invocationTime);
             throw error;
         } else {
-            appendResultInfo(data, methodInvocationPoint, result);
+            appendResultInfo(data, methodInvocationPoint, descriptor, result);
         }
 
-        DebugContext.getContext().addDebugRecord(data);
+        addDebugRecord(data, start, invocationTime);
 
         return result;
     }
 
+    /**
+     * Add record to the current context and account time spent by debugger (everything except method invocation)
+     * as context overhead.
+     */
+    protected void addDebugRecord(DebugData data, long start, long invocationTime) {
+        DebugContext context = DebugContext.getContext();
+        if(context != null) {
+            context.addDebugRecord(data);
+            context.addOverhead(System.nanoTime() - start - invocationTime);
+        }
+    }
+
     protected DebugData createMainData(MethodInvocationPoint methodInvocationPoint) {
-        DebugData data = new DebugData();
+        return createMainData(methodInvocationPoint, getDescriptor(methodInvocationPoint));
+    }
+
+    protected DebugData createMainData(MethodInvocationPoint methodInvocationPoint, DebugDescriptor descriptor) {
+        DebugData data = new MethodDebugData();
 
-        data.set("Class", getClassName(methodInvocationPoint.getInstance()));
-        data.set("Method", getMethodSignature(methodInvocationPoint.getMethod()));
-        data.set("Type", TYPE);
+        data.set(MethodDebugData.CLASS, getClassName(methodInvocationPoint.getInstance()));
+        data.set(MethodDebugData.METHOD, descriptor.getSignature());
+        data.set(MethodDebugData.TYPE, TYPE);
         return data;
     }
 
@@ -110,55 +137,55 @@ public class DefaultDebuggingAdapter implements DebuggingAdapter {
      * Append debugged method arguments to debug data in declaration order. Arguments annotated with {@link Ignore}
      * annotation are not evaluated,
      * the string <code>"@Ignore"</code> is set instead their value (we cannot just ignore them b/c we should not break
-     * method signature). By default parameter value evaluates by {@link DefaultEvaluationAdapter} unless another
+     * method signature). By default parameter value evaluates by {@link BoundedEvaluationAdapter} unless another
      * evaluator is set by {@link Adapter} annotation.
      *
      * @see Ignore
      * @see Adapter
-     * @see DefaultEvaluationAdapter
+     * @see BoundedEvaluationAdapter
      */
     protected void appendArgumentsInfo(DebugData data, MethodInvocationPoint methodInvocationPoint) {
+        appendArgumentsInfo(data, methodInvocationPoint, getDescriptor(methodInvocationPoint));
+    }
+
+    protected void appendArgumentsInfo(DebugData data, MethodInvocationPoint methodInvocationPoint,
+            DebugDescriptor descriptor) {
 
         if(methodInvocationPoint.getParameters() == null || methodInvocationPoint.getParameters().length == 0) {
             return;
         }
 
-        Class[] parameterTypes = methodInvocationPoint.getMethod().getParameterTypes();
-        if(parameterTypes == null || parameterTypes.length == 0) {
+        Class[] parameterTypes = descriptor.getParameterTypes();
+        if(parameterTypes.length == 0) {
             return;
         }
 
-        List<Pair<Class, String>> arguments = new ArrayList<Pair<Class, String>>();
-
-        Annotation[][] parameterAnnotations = methodInvocationPoint.getMethod().getParameterAnnotations();
+        boolean deferred = isEvaluationDeferred(descriptor);
+        List<Pair<Class, Object>> arguments = new ArrayList<Pair<Class, Object>>();
 
         for(int i = 0; i < parameterTypes.length; i++) {
             try {
-                if(containsAnnotation(parameterAnnotations[i], Ignore.class)) {
-                    arguments.add(ImmutablePair.of(parameterTypes[i], IGNORED_VALUE));
+                if(descriptor.isIgnored(i)) {
+                    arguments.add(ImmutablePair.<Class, Object>of(parameterTypes[i], IGNORED_VALUE));
                     continue;
                 }
 
-                EvaluationAdapter evaluationAdapter = null;
-                if(containsAnnotation(parameterAnnotations[i], Adapter.class)) {
-                    Adapter adapterAnnotation = getAnnotation(parameterAnnotations[i], Adapter.class);
-                    evaluationAdapter = adapterAnnotation.value().newInstance();
-                }
+                EvaluationAdapter evaluationAdapter = descriptor.getArgumentAdapter(i);
                 if(evaluationAdapter == null) {
-                    evaluationAdapter = new DefaultEvaluationAdapter();
+                    evaluationAdapter = getDefaultEvaluationAdapter();
                 }
 
-                arguments.add(ImmutablePair.<Class, String>of(parameterTypes[i], evaluationAdapter.evaluate
-                            (parameterTypes[i], methodInvocationPoint.getParameters()[i])));
+                arguments.add(ImmutablePair.<Class, Object>of(parameterTypes[i], evaluate(evaluationAdapter,
+                            parameterTypes[i], methodInvocationPoint.getParameters()[i], deferred)));
             } catch (Exception ignored) {}
         }
 
         if(arguments.size() > 0) {
             List<DebugData> args = new ArrayList<DebugData>(arguments.size());
-            for(Pair<Class, String> argument: arguments) {
+            for(Pair<Class, Object> argument: arguments) {
                 args.add(new DebugData(argument.getLeft().getSimpleName(), argument.getRight()));
             }
-            data.set("Arguments", args);
+            data.set(MethodDebugData.ARGUMENTS, args);
         }
     }
 
@@ -168,35 +195,81 @@ public class DefaultDebuggingAdapter implements DebuggingAdapter {
      * @param methodInvocationPoint
      */
     protected void appendInstanceFieldsInfo(DebugData data, MethodInvocationPoint methodInvocationPoint) {
-        String[] fieldNamesFromAnnotation = methodInvocationPoint.getDebugAnnotation().instanceFields();
-        if(fieldNamesFromAnnotation != null
-                && fieldNamesFromAnnotation.length == 1
-                && Debug.DEBUG_SKIP_FIELDS_CONSTANT.equals(fieldNamesFromAnnotation[0])) {
-            return;
-        }
+        appendInstanceFieldsInfo(data, methodInvocationPoint, getDescriptor(methodInvocationPoint));
+    }
 
-        Collection<Field> fieldsForDebug = null;
-        if(fieldNamesFromAnnotation != null) {
-            if(fieldNamesFromAnnotation.length == 1
-                    && Debug.DEBUG_ALL_FIELDS_CONSTANT.equals(fieldNamesFromAnnotation[0])) {
-                fieldsForDebug = getObjectFields(methodInvocationPoint.getInstance(), Ignore.class, false);
-            } else if (fieldNamesFromAnnotation.length == 1
-                    && Debug.DEBUG_ANNOTATED_FIELDS_CONSTANT.equals(fieldNamesFromAnnotation[0])) {
-                fieldsForDebug = getObjectFields(methodInvocationPoint.getInstance(), Debug.class, true);
-            } else if(fieldNamesFromAnnotation.length > 0) {
-                fieldsForDebug = getObjectFields(methodInvocationPoint.getInstance(), fieldNamesFromAnnotation);
-            }
-        }
+    protected void appendInstanceFieldsInfo(DebugData data, MethodInvocationPoint methodInvocationPoint,
+            DebugDescriptor descriptor) {
+        Collection<Field> fieldsForDebug = descriptor.getFields(methodInvocationPoint.getInstance());
 
-        if(fieldsForDebug != null && fieldsForDebug.size() > 0) {
-            Map<String, String> fields = getFieldValues(methodInvocationPoint.getInstance(), fieldsForDebug);
+        if(fieldsForDebug.size() > 0) {
+            Map<String, Object> fields = getFieldValues(methodInvocationPoint.getInstance(), fieldsForDebug,
+                    isEvaluationDeferred(descriptor), getDefaultEvaluationAdapter());
             DebugData d = new DebugData();
-            for(Map.Entry<String, String> entry: fields.entrySet()) {
+            for(Map.Entry<String, Object> entry: fields.entrySet()) {
                 d.set(entry.getKey(), entry.getValue());
             }
-            data.set("Fields", d);
+            data.set(MethodDebugData.FIELDS, d);
+        }
+
+    }
+
+    /**
+     * Evaluate value now or keep it for evaluation at serialization time if {@link Debug#deferEvaluation()} is set.
+     * {@link StructuredEvaluationAdapter} results are kept as structures.
+     *
+     * @return evaluated value or {@link DeferredValue}
+     */
+    protected Object evaluate(@Nonnull EvaluationAdapter evaluationAdapter, Class clz, Object value,
+            @Nonnull MethodInvocationPoint methodInvocationPoint) {
+        return evaluate(evaluationAdapter, clz, value, isEvaluationDeferred(methodInvocationPoint));
+    }
+
+    /**
+     * @param deferred - result of {@link #isEvaluationDeferred(DebugDescriptor)}, checked once per method call
+     */
+    protected Object evaluate(@Nonnull EvaluationAdapter evaluationAdapter, Class clz, Object value,
+            boolean deferred) {
+        if(deferred) {
+            return new DeferredValue(evaluationAdapter, clz, value);
+        }
+        if(evaluationAdapter instanceof StructuredEvaluationAdapter) {
+            return ((StructuredEvaluationAdapter) evaluationAdapter).evaluateStructured(clz, value);
         }
+        return evaluationAdapter.evaluate(clz, value);
+    }
+
+    protected boolean isEvaluationDeferred(@Nonnull MethodInvocationPoint methodInvocationPoint) {
+        return isEvaluationDeferred(getDescriptor(methodInvocationPoint));
+    }
+
+    protected boolean isEvaluationDeferred(@Nonnull DebugDescriptor descriptor) {
+        if(descriptor.isDeferEvaluation()) {
+            return true;
+        }
+        DebugContext context = DebugContext.getContext();
+        return context != null && Boolean.TRUE.equals(context.getProperty(DEFER_EVALUATION_PROPERTY));
+    }
 
+    /**
+     * Precomputed description of the debugged method, {@link #debug(MethodInvocationPoint)} resolves it once and
+     * passes it to the other steps.
+     *
+     * @see DebugDescriptor#forMethod(java.lang.reflect.Method, Debug)
+     */
+    @Nonnull
+    protected DebugDescriptor getDescriptor(@Nonnull MethodInvocationPoint methodInvocationPoint) {
+        return DebugDescriptor.forMethod(methodInvocationPoint.getMethod(),
+                methodInvocationPoint.getDebugAnnotation());
+    }
+
+    /**
+     * Evaluation adapter for arguments, fields and results without {@link Adapter} annotation.
+     *
+     * @see BoundedEvaluationAdapter
+     */
+    protected EvaluationAdapter getDefaultEvaluationAdapter() {
+        return BoundedEvaluationAdapter.DEFAULT;
     }
 
     /**
@@ -208,7 +281,7 @@ public class DefaultDebuggingAdapter implements DebuggingAdapter {
         try {
             throw new StackTraceException();
         } catch (StackTraceException e) {
-            data.set("Stacktrace", ExceptionUtils.getStackTrace(e));
+            data.set(MethodDebugData.STACKTRACE, getStackTrace(e));
         }
     }
 
@@ -224,25 +297,26 @@ public class DefaultDebuggingAdapter implements DebuggingAdapter {
      */
     protected void appendResultInfo(@Nonnull DebugData data, @Nonnull MethodInvocationPoint methodInvocationPoint,
             @Nullable Object result) {
-        Method method = methodInvocationPoint.getMethod();
-        if(method.getReturnType().equals(Void.TYPE)) {
+        appendResultInfo(data, methodInvocationPoint, getDescriptor(methodInvocationPoint), result);
+    }
+
+    protected void appendResultInfo(@Nonnull DebugData data, @Nonnull MethodInvocationPoint methodInvocationPoint,
+            @Nonnull DebugDescriptor descriptor, @Nullable Object result) {
+        if(descriptor.isVoid()) {
             return;
         }
 
-        String resultStr = UNKNOWN_VALUE;
+        Object resultValue = UNKNOWN_VALUE;
         try {
-            EvaluationAdapter evaluationAdapter = null;
-            if(methodInvocationPoint.getMethod().isAnnotationPresent(Adapter.class)) {
-                Adapter adapterAnnotation = methodInvocationPoint.getMethod().getAnnotation(Adapter.class);
-                evaluationAdapter = adapterAnnotation.value().newInstance();
-            }
+            EvaluationAdapter evaluationAdapter = descriptor.getResultAdapter();
             if(evaluationAdapter == null) {
-                evaluationAdapter = new DefaultEvaluationAdapter();
+                evaluationAdapter = getDefaultEvaluationAdapter();
             }
-            resultStr = evaluationAdapter.evaluate(methodInvocationPoint.getMethod().getReturnType(), result);
+            resultValue = evaluate(evaluationAdapter, descriptor.getReturnType(), result,
+                    isEvaluationDeferred(descriptor));
         } catch (Exception ignored) {}
 
-        data.set("Result", resultStr);
+        data.set(MethodDebugData.RESULT, resultValue);
     }
 
 
@@ -0,0 +1,318 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.adapters.impl;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.json.JSONArray;
+
+import org.dbg4j.core.ClassCache;
+import org.dbg4j.core.adapters.EvaluationAdapter;
+import org.dbg4j.core.annotations.Adapter;
+import org.dbg4j.core.annotations.Ignore;
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Evaluation adapter that walks object graphs into nested {@link DebugData}, so beans without own
+ * <code>toString()</code> are written as JSON objects instead of <code>User@1a2b3c</code>:
+ * <ul>
+ *     <li>collections and object arrays become lists, maps and beans become nested records;</li>
+ *     <li>nested numbers and booleans are kept as is;</li>
+ *     <li>strings, numbers, enums, dates, classes of <code>java.*</code> packages and classes that override
+ *     <code>toString()</code> are evaluated to strings like {@link BoundedEvaluationAdapter} does;</li>
+ *     <li>bean fields annotated with {@link Ignore} are skipped, fields annotated with {@link Adapter} are evaluated
+ *     by that adapter;</li>
+ *     <li>cycles are replaced by <code>"(cycle: ClassName)"</code>, values deeper than <code>maxDepth</code>,
+ *     elements over <code>maxElements</code> and values over <code>maxNodes</code> per evaluation are replaced
+ *     by <code>"..."</code>;</li>
+ *     <li>names and values are charged against <code>maxTotalLength</code> characters per evaluation, the walk stops
+ *     once it is spent.</li>
+ * </ul>
+ * Fields are looked up once per class (see {@link ClassCache}).
+ * <p/>
+ * Adapter reads private fields of application classes, so it is not used by default: enable it with
+ * <code>&#64;Adapter(StructuredEvaluationAdapter.class)</code> or {@link org.dbg4j.core.rules.DebugRule} adapter.
+ * {@link DefaultDebuggingAdapter} keeps structured result in the record (see
+ * {@link #evaluateStructured(Class, Object)}); {@link #evaluate(Class, Object)} returns the same structure as JSON.
+ *
+ * @see BoundedEvaluationAdapter
+ * @author Maksym Fedoryshyn
+ */
+public class StructuredEvaluationAdapter extends BoundedEvaluationAdapter {
+
+    public static final int DEFAULT_MAX_NODES = 1000;
+    public static final int DEFAULT_MAX_TOTAL_LENGTH = 16384;
+
+    /** Shared instance with default limits */
+    public static final StructuredEvaluationAdapter DEFAULT = new StructuredEvaluationAdapter();
+
+    private static final ClassCache<ClassInfo> CLASS_INFO = new ClassCache<ClassInfo>() {
+        @Nonnull
+        @Override
+        protected ClassInfo compute(@Nonnull Class clz) {
+            return new ClassInfo(clz);
+        }
+    };
+
+    private final int maxNodes;
+    private final int maxTotalLength;
+
+    public StructuredEvaluationAdapter() {
+        this(DEFAULT_MAX_LENGTH, DEFAULT_MAX_ELEMENTS, DEFAULT_MAX_DEPTH, DEFAULT_MAX_ARRAY_BYTES, DEFAULT_MAX_NODES);
+    }
+
+    public StructuredEvaluationAdapter(int maxLength, int maxElements, int maxDepth, int maxArrayBytes,
+            int maxNodes) {
+        this(maxLength, maxElements, maxDepth, maxArrayBytes, maxNodes, DEFAULT_MAX_TOTAL_LENGTH);
+    }
+
+    public StructuredEvaluationAdapter(int maxLength, int maxElements, int maxDepth, int maxArrayBytes,
+            int maxNodes, int maxTotalLength) {
+        super(maxLength, maxElements, maxDepth, maxArrayBytes);
+        this.maxNodes = maxNodes;
+        this.maxTotalLength = maxTotalLength;
+    }
+
+    /**
+     * @return JSON of the structure (see {@link #evaluateStructured(Class, Object)}) or string value
+     */
+    @Nonnull
+    @Override
+    public String evaluate(@Nullable Class clz, @Nullable Object arg) {
+        Object result = evaluateStructured(clz, arg);
+        if(result instanceof Collection) {
+            return new JSONArray((Collection) result).toString();
+        }
+        return String.valueOf(result);
+    }
+
+    /**
+     * Evaluate argument into structure.
+     *
+     * @param clz - parameter type
+     * @param arg - object to be evaluated.
+     * @return {@link DebugData}, <code>List</code> of evaluated elements or string (for values)
+     */
+    @Nullable
+    public Object evaluateStructured(@Nullable Class clz, @Nullable Object arg) {
+        if(!isStructured(arg)) {
+            return super.evaluate(clz, arg);
+        }
+        return structure(arg, 0, new State(maxTotalLength));
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public int getMaxTotalLength() {
+        return maxTotalLength;
+    }
+
+    protected Object structure(Object value, int depth, State state) {
+        if(state.remaining <= 0) {
+            return TRUNCATED;
+        }
+        if(value == null || value instanceof Number || value instanceof Boolean) {
+            state.remaining -= String.valueOf(value).length();
+            return value;
+        }
+        if(!isStructured(value)) {
+            return state.charge(super.evaluate(null, value));
+        }
+        if(state.path.containsKey(value)) {
+            return "(cycle: " + value.getClass().getSimpleName() + ")";
+        }
+        if(++state.nodes > maxNodes || depth >= getMaxDepth()) {
+            return TRUNCATED;
+        }
+        state.path.put(value, value);
+        try {
+            if(value instanceof Collection) {
+                Collection<?> collection = (Collection<?>) value;
+                List<Object> result = new ArrayList<Object>(Math.min(collection.size(), getMaxElements() + 1));
+                for(Object element: collection) {
+                    if(state.remaining <= 0) {
+                        result.add(TRUNCATED);
+                        break;
+                    }
+                    if(result.size() >= getMaxElements()) {
+                        result.add(TRUNCATED + "(" + collection.size() + " total)");
+                        break;
+                    }
+                    result.add(structure(element, depth + 1, state));
+                }
+                return result;
+            } else if(value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                List<Object> result = new ArrayList<Object>(Math.min(length, getMaxElements() + 1));
+                for(int i = 0; i < length; i++) {
+                    if(state.remaining <= 0) {
+                        result.add(TRUNCATED);
+                        break;
+                    }
+                    if(i >= getMaxElements()) {
+                        result.add(TRUNCATED + "(" + length + " total)");
+                        break;
+                    }
+                    result.add(structure(Array.get(value, i), depth + 1, state));
+                }
+                return result;
+            } else if(value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                DebugData result = new DebugData();
+                int i = 0;
+                for(Map.Entry<?, ?> entry: map.entrySet()) {
+                    if(i++ >= getMaxElements() || state.remaining <= 0) {
+                        result.set(TRUNCATED, "(" + map.size() + " total)");
+                        break;
+                    }
+                    String key = state.charge(String.valueOf(entry.getKey()));
+                    result.set(key, structure(entry.getValue(), depth + 1, state));
+                }
+                return result;
+            }
+            DebugData result = new DebugData();
+            for(FieldInfo field: getClassInfo(value.getClass()).fields) {
+                if(state.remaining <= 0) {
+                    result.set(TRUNCATED, TRUNCATED);
+                    break;
+                }
+                state.remaining -= field.field.getName().length();
+                Object fieldValue;
+                try {
+                    fieldValue = field.field.get(value);
+                    if(field.adapter != null) {
+                        fieldValue = state.charge(field.adapter.evaluate(field.field.getType(), fieldValue));
+                    } else {
+                        fieldValue = structure(fieldValue, depth + 1, state);
+                    }
+                } catch (Exception e) {
+                    fieldValue = DefaultDebuggingAdapter.UNKNOWN_VALUE;
+                }
+                result.set(field.field.getName(), fieldValue);
+            }
+            return result;
+        } finally {
+            state.path.remove(value);
+        }
+    }
+
+    /**
+     * Values that are walked into structure: collections, maps, object arrays and beans.
+     */
+    protected boolean isStructured(Object value) {
+        if(value == null) {
+            return false;
+        }
+        if(value instanceof Collection || value instanceof Map || value instanceof Object[]) {
+            return true;
+        }
+        return getClassInfo(value.getClass()).bean;
+    }
+
+    private static ClassInfo getClassInfo(Class clz) {
+        return CLASS_INFO.get(clz);
+    }
+
+    private static boolean isBean(Class clz) {
+        if(clz.isArray() || clz.isPrimitive() || clz.isEnum() || clz.isInterface()
+                || CharSequence.class.isAssignableFrom(clz) || Number.class.isAssignableFrom(clz)
+                || Boolean.class == clz || Character.class == clz || Date.class.isAssignableFrom(clz)
+                || Class.class == clz || clz.getName().startsWith("java.") || clz.getName().startsWith("javax.")) {
+            return false;
+        }
+        try {
+            Method toString = clz.getMethod("toString");
+            return toString.getDeclaringClass() == Object.class;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static class ClassInfo {
+        final boolean bean;
+        final FieldInfo[] fields;
+
+        ClassInfo(Class clz) {
+            bean = isBean(clz);
+            List<FieldInfo> result = new ArrayList<FieldInfo>();
+            if(bean) {
+                for(Class c = clz; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for(Field field: c.getDeclaredFields()) {
+                        if(Modifier.isStatic(field.getModifiers()) || field.isSynthetic()
+                                || field.isAnnotationPresent(Ignore.class)) {
+                            continue;
+                        }
+                        try {
+                            field.setAccessible(true);
+                            result.add(new FieldInfo(field));
+                        } catch (Exception ignored) {}
+                    }
+                }
+            }
+            fields = result.toArray(new FieldInfo[result.size()]);
+        }
+    }
+
+    private static class FieldInfo {
+        final Field field;
+        final EvaluationAdapter adapter;
+
+        FieldInfo(Field field) throws Exception {
+            this.field = field;
+            Adapter annotation = field.getAnnotation(Adapter.class);
+            this.adapter = (annotation != null) ? annotation.value().newInstance() : null;
+        }
+    }
+
+    protected static class State {
+        final Map<Object, Object> path = new IdentityHashMap<Object, Object>();
+        int nodes;
+        int remaining;
+
+        protected State(int remaining) {
+            this.remaining = remaining;
+        }
+
+        /**
+         * Charge value against remaining length, value that does not fit is cut.
+         */
+        String charge(String value) {
+            if(value.length() > remaining) {
+                value = value.substring(0, Math.max(remaining, 0)) + TRUNCATED;
+                remaining = 0;
+            } else {
+                remaining -= value.length();
+            }
+            return value;
+        }
+    }
+}
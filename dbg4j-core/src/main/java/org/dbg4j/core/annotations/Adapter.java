@@ -29,6 +29,7 @@ import java.lang.annotation.Target;
 /**
  * This annotation allows to customize evaluation/formatting of the field/parameter for debug output in a case if toString()
  * is not verbose enough. Also applies to method in a case if custom evaluator for return value is needed.
+ * Adapter instance is created once per annotated method/parameter and reused, so adapters should be thread safe.
  *
  * @see Debug
  * @see Adapter
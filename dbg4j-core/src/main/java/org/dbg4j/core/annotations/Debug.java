@@ -85,7 +85,8 @@ public @interface Debug {
 
     /**
      * Specifies debugging strategy. Uses {@link DefaultDebuggingAdapter} by default.
-     * This parameter is ignored in case of field annotation.
+     * This parameter is ignored in case of field annotation. Debugger instance is shared by all methods which use the
+     * same debugger class (and by concurrent calls), so debuggers should be stateless and thread safe.
      */
     Class<? extends DebuggingAdapter> debugger() default DefaultDebuggingAdapter.class;
 
@@ -97,4 +98,13 @@ public @interface Debug {
      * <code>false</code>. Applies only for methods and has no effect when applied for fields.
      */
     boolean debugOnce() default false;
+
+    /**
+     * When <code>true</code>, arguments, fields and result are not evaluated at call time: a snapshot is kept in the
+     * record and {@link org.dbg4j.core.adapters.EvaluationAdapter} runs only when the record is serialized or
+     * filtered. Arrays, collections and maps are copied shallowly, other values are kept by reference, so changes of
+     * their state after the call may get into the output (see {@link org.dbg4j.core.beans.DeferredValue}).
+     * Default value - <code>false</code>. Applies only for methods and has no effect when applied for fields.
+     */
+    boolean deferEvaluation() default false;
 }
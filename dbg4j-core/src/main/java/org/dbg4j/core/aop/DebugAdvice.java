@@ -0,0 +1,329 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.aop;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.ClassCache;
+import org.dbg4j.core.adapters.MethodInvocationPoint;
+import org.dbg4j.core.annotations.Debug;
+import org.dbg4j.core.context.DebugContext;
+import org.dbg4j.core.rules.DebugRuleRegistry;
+
+/**
+ * Entry point for the code injected by bytecode instrumentation (see <code>dbg4j-agent</code> module). Every
+ * instrumented method starts with
+ *
+ * <pre>
+ *     if(DebugAdvice.enabled &amp;&amp; DebugAdvice.isActive()) {
+ *         Object result = DebugAdvice.debug(Owner.class, "name", "(descriptor)", this, new Object[]{args});
+ *         if(result != DebugAdvice.PROCEED) {
+ *             return (ReturnType) result;
+ *         }
+ *     }
+ *     //original method body
+ * </pre>
+ *
+ * so when debugging is switched off or no debug context is active the only overhead is a single volatile read
+ * ({@link #enabled} is maintained by {@link DebugContext}). Debugged method is invoked
+ * reflectively; the next instrumented method entered by the same thread is let through, so the method body runs
+ * exactly once. Super calls from overriding methods of subclasses are not debugged (method cannot be invoked
+ * non-virtually by reflection). Methods without {@link Debug} annotation are debugged according to
+ * {@link DebugRuleRegistry} rules.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public final class DebugAdvice {
+
+    /**
+     * Special value returned by {@link #debug(Class, String, String, Object, Object[])} when original method body
+     * should be executed.
+     */
+    public static final Object PROCEED = new Object();
+
+    /**
+     * Checked first by instrumented methods: <code>true</code> while debugging is switched on (see
+     * {@link #setEnabled(boolean)}) and at least one debug context is active.
+     */
+    public static volatile boolean enabled;
+
+    private static volatile boolean switchedOn = true;
+    private static final AtomicInteger ACTIVE_CONTEXTS = new AtomicInteger();
+    private static final ThreadLocal<Boolean> BYPASS = new ThreadLocal<Boolean>();
+    private static final ClassCache<Map<String, Method>> METHODS = new ClassCache<Map<String, Method>>() {
+        @Nonnull
+        @Override
+        protected Map<String, Method> compute(@Nonnull Class clz) {
+            return new ConcurrentHashMap<String, Method>();
+        }
+    };
+    private static final ClassCache<Map<Method, Boolean>> OVERRIDDEN = new ClassCache<Map<Method, Boolean>>() {
+        @Nonnull
+        @Override
+        protected Map<Method, Boolean> compute(@Nonnull Class clz) {
+            return new ConcurrentHashMap<Method, Boolean>();
+        }
+    };
+    private static final Method NOT_FOUND;
+
+    static {
+        try {
+            NOT_FOUND = Object.class.getMethod("toString");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DebugAdvice() {}
+
+    /**
+     * @return <code>true</code> if debugging of instrumented methods is switched on
+     */
+    public static boolean isEnabled() {
+        return switchedOn;
+    }
+
+    /**
+     * Global switch for instrumented methods.
+     */
+    public static void setEnabled(boolean enabled) {
+        switchedOn = enabled;
+        update();
+    }
+
+    /**
+     * Called by {@link DebugContext} when context is initialized.
+     */
+    public static void contextActivated() {
+        ACTIVE_CONTEXTS.incrementAndGet();
+        update();
+    }
+
+    /**
+     * Called by {@link DebugContext} when context is committed or closed.
+     */
+    public static void contextDeactivated() {
+        ACTIVE_CONTEXTS.decrementAndGet();
+        update();
+    }
+
+    //synchronized, so the last update always sees the latest counter
+    private static synchronized void update() {
+        enabled = switchedOn && ACTIVE_CONTEXTS.get() > 0;
+    }
+
+    /**
+     * @return <code>true</code> if instrumented method should be debugged (debug context is initialized) or is
+     * invoked by the debugger itself
+     */
+    public static boolean isActive() {
+        return DebugContext.getContext() != null || BYPASS.get() != null;
+    }
+
+    /**
+     * Debug instrumented method.
+     *
+     * @param owner class that declares the method
+     * @param name method name
+     * @param descriptor method descriptor (JVM format)
+     * @param instance <code>this</code> or <code>null</code> for static methods
+     * @param args method arguments
+     * @return method result or {@link #PROCEED} if original method body should be executed
+     * @throws Throwable exception thrown by the method
+     */
+    @Nullable
+    public static Object debug(@Nonnull Class owner, @Nonnull String name, @Nonnull String descriptor,
+            @Nullable Object instance, @Nullable Object[] args) throws Throwable {
+        if(BYPASS.get() != null) {
+            BYPASS.remove();
+            return PROCEED;
+        }
+        final Method method = getMethod(owner, name, descriptor);
+        Debug debug = null;
+        if(method != null) {
+            debug = method.getAnnotation(Debug.class);
+            if(debug == null) {
+                debug = DebugRuleRegistry.match(owner.getName(), name);
+            }
+        }
+        if(debug == null || (instance != null && isOverridden(instance.getClass(), method))) {
+            return PROCEED;
+        }
+
+        MethodInvocationPoint methodInvocationPoint = new InstrumentedInvocationPoint(method, debug, instance, args);
+        if(!DebugContext.isDebugAllowed(methodInvocationPoint, debug)) {
+            return PROCEED;
+        }
+        return DebuggingAspect.debuggerFor(debug).debug(methodInvocationPoint);
+    }
+
+    @Nullable
+    static Method getMethod(@Nonnull Class owner, @Nonnull String name, @Nonnull String descriptor) {
+        Map<String, Method> methods = METHODS.get(owner);
+        String key = name + descriptor;
+        Method method = methods.get(key);
+        if(method == null) {
+            method = NOT_FOUND;
+            for(Method declared: owner.getDeclaredMethods()) {
+                if(declared.getName().equals(name) && getDescriptor(declared).equals(descriptor)) {
+                    try {
+                        declared.setAccessible(true);
+                        method = declared;
+                    } catch (Exception ignored) {}
+                    break;
+                }
+            }
+            methods.put(key, method);
+        }
+        return method == NOT_FOUND ? null : method;
+    }
+
+    static boolean isOverridden(@Nonnull Class instanceClass, @Nonnull Method method) {
+        int modifiers = method.getModifiers();
+        if(instanceClass == method.getDeclaringClass() || Modifier.isPrivate(modifiers)
+                || Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+            return false;
+        }
+        Map<Method, Boolean> methods = OVERRIDDEN.get(instanceClass);
+        Boolean overridden = methods.get(method);
+        if(overridden == null) {
+            overridden = Boolean.FALSE;
+            for(Class clz = instanceClass; clz != null && clz != method.getDeclaringClass();
+                    clz = clz.getSuperclass()) {
+                if(declaresMethod(clz, method)) {
+                    overridden = Boolean.TRUE;
+                    break;
+                }
+            }
+            methods.put(method, overridden);
+        }
+        return overridden;
+    }
+
+    private static boolean declaresMethod(Class clz, Method method) {
+        for(Method declared: clz.getDeclaredMethods()) {
+            if(!declared.isBridge() && declared.getName().equals(method.getName())
+                    && Arrays.equals(declared.getParameterTypes(), method.getParameterTypes())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nonnull
+    static String getDescriptor(@Nonnull Method method) {
+        StringBuilder sb = new StringBuilder("(");
+        for(Class type: method.getParameterTypes()) {
+            appendDescriptor(sb, type);
+        }
+        sb.append(')');
+        appendDescriptor(sb, method.getReturnType());
+        return sb.toString();
+    }
+
+    private static void appendDescriptor(StringBuilder sb, Class type) {
+        while(type.isArray()) {
+            sb.append('[');
+            type = type.getComponentType();
+        }
+        if(type.isPrimitive()) {
+            if(type == Integer.TYPE) {
+                sb.append('I');
+            } else if(type == Void.TYPE) {
+                sb.append('V');
+            } else if(type == Boolean.TYPE) {
+                sb.append('Z');
+            } else if(type == Byte.TYPE) {
+                sb.append('B');
+            } else if(type == Character.TYPE) {
+                sb.append('C');
+            } else if(type == Short.TYPE) {
+                sb.append('S');
+            } else if(type == Double.TYPE) {
+                sb.append('D');
+            } else if(type == Float.TYPE) {
+                sb.append('F');
+            } else {
+                sb.append('J');
+            }
+        } else {
+            sb.append('L').append(type.getName().replace('.', '/')).append(';');
+        }
+    }
+
+    /**
+     * Invocation point of instrumented method.
+     */
+    private static class InstrumentedInvocationPoint implements MethodInvocationPoint {
+        private final Method method;
+        private final Debug debug;
+        private final Object instance;
+        private final Object[] args;
+
+        InstrumentedInvocationPoint(Method method, Debug debug, Object instance, Object[] args) {
+            this.method = method;
+            this.debug = debug;
+            this.instance = instance;
+            this.args = args;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Nullable
+        @Override
+        public Object invoke() throws Throwable {
+            BYPASS.set(Boolean.TRUE);
+            try {
+                return method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                BYPASS.remove();
+            }
+        }
+
+        @Nullable
+        @Override
+        public Object[] getParameters() {
+            return args;
+        }
+
+        @Nullable
+        @Override
+        public Object getInstance() {
+            return instance;
+        }
+
+        @Override
+        public Debug getDebugAnnotation() {
+            return debug;
+        }
+    }
+}
@@ -19,7 +19,11 @@
 package org.dbg4j.core.aop;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.dbg4j.core.ClassCache;
 import org.dbg4j.core.adapters.DebuggingAdapter;
 import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
 import org.dbg4j.core.adapters.MethodInvocationPoint;
@@ -41,6 +45,27 @@ import javax.annotation.Nullable;
 @Aspect
 public class DebuggingAspect {
 
+    private static final DebuggingAdapter DEFAULT_DEBUGGER = new DefaultDebuggingAdapter();
+    //custom debuggers may come from application classloaders, they must not be held strongly
+    private static final ClassCache<DebuggingAdapter> DEBUGGERS = new ClassCache<DebuggingAdapter>() {
+        @Nonnull
+        @Override
+        protected DebuggingAdapter compute(@Nonnull Class clz) {
+            try {
+                return (DebuggingAdapter) clz.newInstance();
+            } catch (Exception e) {
+                return DEFAULT_DEBUGGER;
+            }
+        }
+    };
+    private static final ClassCache<Map<Method, Method>> IMPLEMENTATIONS = new ClassCache<Map<Method, Method>>() {
+        @Nonnull
+        @Override
+        protected Map<Method, Method> compute(@Nonnull Class clz) {
+            return new ConcurrentHashMap<Method, Method>();
+        }
+    };
+
     /**
      * This advice is used to debug statements around method executions that have been tagged
      * with the Debug annotation.
@@ -59,10 +84,14 @@ public class DebuggingAspect {
         DebuggingAdapter debuggerInstance = getDebugger(debug);
 
         return debuggerInstance.debug(new MethodInvocationPoint() {
+            private Method method;
 
             @Override
             public Method getMethod() {
-                return DebuggingAspect.this.getMethod(pjp);
+                if(method == null) {
+                    method = DebuggingAspect.this.getMethod(pjp);
+                }
+                return method;
             }
 
             @Nullable
@@ -94,27 +123,71 @@ public class DebuggingAspect {
         MethodSignature signature = (MethodSignature) pjp.getSignature();
         Method method = signature.getMethod();
         //if this is interface method, but not implementation method, we're trying to get "real" one
-        if (method.getDeclaringClass().isInterface()) {
-            try {
-                method= pjp.getTarget().getClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
-            } catch (Exception ignored) {/*it's better to have interface method than nothing*/}
+        if (method.getDeclaringClass().isInterface() && pjp.getTarget() != null) {
+            method = getImplementation(pjp.getTarget().getClass(), method);
         }
         return method;
     }
 
+    /**
+     * Find implementation of the interface method in the target class or its superclasses. Results (including
+     * the case when implementation cannot be found) are cached per target class (see {@link ClassCache}), so cached
+     * lookups do not lock.
+     *
+     * @param targetClass
+     * @param method interface method
+     * @return implementation method or interface method if implementation is not found
+     */
     @Nonnull
-    protected DebuggingAdapter getDebugger(final Debug debug) {
-        DebuggingAdapter debuggerInstance = null;
+    protected Method getImplementation(@Nonnull Class targetClass, @Nonnull Method method) {
+        Map<Method, Method> implementations = IMPLEMENTATIONS.get(targetClass);
+        Method implementation = implementations.get(method);
+        if(implementation == null) {
+            //it's better to have interface method than nothing
+            implementation = method;
+            for(Class clz = targetClass; clz != null && clz != Object.class; clz = clz.getSuperclass()) {
+                Method declared = findDeclaredMethod(clz, method);
+                if(declared != null) {
+                    implementation = declared;
+                    break;
+                }
+            }
+            implementations.put(method, implementation);
+        }
+        return implementation;
+    }
+
+    @Nullable
+    private static Method findDeclaredMethod(Class clz, Method method) {
         try {
-            if(debug.debugger() != null) {
-                debuggerInstance = debug.debugger().newInstance();
+            for(Method declared: clz.getDeclaredMethods()) {
+                if(!declared.isBridge() && declared.getName().equals(method.getName())
+                        && Arrays.equals(declared.getParameterTypes(), method.getParameterTypes())) {
+                    return declared;
+                }
             }
         } catch (Exception ignored) {}
+        return null;
+    }
 
-        if(debuggerInstance == null) {
-            debuggerInstance = new DefaultDebuggingAdapter();
-        }
+    /**
+     * Debugger instances are created once per debugger class and shared between calls, so debuggers should be
+     * thread safe.
+     *
+     * @param debug
+     * @return
+     */
+    @Nonnull
+    protected DebuggingAdapter getDebugger(final Debug debug) {
+        return debuggerFor(debug);
+    }
 
-        return debuggerInstance;
+    @Nonnull
+    static DebuggingAdapter debuggerFor(@Nonnull Debug debug) {
+        Class<? extends DebuggingAdapter> debuggerClass = debug.debugger();
+        if(debuggerClass == null || debuggerClass == DefaultDebuggingAdapter.class) {
+            return DEFAULT_DEBUGGER;
+        }
+        return DEBUGGERS.get(debuggerClass);
     }
 }
@@ -36,6 +36,8 @@ public interface ContentFilter {
      * This method should filter sensitive info from debugging data. The good rule to follow - do not change source,
      * but provide new "cleaned" object. That makes sense if different appenders have different filtering
      * requirements (f.e. do not show credit card information in logs, but show in on UI).
+     * <code>new DebugData(data)</code> is cheap, since the copy shares fields with the source. Records that are
+     * already added to the context are frozen, so {@link FilterableAppender} passes such copy to the filters.
      *
      * @param data
      * @return
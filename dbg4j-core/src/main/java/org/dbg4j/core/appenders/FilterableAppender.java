@@ -45,6 +45,10 @@ public abstract class FilterableAppender implements Appender {
             if (datas != null && datas.size() > 0) {
                 filteredData = new ArrayList<DebugData>(datas.size());
                 for(DebugData d: datas) {
+                    if(d != null && d.isFrozen() && filters != null && filters.size() > 0) {
+                        //copy is cheap, and it allows filters to change the record in place
+                        d = d.copy();
+                    }
                     for(ContentFilter filter: filters) {
                         try {
                             d = filter.filter(d);
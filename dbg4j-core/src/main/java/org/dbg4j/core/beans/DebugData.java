@@ -20,34 +20,51 @@ package org.dbg4j.core.beans;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.json.JSONObject;
+import org.json.JSONString;
 
 /**
  * Debugging record bean. It is just a wrapper for map.
  *
+ * Copies are cheap: fields are kept in a shared base map, which is never modified once created, and changes made to
+ * the copy go to its own overlay map. Records are frozen when they are added to
+ * {@link org.dbg4j.core.context.DebugContext}, so appenders and content filters may share them without copying all
+ * the fields (see {@link org.dbg4j.core.appenders.ContentFilter}).
+ *
+ * Nested records (including records in collections) are written to JSON as objects.
+ *
  * @author mfeodryshyn
  */
-public class DebugData {
-    private Map<String, Object> fields = new HashMap<String, Object>();
+public class DebugData implements JSONString {
+    private static final Object REMOVED = new Object();
+
+    private Map<String, Object> base;
+    private Map<String, Object> overlay;
+    private volatile boolean frozen;
 
     public DebugData() {
-        fields =  new HashMap<String, Object>();
+        base = Collections.emptyMap();
     }
 
     public DebugData(String key, Object value) {
-        fields =  new HashMap<String, Object>(1);
-        set(key, value);
+        base = Collections.singletonMap(key, value);
     }
 
+    /**
+     * Copy constructor. Copy shares fields with the original record, so copying of the frozen record costs nothing
+     * and copying of the not frozen one costs only fields that were changed since it was created.
+     *
+     * @param that
+     */
     public DebugData(@Nonnull DebugData that) {
-        if(that != null && that.fields != null) {
-            fields =  new HashMap<String, Object>(that.fields);
-        } else {
-            fields =  new HashMap<String, Object>();
+        base = Collections.emptyMap();
+        if(that != null) {
+            that.copyTo(this);
         }
     }
 
@@ -56,9 +73,32 @@ public class DebugData {
      *
      * @param name
      * @param value
+     * @throws IllegalStateException if record is frozen
      */
     public void set(@Nonnull String name, Object value){
-        fields.put(name, value);
+        checkNotFrozen();
+        if(overlay == null) {
+            overlay = new HashMap<String, Object>();
+        }
+        overlay.put(name, value);
+    }
+
+    /**
+     * Remove field
+     *
+     * @param name
+     * @throws IllegalStateException if record is frozen
+     */
+    public void remove(@Nonnull String name){
+        checkNotFrozen();
+        if(base.containsKey(name)) {
+            if(overlay == null) {
+                overlay = new HashMap<String, Object>();
+            }
+            overlay.put(name, REMOVED);
+        } else if(overlay != null) {
+            overlay.remove(name);
+        }
     }
 
     /**
@@ -69,10 +109,11 @@ public class DebugData {
      */
     @Nullable
     public Object get(@Nonnull String name){
-        if(fields.containsKey(name)) {
-            return fields.get(name);
+        if(overlay != null && overlay.containsKey(name)) {
+            Object value = overlay.get(name);
+            return value == REMOVED ? null : value;
         }
-        return null;
+        return base.get(name);
     }
 
     /**
@@ -80,7 +121,32 @@ public class DebugData {
      * @return
      */
     public Map<String, Object> getAll(){
-        return Collections.unmodifiableMap(fields);
+        if(overlay == null || overlay.size() == 0) {
+            return Collections.unmodifiableMap(base);
+        }
+        return Collections.unmodifiableMap(merge());
+    }
+
+    /**
+     * Freeze the record: any further modification throws <code>IllegalStateException</code>. Nested records (field
+     * values and collections of them) are frozen too. Context freezes every record that is added to it.
+     */
+    public void freeze() {
+        if(frozen) {
+            return;
+        }
+        if(overlay != null) {
+            base = merge();
+            overlay = null;
+        }
+        for(Object value: base.values()) {
+            freezeValue(value);
+        }
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
     }
 
     /**
@@ -89,10 +155,74 @@ public class DebugData {
      */
     @Override
     public String toString() {
-        if(fields == null || fields.size() == 0) {
+        Map<String, Object> fields = getAll();
+        if(fields.size() == 0) {
             return "{}";
         }
 
         return new JSONObject(fields).toString();
     }
+
+    @Override
+    public String toJSONString() {
+        return toString();
+    }
+
+    /**
+     * Not frozen copy of the record of the same type (see {@link #DebugData(DebugData)}). Subclasses should override
+     * this method to return their own type.
+     *
+     * @return copy of the record
+     */
+    @Nonnull
+    public DebugData copy() {
+        return new DebugData(this);
+    }
+
+    /**
+     * Copy fields of this record into the given (just created) one. Subclasses that keep fields outside of the maps
+     * should override this method.
+     *
+     * @param target
+     */
+    protected void copyTo(@Nonnull DebugData target) {
+        if(frozen) {
+            target.base = base;
+            return;
+        }
+        target.base = base;
+        if(overlay != null && overlay.size() > 0) {
+            target.overlay = new HashMap<String, Object>(overlay);
+        }
+    }
+
+    protected void checkNotFrozen() {
+        if(frozen) {
+            throw new IllegalStateException("Debug data is frozen");
+        }
+    }
+
+    private Map<String, Object> merge() {
+        Map<String, Object> result = new HashMap<String, Object>(base);
+        for(Map.Entry<String, Object> entry: overlay.entrySet()) {
+            if(entry.getValue() == REMOVED) {
+                result.remove(entry.getKey());
+            } else {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    static void freezeValue(Object value) {
+        if(value instanceof DebugData) {
+            ((DebugData) value).freeze();
+        } else if(value instanceof Collection) {
+            for(Object item: (Collection) value) {
+                if(item instanceof DebugData) {
+                    ((DebugData) item).freeze();
+                }
+            }
+        }
+    }
 }
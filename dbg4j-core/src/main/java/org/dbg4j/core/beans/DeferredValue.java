@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.beans;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import org.dbg4j.core.adapters.EvaluationAdapter;
+import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
+import org.dbg4j.core.adapters.impl.StructuredEvaluationAdapter;
+
+/**
+ * Value which is evaluated by {@link EvaluationAdapter} only when it is needed, i.e. when record is serialized,
+ * filtered or written by appender (all of them use <code>toString()</code>). Evaluation result is cached and
+ * the snapshot is released after evaluation. Results of {@link StructuredEvaluationAdapter} are kept as structures
+ * and written to JSON as objects/arrays.
+ *
+ * Snapshot semantics (what happens if value is modified after the call):
+ * <ul>
+ *     <li>arrays, collections and maps are copied shallowly at call time - adding, removing or replacing their
+ *     elements after the call is <b>not</b> visible in the output;</li>
+ *     <li>any other object (including elements of copied arrays/collections) is kept by reference - changes of its
+ *     state made before the record is evaluated <b>are</b> visible in the output.</li>
+ * </ul>
+ * So use deferred evaluation for immutable values or values that are not modified after the call.
+ *
+ * @see org.dbg4j.core.annotations.Debug#deferEvaluation()
+ * @author Maksym Fedoryshyn
+ */
+public class DeferredValue implements JSONString {
+
+    private EvaluationAdapter evaluationAdapter;
+    private Class type;
+    private Object snapshot;
+    private Object value;
+    private boolean evaluated;
+
+    public DeferredValue(@Nonnull EvaluationAdapter evaluationAdapter, @Nullable Class type, @Nullable Object value) {
+        this.evaluationAdapter = evaluationAdapter;
+        this.type = type;
+        this.snapshot = snapshot(value);
+    }
+
+    /**
+     * @return <code>true</code> if value is already evaluated
+     */
+    public synchronized boolean isEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Evaluate value (if it is not evaluated yet).
+     *
+     * @return evaluated string or structure (see {@link StructuredEvaluationAdapter#evaluateStructured(Class, Object)})
+     */
+    @Nullable
+    public synchronized Object getValue() {
+        if(!evaluated) {
+            try {
+                if(evaluationAdapter instanceof StructuredEvaluationAdapter) {
+                    value = ((StructuredEvaluationAdapter) evaluationAdapter).evaluateStructured(type, snapshot);
+                } else {
+                    value = evaluationAdapter.evaluate(type, snapshot);
+                }
+            } catch (Exception e) {
+                value = DefaultDebuggingAdapter.UNKNOWN_VALUE;
+            }
+            evaluated = true;
+            evaluationAdapter = null;
+            type = null;
+            snapshot = null;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        Object result = getValue();
+        if(result instanceof Collection) {
+            return toJSONString();
+        }
+        return String.valueOf(result);
+    }
+
+    @Override
+    public String toJSONString() {
+        Object result = getValue();
+        if(result instanceof JSONString) {
+            return ((JSONString) result).toJSONString();
+        } else if(result instanceof Collection) {
+            return new JSONArray((Collection) result).toString();
+        } else if(result instanceof Number || result instanceof Boolean) {
+            return result.toString();
+        }
+        return JSONObject.quote(String.valueOf(result));
+    }
+
+    protected static Object snapshot(Object value) {
+        if(value instanceof Object[]) {
+            return ((Object[]) value).clone();
+        } else if(value instanceof Set) {
+            return new LinkedHashSet<Object>((Set<?>) value);
+        } else if(value instanceof Collection) {
+            return new ArrayList<Object>((Collection<?>) value);
+        } else if(value instanceof Map) {
+            return new LinkedHashMap<Object, Object>((Map<?, ?>) value);
+        } else if(value != null && value.getClass().isArray()) {
+            return cloneArray(value);
+        }
+        return value;
+    }
+
+    private static Object cloneArray(Object array) {
+        if(array instanceof byte[]) {
+            return ((byte[]) array).clone();
+        } else if(array instanceof char[]) {
+            return ((char[]) array).clone();
+        } else if(array instanceof int[]) {
+            return ((int[]) array).clone();
+        } else if(array instanceof long[]) {
+            return ((long[]) array).clone();
+        } else if(array instanceof short[]) {
+            return ((short[]) array).clone();
+        } else if(array instanceof double[]) {
+            return ((double[]) array).clone();
+        } else if(array instanceof float[]) {
+            return ((float[]) array).clone();
+        } else if(array instanceof boolean[]) {
+            return ((boolean[]) array).clone();
+        }
+        return array;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.core.beans;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONStringer;
+
+/**
+ * Method invocation record. Fixed fields of the record (see constants below) are kept in slots instead of map
+ * entries, all other fields are handled by {@link DebugData}. Works with <code>get()</code>/<code>getAll()</code>
+ * exactly as regular record does.
+ *
+ * @see org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter
+ * @author Maksym Fedoryshyn
+ */
+public class MethodDebugData extends DebugData {
+
+    public static final String CLASS = "Class";
+    public static final String METHOD = "Method";
+    public static final String TYPE = "Type";
+    public static final String ARGUMENTS = "Arguments";
+    public static final String FIELDS = "Fields";
+    public static final String STACKTRACE = "Stacktrace";
+    public static final String RESULT = "Result";
+    public static final String ERROR = "Error";
+    public static final String DURATION = "Duration";
+
+    private static final String[] KEYS = {CLASS, METHOD, TYPE, ARGUMENTS, FIELDS, STACKTRACE, RESULT, ERROR, DURATION};
+
+    private final Object[] slots = new Object[KEYS.length];
+    private int present;
+
+    public MethodDebugData() {
+        super();
+    }
+
+    public MethodDebugData(@Nonnull MethodDebugData that) {
+        super();
+        if(that != null) {
+            that.copyTo(this);
+        }
+    }
+
+    @Override
+    public void set(@Nonnull String name, Object value) {
+        int slot = slotOf(name);
+        if(slot < 0) {
+            super.set(name, value);
+            return;
+        }
+        checkNotFrozen();
+        slots[slot] = value;
+        present |= 1 << slot;
+    }
+
+    @Override
+    public void remove(@Nonnull String name) {
+        int slot = slotOf(name);
+        if(slot < 0) {
+            super.remove(name);
+            return;
+        }
+        checkNotFrozen();
+        slots[slot] = null;
+        present &= ~(1 << slot);
+    }
+
+    @Nullable
+    @Override
+    public Object get(@Nonnull String name) {
+        int slot = slotOf(name);
+        return slot < 0 ? super.get(name) : slots[slot];
+    }
+
+    @Override
+    public Map<String, Object> getAll() {
+        Map<String, Object> fields = super.getAll();
+        Map<String, Object> result = new HashMap<String, Object>(fields.size() + KEYS.length);
+        result.putAll(fields);
+        for(int i = 0; i < KEYS.length; i++) {
+            if((present & (1 << i)) != 0) {
+                result.put(KEYS[i], slots[i]);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void freeze() {
+        if(isFrozen()) {
+            return;
+        }
+        for(Object value: slots) {
+            freezeValue(value);
+        }
+        super.freeze();
+    }
+
+    /**
+     * Converts debug data into json string. Same as {@link DebugData#toString()}, but record is written directly,
+     * without building intermediate map.
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        try {
+            JSONStringer json = new JSONStringer();
+            json.object();
+            for(int i = 0; i < KEYS.length; i++) {
+                if((present & (1 << i)) != 0) {
+                    json.key(KEYS[i]).value(slots[i]);
+                }
+            }
+            for(Map.Entry<String, Object> entry: super.getAll().entrySet()) {
+                json.key(entry.getKey()).value(entry.getValue());
+            }
+            return json.endObject().toString();
+        } catch (JSONException e) {
+            return super.toString();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public MethodDebugData copy() {
+        return new MethodDebugData(this);
+    }
+
+    @Override
+    protected void copyTo(@Nonnull DebugData target) {
+        super.copyTo(target);
+        if(target instanceof MethodDebugData) {
+            MethodDebugData that = (MethodDebugData) target;
+            System.arraycopy(slots, 0, that.slots, 0, KEYS.length);
+            that.present = present;
+        } else {
+            for(int i = 0; i < KEYS.length; i++) {
+                if((present & (1 << i)) != 0) {
+                    target.set(KEYS[i], slots[i]);
+                }
+            }
+        }
+    }
+
+    private static int slotOf(String name) {
+        for(int i = 0; i < KEYS.length; i++) {
+            if(KEYS[i] == name) {
+                return i;
+            }
+        }
+        for(int i = 0; i < KEYS.length; i++) {
+            if(KEYS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.beans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Defines which stack frames are kept in captured stack traces. Frames of <em>excluded</em> classes are dropped,
+ * consecutive frames of <em>collapsed</em> classes are replaced by the innermost frame of the run. Patterns ending
+ * with <code>'.'</code> match all classes of the package (and subpackages), other patterns match the class itself and
+ * its nested classes (<code>java.lang.Thread</code> matches <code>java.lang.Thread$State</code>, but not
+ * <code>java.lang.ThreadLocal</code>). Patterns that start with <code>'*'</code> match any part of the class name
+ * (useful for generated proxies).
+ *
+ * Default policy drops dbg4j, AspectJ, reflection and proxy frames and collapses servlet container frames.
+ *
+ * @see org.dbg4j.core.context.DebugContext#setStackFramePolicy(StackFramePolicy)
+ * @author Maksym Fedoryshyn
+ */
+public class StackFramePolicy {
+
+    public static final List<String> DEFAULT_EXCLUDED = Collections.unmodifiableList(Arrays.asList(
+            "org.dbg4j.core.DebugUtils",
+            "org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter",
+            "org.dbg4j.core.aop.",
+            "org.dbg4j.rest.DebugJerseyFilter",
+            "org.dbg4j.jaxrs.DebugClientFilter",
+            "org.dbg4j.httpclient.DebugHttpClient",
+            "org.dbg4j.jdbc.",
+            "org.aspectj.",
+            "sun.reflect.",
+            "jdk.internal.reflect.",
+            "java.lang.reflect.Method",
+            "org.springframework.aop.",
+            "org.springframework.cglib.",
+            "net.sf.cglib.",
+            "com.sun.proxy.",
+            "*.$Proxy",
+            "*$$EnhancerBy",
+            "*$$FastClassBy",
+            "*$$Lambda"
+    ));
+
+    public static final List<String> DEFAULT_COLLAPSED = Collections.unmodifiableList(Arrays.asList(
+            "org.apache.catalina.",
+            "org.apache.coyote.",
+            "org.apache.tomcat.",
+            "org.eclipse.jetty.",
+            "io.undertow.",
+            "weblogic.",
+            "com.ibm.ws.",
+            "java.util.concurrent.ThreadPoolExecutor",
+            "java.lang.Thread"
+    ));
+
+    /** Keeps all frames */
+    public static final StackFramePolicy NONE = new StackFramePolicy(null, null);
+    public static final StackFramePolicy DEFAULT = new StackFramePolicy(DEFAULT_EXCLUDED, DEFAULT_COLLAPSED);
+
+    private final String[] excluded;
+    private final String[] collapsed;
+
+    public StackFramePolicy(@Nullable Collection<String> excluded, @Nullable Collection<String> collapsed) {
+        this.excluded = toArray(excluded);
+        this.collapsed = toArray(collapsed);
+    }
+
+    public boolean isExcluded(@Nonnull StackTraceElement frame) {
+        return matches(excluded, frame.getClassName());
+    }
+
+    public boolean isCollapsed(@Nonnull StackTraceElement frame) {
+        return matches(collapsed, frame.getClassName());
+    }
+
+    /**
+     * Apply policy to the stack frames.
+     *
+     * @param frames innermost first
+     * @return frames to keep (same array if nothing is dropped)
+     */
+    @Nonnull
+    public StackTraceElement[] apply(@Nonnull StackTraceElement[] frames) {
+        if(excluded.length == 0 && collapsed.length == 0) {
+            return frames;
+        }
+        List<StackTraceElement> result = null;
+        boolean collapsing = false;
+        for(int i = 0; i < frames.length; i++) {
+            StackTraceElement frame = frames[i];
+            boolean skip = isExcluded(frame);
+            if(!skip) {
+                boolean collapse = isCollapsed(frame);
+                skip = collapse && collapsing;
+                collapsing = collapse;
+            }
+            if(skip && result == null) {
+                result = new ArrayList<StackTraceElement>(frames.length);
+                result.addAll(Arrays.asList(frames).subList(0, i));
+            } else if(!skip && result != null) {
+                result.add(frame);
+            }
+        }
+        return (result == null) ? frames : result.toArray(new StackTraceElement[result.size()]);
+    }
+
+    private static boolean matches(String[] patterns, String className) {
+        for(String pattern: patterns) {
+            if(pattern.charAt(0) == '*' ? className.contains(pattern.substring(1)) : matchesClass(pattern, className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesClass(String pattern, String className) {
+        if(!className.startsWith(pattern)) {
+            return false;
+        }
+        return className.length() == pattern.length() || pattern.charAt(pattern.length() - 1) == '.'
+                || className.charAt(pattern.length()) == '$';
+    }
+
+    private static String[] toArray(Collection<String> patterns) {
+        List<String> result = new ArrayList<String>();
+        if(patterns != null) {
+            for(String pattern: patterns) {
+                if(pattern != null && pattern.length() > 0) {
+                    result.add(pattern);
+                }
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+}
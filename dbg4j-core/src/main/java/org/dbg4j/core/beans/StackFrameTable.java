@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.beans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Table of interned stack frames. Stack traces are stored as paths in a prefix tree that starts from the outermost
+ * frame, so the common part of the stacks (servlet container, Spring, AOP frames etc.) is kept only once and every
+ * captured stack trace is just a reference to the node of its innermost frame (see {@link StackTrace}).
+ *
+ * Table is bounded by the number of nodes: when it is full, {@link #intern(Throwable)} returns <code>null</code>
+ * and callers should fall back to plain strings. Table is append-only and thread safe.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class StackFrameTable {
+
+    public static final int DEFAULT_MAX_NODES = 16384;
+
+    private final int maxNodes;
+
+    private final Map<StackTraceElement, Integer> frameIds = new HashMap<StackTraceElement, Integer>();
+    private final List<StackTraceElement> frames = new ArrayList<StackTraceElement>();
+
+    /** (parent node, frame id) -> node */
+    private final Map<Long, Integer> children = new HashMap<Long, Integer>();
+    private int[] parents = new int[64];
+    private int[] nodeFrames = new int[64];
+    private int size;
+
+    public StackFrameTable() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    public StackFrameTable(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Intern stack trace of the throwable. Throwables with causes are not supported.
+     *
+     * @param throwable
+     * @return interned stack trace or <code>null</code> if it can't be interned (table is full or throwable has
+     * cause)
+     */
+    @Nullable
+    public StackTrace intern(@Nonnull Throwable throwable) {
+        if(throwable.getCause() != null) {
+            return null;
+        }
+        return intern(throwable.toString(), throwable.getStackTrace());
+    }
+
+    /**
+     * Intern stack trace.
+     *
+     * @param header first line of the stack trace (usually <code>throwable.toString()</code>)
+     * @param elements stack frames, innermost first
+     * @return interned stack trace or <code>null</code> if table is full
+     */
+    @Nullable
+    public synchronized StackTrace intern(@Nonnull String header, @Nonnull StackTraceElement[] elements) {
+        int node = -1;
+        for(int i = elements.length - 1; i >= 0; i--) {
+            node = child(node, frameId(elements[i]));
+            if(node < 0) {
+                return null;
+            }
+        }
+        return new StackTrace(this, header, node, elements.length);
+    }
+
+    /**
+     * @param node
+     * @return parent node (the caller's frame) or <code>-1</code> for the outermost frame
+     */
+    public synchronized int getParent(int node) {
+        return parents[node];
+    }
+
+    public synchronized StackTraceElement getFrame(int node) {
+        return frames.get(nodeFrames[node]);
+    }
+
+    /**
+     * @param node
+     * @return frames from the node up to the outermost one
+     */
+    public synchronized StackTraceElement[] getFrames(int node) {
+        List<StackTraceElement> result = new ArrayList<StackTraceElement>();
+        for(int n = node; n >= 0; n = parents[n]) {
+            result.add(frames.get(nodeFrames[n]));
+        }
+        return result.toArray(new StackTraceElement[result.size()]);
+    }
+
+    /**
+     * @return number of nodes
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    private int frameId(StackTraceElement element) {
+        Integer id = frameIds.get(element);
+        if(id == null) {
+            id = frames.size();
+            frames.add(element);
+            frameIds.put(element, id);
+        }
+        return id;
+    }
+
+    private int child(int parent, int frame) {
+        Long key = ((long) parent << 32) | (frame & 0xFFFFFFFFL);
+        Integer node = children.get(key);
+        if(node != null) {
+            return node;
+        }
+        if(size >= maxNodes) {
+            return -1;
+        }
+        if(size == parents.length) {
+            parents = Arrays.copyOf(parents, size * 2);
+            nodeFrames = Arrays.copyOf(nodeFrames, size * 2);
+        }
+        parents[size] = parent;
+        nodeFrames[size] = frame;
+        children.put(key, size);
+        return size++;
+    }
+}
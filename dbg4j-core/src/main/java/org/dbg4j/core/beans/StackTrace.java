@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.beans;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Stack trace interned in {@link StackFrameTable}. Keeps only reference to the innermost frame, frames are restored
+ * from the table when needed. String representation is exactly the same as
+ * <code>ExceptionUtils.getStackTrace()</code> produces, so records look the same in the output.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public final class StackTrace {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final StackFrameTable table;
+    private final String header;
+    private final int node;
+    private final int depth;
+
+    StackTrace(@Nonnull StackFrameTable table, @Nonnull String header, int node, int depth) {
+        this.table = table;
+        this.header = header;
+        this.node = node;
+        this.depth = depth;
+    }
+
+    public StackFrameTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return first line of the stack trace
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * @return node of the innermost frame in the table or <code>-1</code> if stack trace is empty
+     */
+    public int getNode() {
+        return node;
+    }
+
+    /**
+     * @return number of frames
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return frames, innermost first
+     */
+    public StackTraceElement[] getFrames() {
+        return table.getFrames(node);
+    }
+
+    @Override
+    public String toString() {
+        return format(header, getFrames());
+    }
+
+    /**
+     * Format stack trace the same way as <code>Throwable.printStackTrace()</code> does.
+     *
+     * @param header first line of the stack trace
+     * @param frames innermost first
+     * @return
+     */
+    public static String format(@Nonnull String header, @Nonnull StackTraceElement[] frames) {
+        StringBuilder sb = new StringBuilder(header).append(LINE_SEPARATOR);
+        for(StackTraceElement frame: frames) {
+            sb.append("\tat ").append(frame).append(LINE_SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StackTrace that = (StackTrace) o;
+        return table == that.table && node == that.node && header.equals(that.header);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * header.hashCode() + node;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.core.context;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.json.JSONString;
+
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Asynchronous call (f.e. non-blocking http request) tracked by the debug context which has submitted it. Record
+ * of the call is added to the context at submit time, its response part ({@link #RESPONSE} value) is filled in
+ * on completion, which may happen on another thread without debug context. Calls that are not completed by the
+ * moment the record is written are reported as pending.
+ * <pre>
+ *     AsyncCall call = AsyncCall.submit(record);
+ *     ...
+ *     //in callback
+ *     if(call != null) {
+ *         call.set("ResponseCode", status);
+ *         call.complete();
+ *     }
+ * </pre>
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class AsyncCall implements JSONString {
+
+    public static final String RESPONSE = "Response";
+
+    private final DebugContext context;
+    private final long submitTime;
+    private final DebugData response = new DebugData();
+    private boolean completed;
+
+    protected AsyncCall(@Nonnull DebugContext context, long submitTime) {
+        this.context = context;
+        this.submitTime = submitTime;
+    }
+
+    /**
+     * Record submitted call in the current debug context.
+     *
+     * @param record request details
+     * @return tracked call or <code>null</code> if debugging is not allowed
+     */
+    @Nullable
+    public static AsyncCall submit(@Nonnull DebugData record) {
+        return submit(DebugContext.getContext(), record, System.nanoTime());
+    }
+
+    /**
+     * Record submitted call in the given debug context (f.e. context propagated to the thread which actually sends
+     * the request).
+     *
+     * @param context context which has submitted the call
+     * @param record request details
+     * @param submitTime submit time (see <code>System.nanoTime()</code>)
+     * @return tracked call or <code>null</code> if context is <code>null</code> or closed
+     */
+    @Nullable
+    public static AsyncCall submit(@Nullable DebugContext context, @Nonnull DebugData record, long submitTime) {
+        if(context == null || context.isClosed()) {
+            return null;
+        }
+        if(context == DebugContext.getContext() && !DebugContext.isDebugAllowed()) {
+            return null;
+        }
+        AsyncCall call = new AsyncCall(context, submitTime);
+        record.set(RESPONSE, call);
+        context.addDebugRecord(record);
+        return call;
+    }
+
+    /**
+     * Set response detail. Ignored if call is already completed.
+     *
+     * @param name
+     * @param value
+     */
+    public synchronized void set(@Nonnull String name, Object value) {
+        if(!completed) {
+            response.set(name, value);
+        }
+    }
+
+    /**
+     * Complete the call. Time between submit and completion (queueing and network time) is recorded as
+     * <code>Duration</code> (in milliseconds).
+     *
+     * @return <code>false</code> if call is already completed
+     */
+    public synchronized boolean complete() {
+        if(completed) {
+            return false;
+        }
+        response.set("Duration", toMillis(System.nanoTime() - submitTime));
+        response.freeze();
+        completed = true;
+        return true;
+    }
+
+    /**
+     * Complete failed call.
+     *
+     * @param error
+     * @return <code>false</code> if call is already completed
+     */
+    public synchronized boolean fail(@Nonnull Throwable error) {
+        set("Error", ExceptionUtils.getStackTrace(error));
+        return complete();
+    }
+
+    public synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return context which has submitted the call
+     */
+    @Nonnull
+    public DebugContext getContext() {
+        return context;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toJSONString();
+    }
+
+    @Override
+    public synchronized String toJSONString() {
+        if(completed) {
+            return response.toString();
+        }
+        DebugData pending = new DebugData(response);
+        pending.set("Pending", true);
+        pending.set("Elapsed", toMillis(System.nanoTime() - submitTime));
+        return pending.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000d;
+    }
+}
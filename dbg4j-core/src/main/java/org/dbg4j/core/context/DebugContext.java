@@ -18,24 +18,34 @@
 
 package org.dbg4j.core.context;
 
+import org.dbg4j.core.aop.DebugAdvice;
 import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.StackFramePolicy;
+import org.dbg4j.core.beans.StackFrameTable;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Debugging context.
  *
+ * Contexts are not pooled: per-request state (records, properties, listeners, stack frame table) is small and
+ * short-lived, so recycling it does not pay off, while a recycled context may be modified by somebody who still
+ * keeps a reference to it after commit.
+ *
  * @author Maksym Fedoryshyn
  */
 public class DebugContext {
     public static enum EventType {RECORD_ADDED, POKE, CONTEXT_COMMIT};
 
     static DebugContextHolder debugContextHolder = new DefaultDebugContextHolder();
+    static volatile StackFramePolicy stackFramePolicy = StackFramePolicy.DEFAULT;
 
     protected Map<ContextListener, ContextListener> listeners = new ConcurrentHashMap<ContextListener, ContextListener>();
     protected Map<String, Object> properties = new ConcurrentHashMap<String, Object>();
@@ -43,6 +53,15 @@ public class DebugContext {
 
     protected ReentrantReadWriteLock debugDataModificationsLock = new ReentrantReadWriteLock();
     protected List<DebugData> debugData  = new ArrayList<DebugData>();
+    protected StackFrameTable stackFrameTable = new StackFrameTable();
+    protected final long startTime = System.nanoTime();
+    protected final AtomicLong overhead = new AtomicLong();
+    protected volatile Boolean debugAllowed;
+    protected volatile int maxRecords = Integer.MAX_VALUE;
+    protected final AtomicLong droppedRecords = new AtomicLong();
+    protected volatile boolean closed;
+    /** context is counted by {@link DebugAdvice} as active */
+    private final AtomicBoolean active = new AtomicBoolean();
 
     /**
      * Constructor
@@ -73,6 +92,20 @@ public class DebugContext {
         DebugContext.debugContextHolder = debugContextHolder;
     }
 
+    /**
+     * Set policy that is applied to captured stack traces. <code>null</code> means that all frames are kept.
+     *
+     * @see StackFramePolicy
+     */
+    public static void setStackFramePolicy(@Nullable StackFramePolicy stackFramePolicy){
+        DebugContext.stackFramePolicy = (stackFramePolicy != null) ? stackFramePolicy : StackFramePolicy.NONE;
+    }
+
+    @Nonnull
+    public static StackFramePolicy getStackFramePolicy(){
+        return stackFramePolicy;
+    }
+
     /**
      * Get current debug context. May return <code>null</code> if context is not initialized.
      *
@@ -110,6 +143,9 @@ public class DebugContext {
     public static DebugContext init(@Nullable DebugAllowanceStrategy debugAllowanceStrategy, ContextListener... listeners){
         DebugContext context = new DebugContext(debugAllowanceStrategy, listeners);
         debugContextHolder.setDebugContext(context);
+        if(context.active.compareAndSet(false, true)) {
+            DebugAdvice.contextActivated();
+        }
         return context;
     }
 
@@ -121,6 +157,7 @@ public class DebugContext {
         DebugContext context = getContext();
         if(context != null){
             context.notifyListeners(EventType.CONTEXT_COMMIT, null);
+            context.deactivate();
         }
         debugContextHolder.setDebugContext(null);
     }
@@ -193,6 +230,7 @@ public class DebugContext {
      */
     public void addProperty(@Nonnull String key, Object value){
         properties.put(key, value);
+        debugAllowed = null;
     }
 
     /**
@@ -219,6 +257,40 @@ public class DebugContext {
         if(properties.containsKey(key)){
             properties.remove(key);
         }
+        debugAllowed = null;
+    }
+
+
+    /**
+     * Get table of stack frames shared by all records of this context.
+     *
+     * @see org.dbg4j.core.beans.StackTrace
+     */
+    public StackFrameTable getStackFrameTable(){
+        return stackFrameTable;
+    }
+
+    /**
+     * @return context creation time (<code>System.nanoTime()</code>)
+     */
+    public long getStartTime(){
+        return startTime;
+    }
+
+    /**
+     * Add time spent by debugger itself (collecting and evaluating debug data).
+     *
+     * @param nanos
+     */
+    public void addOverhead(long nanos){
+        overhead.addAndGet(nanos);
+    }
+
+    /**
+     * @return time (in nanoseconds) spent by debugger itself within this context
+     */
+    public long getOverhead(){
+        return overhead.get();
     }
 
 
@@ -228,25 +300,58 @@ public class DebugContext {
 
     /**
      * Is debugging allowed. Debugging is allowed if current debug context in not null and debugAllowanceStrategy is null or
-     * allows to debug
+     * allows to debug. Decisions of {@link MemoizableDebugAllowanceStrategy} are cached in the context.
      *
      * @see DebugAllowanceStrategy
+     * @see MemoizableDebugAllowanceStrategy
      */
     public static boolean isDebugAllowed(Object... params){
-        return debugContextHolder.getDebugContext() != null &&
-                (debugContextHolder.getDebugContext().debugAllowanceStrategy == null
-                  || debugContextHolder.getDebugContext().debugAllowanceStrategy.isAllowed(debugContextHolder.getDebugContext(), params));
+        DebugContext context = debugContextHolder.getDebugContext();
+        if(context == null) {
+            return false;
+        }
+        DebugAllowanceStrategy strategy = context.debugAllowanceStrategy;
+        if(strategy == null) {
+            return true;
+        }
+        if(strategy instanceof MemoizableDebugAllowanceStrategy) {
+            Boolean allowed = context.debugAllowed;
+            if(allowed == null) {
+                allowed = strategy.isAllowed(context, params);
+                context.debugAllowed = allowed;
+            }
+            return allowed;
+        }
+        return strategy.isAllowed(context, params);
+    }
+
+    /**
+     * Drop cached decision of {@link MemoizableDebugAllowanceStrategy}, so strategy is asked again on the next
+     * {@link #isDebugAllowed(Object...)} call.
+     */
+    public void invalidateDebugAllowance(){
+        debugAllowed = null;
     }
 
     /**
-     * Add collected debug data.
+     * Add collected debug data. Record is frozen and must not be modified after it is added.
      *
      * @param record
      * @see org.dbg4j.core.beans.DebugData
      */
     public void addDebugRecord(DebugData record){
+        if(closed) {
+            return;
+        }
+        if(record != null) {
+            record.freeze();
+        }
         try {
             debugDataModificationsLock.writeLock().lock();
+            if(debugData.size() >= maxRecords) {
+                droppedRecords.incrementAndGet();
+                return;
+            }
             debugData.add(record);
         } finally {
             debugDataModificationsLock.writeLock().unlock();
@@ -254,6 +359,57 @@ public class DebugContext {
         notifyListeners(EventType.RECORD_ADDED, record);
     }
 
+    /**
+     * Remove all collected debug data (f.e. if it should not be reported).
+     */
+    public void discardDebugData(){
+        try {
+            debugDataModificationsLock.writeLock().lock();
+            debugData.clear();
+        } finally {
+            debugDataModificationsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Close context: it stops collecting debug data (f.e. when it is reaped by {@link TrackingDebugContextHolder}).
+     */
+    public void close(){
+        closed = true;
+        deactivate();
+    }
+
+    private void deactivate(){
+        if(active.compareAndSet(true, false)){
+            DebugAdvice.contextDeactivated();
+        }
+    }
+
+    public boolean isClosed(){
+        return closed;
+    }
+
+    /**
+     * Limit number of records kept by context. Records that exceed the limit are dropped (see
+     * {@link #getDroppedRecords()}).
+     *
+     * @param maxRecords
+     */
+    public void setMaxRecords(int maxRecords){
+        this.maxRecords = maxRecords;
+    }
+
+    public int getMaxRecords(){
+        return maxRecords;
+    }
+
+    /**
+     * @return number of records dropped because of {@link #setMaxRecords(int)} limit
+     */
+    public long getDroppedRecords(){
+        return droppedRecords.get();
+    }
+
     /**
      * Checks if context already contains given debug record
      * @param record
@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.context;
+
+/**
+ * Allowance strategy whose decision for the given context does not depend on <code>params</code> and changes only
+ * when context properties change. {@link DebugContext} calls such strategy once and caches the decision (see
+ * {@link DebugContext#isDebugAllowed(Object...)}); cached decision is dropped when context property is added or
+ * removed, or explicitly by {@link DebugContext#invalidateDebugAllowance()}.
+ *
+ * Use it for expensive checks (user roles, feature flags etc), so they run once per request instead of on every
+ * debugged call.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public interface MemoizableDebugAllowanceStrategy extends DebugAllowanceStrategy {
+}
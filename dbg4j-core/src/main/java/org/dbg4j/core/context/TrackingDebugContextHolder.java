@@ -0,0 +1,250 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.core.context;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Context holder which tracks live contexts (their creation time and owning thread) and reaps contexts which were
+ * never committed:
+ * <ul>
+ *     <li>contexts owned by dead threads are force-committed (or discarded, see {@link ReapAction}) and closed;</li>
+ *     <li>contexts older than TTL whose owner thread is still running are only closed (and their data is discarded
+ *     if action is {@link ReapAction#DISCARD}), so they don't collect records of unrelated requests handled later by
+ *     the same (pooled) thread. Such context is never committed by reaper (owner may be still writing the response),
+ *     it stays in the thread until owner commits it or replaces it with a new one.</li>
+ * </ul>
+ * <p/>
+ * Reaping is done by daemon thread (see {@link #start()}) or manually with {@link #reap()}.
+ * <pre>
+ *     TrackingDebugContextHolder holder = new TrackingDebugContextHolder(60000, ReapAction.COMMIT);
+ *     DebugContext.setDebugContextHolder(holder);
+ *     holder.start();
+ * </pre>
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class TrackingDebugContextHolder extends DefaultDebugContextHolder {
+
+    public static enum ReapAction {
+        /**
+         * notify listeners with <code>CONTEXT_COMMIT</code> event, so collected data is reported (contexts of dead
+         * threads only)
+         */
+        COMMIT,
+        /** drop collected data silently */
+        DISCARD
+    }
+
+    public static final long DEFAULT_REAP_PERIOD = 10000;
+
+    protected final long ttl;
+    protected final ReapAction reapAction;
+    protected final Map<DebugContext, Lease> live = new ConcurrentHashMap<DebugContext, Lease>();
+
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong overwritten = new AtomicLong();
+    private ScheduledExecutorService reaper;
+
+    /**
+     * @param ttl max age of context (in milliseconds)
+     * @param reapAction what to do with reaped contexts
+     */
+    public TrackingDebugContextHolder(long ttl, @Nonnull ReapAction reapAction) {
+        if(reapAction == null) {
+            throw new NullPointerException("reapAction cannot be null");
+        }
+        this.ttl = ttl;
+        this.reapAction = reapAction;
+    }
+
+    @Override
+    public void setDebugContext(@Nullable DebugContext debugContext) {
+        DebugContext previous = super.getDebugContext();
+        if(previous != null && previous != debugContext) {
+            Lease lease = live.get(previous);
+            //inherited contexts are owned by parent thread
+            if(lease != null && lease.thread.get() == Thread.currentThread()) {
+                live.remove(previous);
+                if(debugContext != null) {
+                    //previous context has never been committed
+                    overwritten.incrementAndGet();
+                    previous.close();
+                }
+            }
+        }
+        if(debugContext != null && debugContext != previous) {
+            live.put(debugContext, new Lease(Thread.currentThread()));
+        }
+        super.setDebugContext(debugContext);
+    }
+
+    /**
+     * Reap expired contexts and contexts of dead threads.
+     *
+     * @return number of reaped contexts
+     */
+    public int reap() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for(Map.Entry<DebugContext, Lease> entry: live.entrySet()) {
+            Lease lease = entry.getValue();
+            Thread thread = lease.thread.get();
+            if(thread != null && thread.isAlive()) {
+                if(now - lease.creationTime >= ttl && live.remove(entry.getKey()) != null) {
+                    expire(entry.getKey());
+                    count++;
+                }
+            } else if(live.remove(entry.getKey()) != null) {
+                reap(entry.getKey());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reap context of dead thread.
+     */
+    protected void reap(@Nonnull DebugContext context) {
+        context.close();
+        if(reapAction == ReapAction.COMMIT) {
+            committed.incrementAndGet();
+            context.notifyListeners(DebugContext.EventType.CONTEXT_COMMIT, null);
+        } else {
+            discarded.incrementAndGet();
+            context.discardDebugData();
+        }
+    }
+
+    /**
+     * Reap expired context of running thread. Listeners are not notified: they may be bound to the owner thread
+     * (f.e. response wrapper which writes response body on commit).
+     */
+    protected void expire(@Nonnull DebugContext context) {
+        context.close();
+        expired.incrementAndGet();
+        if(reapAction == ReapAction.DISCARD) {
+            context.discardDebugData();
+        }
+    }
+
+    /**
+     * Start reaper thread with default period.
+     */
+    public void start() {
+        start(DEFAULT_REAP_PERIOD);
+    }
+
+    /**
+     * Start reaper thread.
+     *
+     * @param period reaping period in milliseconds
+     */
+    public synchronized void start(long period) {
+        if(reaper != null) {
+            return;
+        }
+        reaper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "dbg4j-context-reaper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        reaper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reap();
+                } catch (Exception ignored) {}
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if(reaper != null) {
+            reaper.shutdownNow();
+            reaper = null;
+        }
+    }
+
+    /**
+     * @return number of contexts which are initialized and not committed yet
+     */
+    public int getLiveCount() {
+        return live.size();
+    }
+
+    /**
+     * @return number of contexts of dead threads which were force-committed by reaper
+     */
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    /**
+     * @return number of contexts of dead threads which were discarded by reaper
+     */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    /**
+     * @return number of contexts which were closed by reaper because they are older than TTL
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * @return number of contexts which were replaced by new context without being committed
+     */
+    public long getOverwrittenCount() {
+        return overwritten.get();
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public ReapAction getReapAction() {
+        return reapAction;
+    }
+
+    protected static class Lease {
+        protected final WeakReference<Thread> thread;
+        protected final long creationTime = System.currentTimeMillis();
+
+        protected Lease(Thread thread) {
+            this.thread = new WeakReference<Thread>(thread);
+        }
+    }
+}
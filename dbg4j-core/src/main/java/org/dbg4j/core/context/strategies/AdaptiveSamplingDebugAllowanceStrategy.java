@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.context.strategies;
+
+import org.dbg4j.core.context.ContextListener;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Sampling strategy that adapts sampling rate to the measured debugging overhead: if time spent by debugger
+ * (see {@link DebugContext#getOverhead()}) exceeds <code>targetOverhead</code> percents of request time, fewer requests
+ * are sampled (rate is doubled, up to <code>maxRate</code>); if overhead is below half of the target, rate is halved.
+ * Overhead is smoothed with exponential moving average.
+ *
+ * The strategy should be registered as a listener of debug contexts (<code>DebugFilter</code> does it
+ * automatically), since overhead is measured on context commit.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class AdaptiveSamplingDebugAllowanceStrategy extends SamplingDebugAllowanceStrategy
+        implements ContextListener {
+
+    public static final int DEFAULT_MAX_RATE = 1024;
+    protected static final double SMOOTHING = 0.2;
+
+    protected final double targetOverhead;
+    protected final int minRate;
+    protected final int maxRate;
+    protected double averageOverhead;
+
+    /**
+     * @param targetOverhead target overhead, percents of request time
+     */
+    public AdaptiveSamplingDebugAllowanceStrategy(double targetOverhead) {
+        this(targetOverhead, 1, DEFAULT_MAX_RATE);
+    }
+
+    public AdaptiveSamplingDebugAllowanceStrategy(double targetOverhead, int minRate, int maxRate) {
+        super(minRate);
+        if(targetOverhead <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException("Invalid target overhead or rates");
+        }
+        this.targetOverhead = targetOverhead;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+    }
+
+    @Override
+    public void notify(DebugContext.EventType eventType, DebugContext debugContext, Object... parameters) {
+        if(eventType == DebugContext.EventType.CONTEXT_COMMIT && debugContext != null) {
+            long duration = System.nanoTime() - debugContext.getStartTime();
+            if(duration > 0) {
+                update(100d * debugContext.getOverhead() / duration);
+            }
+        }
+    }
+
+    /**
+     * @param overhead measured overhead of the context, percents
+     */
+    protected synchronized void update(double overhead) {
+        averageOverhead += SMOOTHING * (overhead - averageOverhead);
+        if(averageOverhead > targetOverhead) {
+            setRate(Math.min(maxRate, rate * 2));
+        } else if(averageOverhead < targetOverhead / 2) {
+            setRate(Math.max(minRate, rate / 2));
+        }
+    }
+
+    public synchronized double getAverageOverhead() {
+        return averageOverhead;
+    }
+
+    public double getTargetOverhead() {
+        return targetOverhead;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.context.strategies;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.context.MemoizableDebugAllowanceStrategy;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Limits number of debugged requests with token buckets: each key (see {@link #getKey(Object...)}, single shared
+ * bucket by default) may start up to <code>permitsPerSecond</code> debug contexts per second, with bursts up to
+ * <code>burst</code> contexts. Number of buckets is bounded by <code>maxKeys</code>; all other keys share the same
+ * bucket. Once the context is created, debugging is always allowed within it.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class RateLimitingDebugAllowanceStrategy implements MemoizableDebugAllowanceStrategy {
+
+    public static final int DEFAULT_MAX_KEYS = 1000;
+    protected static final String DEFAULT_KEY = "";
+
+    protected final double permitsPerSecond;
+    protected final int burst;
+    protected final int maxKeys;
+    protected final Map<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+    protected final TokenBucket overflow;
+
+    public RateLimitingDebugAllowanceStrategy(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, DEFAULT_MAX_KEYS);
+    }
+
+    public RateLimitingDebugAllowanceStrategy(double permitsPerSecond, int burst, int maxKeys) {
+        if(permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst should be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxKeys = maxKeys;
+        this.overflow = new TokenBucket(permitsPerSecond, burst);
+    }
+
+    @Override
+    public boolean isAllowed(@Nullable DebugContext context, @Nullable Object... params) {
+        return context != null || getBucket(getKey(params)).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Key of the bucket for the given parameters (the same parameters as passed to
+     * {@link #isAllowed(DebugContext, Object...)}).
+     *
+     * @param params
+     * @return
+     */
+    @Nonnull
+    protected String getKey(@Nullable Object... params) {
+        return DEFAULT_KEY;
+    }
+
+    @Nonnull
+    protected TokenBucket getBucket(@Nullable String key) {
+        if(key == null) {
+            key = DEFAULT_KEY;
+        }
+        TokenBucket bucket = buckets.get(key);
+        if(bucket == null) {
+            if(buckets.size() >= maxKeys) {
+                return overflow;
+            }
+            bucket = new TokenBucket(permitsPerSecond, burst);
+            buckets.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Token bucket.
+     */
+    protected static class TokenBucket {
+        private final double permitsPerNano;
+        private final int capacity;
+        private double tokens;
+        private long lastRefill;
+
+        protected TokenBucket(double permitsPerSecond, int capacity) {
+            this.permitsPerNano = permitsPerSecond / 1000000000d;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * @param now <code>System.nanoTime()</code>
+         * @return <code>true</code> if token is acquired
+         */
+        protected synchronized boolean tryAcquire(long now) {
+            if(now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+                lastRefill = now;
+            }
+            if(tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
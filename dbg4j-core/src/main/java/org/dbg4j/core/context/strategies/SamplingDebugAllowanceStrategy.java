@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.context.strategies;
+
+import java.util.Random;
+
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.context.MemoizableDebugAllowanceStrategy;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Allows debugging for randomly sampled 1-in-<code>rate</code> requests. Decision is made before debug context
+ * creation (<code>context</code> is <code>null</code>, f.e. in <code>DebugFilter</code>); once the context is
+ * created, debugging is always allowed within it.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class SamplingDebugAllowanceStrategy implements MemoizableDebugAllowanceStrategy {
+
+    protected final Random random = new Random();
+    protected volatile int rate;
+
+    /**
+     * @param rate 1-in-<code>rate</code> requests are debugged
+     */
+    public SamplingDebugAllowanceStrategy(int rate) {
+        setRate(rate);
+    }
+
+    @Override
+    public boolean isAllowed(@Nullable DebugContext context, @Nullable Object... params) {
+        return context != null || sample();
+    }
+
+    protected boolean sample() {
+        int current = rate;
+        return current <= 1 || random.nextInt(current) == 0;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(int rate) {
+        if(rate < 1) {
+            throw new IllegalArgumentException("Rate should be positive");
+        }
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.core.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Input stream which copies bytes read by the application into {@link CapturedContent}. Content is captured while
+ * the stream is consumed, so nothing is read ahead or buffered twice; bytes which are never read (or skipped) are
+ * not captured.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class BoundedTeeInputStream extends FilterInputStream {
+
+    private final CapturedContent content;
+
+    public BoundedTeeInputStream(@Nonnull InputStream in, @Nonnull CapturedContent content) {
+        super(in);
+        this.content = content;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if(b >= 0) {
+            content.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = super.read(b, off, len);
+        if(count > 0) {
+            content.write(b, off, count);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean markSupported() {
+        //re-read bytes would be captured twice
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {}
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    @Nonnull
+    public CapturedContent getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.core.io;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.json.JSONObject;
+import org.json.JSONString;
+
+/**
+ * Bounded buffer of captured content (f.e. body of http request or response). Only first <code>limit</code> bytes
+ * are kept, the rest is counted only. May be used as value of debug record: content is converted to string when
+ * record is written, so it contains all bytes captured by that moment. Raw bytes are kept, so charset is applied
+ * only when content is converted to string (subclasses may resolve it lazily, see {@link #getCharset()}).
+ *
+ * @see BoundedTeeInputStream
+ * @author Maksym Fedoryshyn
+ */
+public class CapturedContent implements JSONString {
+
+    public static final int DEFAULT_LIMIT = 64 * 1024;
+    public static final String TRUNCATED_SUFFIX = "...";
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    private final int limit;
+    private final Charset charset;
+    private byte[] buffer = new byte[0];
+    private int size;
+    private long total;
+
+    public CapturedContent() {
+        this(DEFAULT_LIMIT, null);
+    }
+
+    /**
+     * @param limit max number of kept bytes
+     * @param charset charset of the content (UTF-8 if <code>null</code>)
+     */
+    public CapturedContent(int limit, @Nullable Charset charset) {
+        if(limit < 0) {
+            throw new IllegalArgumentException("limit should not be negative");
+        }
+        this.limit = limit;
+        this.charset = (charset != null) ? charset : DEFAULT_CHARSET;
+    }
+
+    public synchronized void write(int b) {
+        total++;
+        if(size < limit) {
+            ensureCapacity(size + 1);
+            buffer[size++] = (byte) b;
+        }
+    }
+
+    public synchronized void write(@Nonnull byte[] b, int off, int len) {
+        total += len;
+        int count = Math.min(len, limit - size);
+        if(count > 0) {
+            ensureCapacity(size + count);
+            System.arraycopy(b, off, buffer, size, count);
+            size += count;
+        }
+    }
+
+    /**
+     * @return copy of captured bytes
+     */
+    @Nonnull
+    public synchronized byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * @return number of captured bytes
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return number of all written bytes (including bytes that exceed the limit)
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized boolean isTruncated() {
+        return total > size;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return charset content is decoded with when it is converted to string
+     */
+    @Nonnull
+    public Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    public synchronized String toString() {
+        String result = new String(buffer, 0, size, getCharset());
+        return isTruncated() ? result + TRUNCATED_SUFFIX : result;
+    }
+
+    @Override
+    public String toJSONString() {
+        return JSONObject.quote(toString());
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity > buffer.length) {
+            int newCapacity = Math.max(capacity, Math.min(limit, Math.max(256, buffer.length * 2)));
+            buffer = Arrays.copyOf(buffer, newCapacity);
+        }
+    }
+}
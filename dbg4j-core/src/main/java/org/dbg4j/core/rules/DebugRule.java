@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.rules;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.adapters.DebuggingAdapter;
+import org.dbg4j.core.adapters.EvaluationAdapter;
+import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
+import org.dbg4j.core.annotations.Debug;
+
+/**
+ * Runtime equivalent of {@link Debug} annotation: methods that match the rule are debugged as if they were
+ * annotated. Rule is applied to methods whose class name matches <code>classPattern</code> and name matches
+ * <code>methodPattern</code>. Patterns are either exact names or prefixes ending with <code>*</code>
+ * (<code>com.mycompany.*</code>, <code>get*</code>, <code>*</code>).
+ *
+ * Rules are immutable; use {@link DebugRuleRegistry} to apply them.
+ *
+ * @see DebugRuleRegistry
+ * @author Maksym Fedoryshyn
+ */
+public final class DebugRule implements Debug {
+
+    public static final String ANY = "*";
+
+    private final String classPattern;
+    private final String methodPattern;
+    private final String[] instanceFields;
+    private final boolean debugOnce;
+    private final boolean deferEvaluation;
+    private final Class<? extends DebuggingAdapter> debugger;
+    private final Class<? extends EvaluationAdapter> adapter;
+
+    public DebugRule(@Nonnull String classPattern, @Nullable String methodPattern) {
+        this(classPattern, methodPattern, null, false, false, null, null);
+    }
+
+    /**
+     * @param classPattern class name pattern
+     * @param methodPattern method name pattern (<code>null</code> means any method)
+     * @param instanceFields see {@link Debug#instanceFields()}, annotated fields are debugged by default
+     * @param debugOnce see {@link Debug#debugOnce()}
+     * @param deferEvaluation see {@link Debug#deferEvaluation()}
+     * @param debugger see {@link Debug#debugger()}, {@link DefaultDebuggingAdapter} is used by default
+     * @param adapter evaluation adapter for arguments and result (used as if method and all its arguments were
+     *                annotated with {@link org.dbg4j.core.annotations.Adapter}); default one if <code>null</code>
+     */
+    public DebugRule(@Nonnull String classPattern, @Nullable String methodPattern, @Nullable String[] instanceFields,
+            boolean debugOnce, boolean deferEvaluation, @Nullable Class<? extends DebuggingAdapter> debugger,
+            @Nullable Class<? extends EvaluationAdapter> adapter) {
+        if(classPattern == null || classPattern.trim().length() == 0) {
+            throw new IllegalArgumentException("Class pattern is required");
+        }
+        this.classPattern = classPattern.trim();
+        this.methodPattern = (methodPattern == null || methodPattern.trim().length() == 0)
+                ? ANY : methodPattern.trim();
+        this.instanceFields = (instanceFields != null && instanceFields.length > 0)
+                ? instanceFields.clone() : new String[]{DEBUG_ANNOTATED_FIELDS_CONSTANT};
+        this.debugOnce = debugOnce;
+        this.deferEvaluation = deferEvaluation;
+        this.debugger = (debugger != null) ? debugger : DefaultDebuggingAdapter.class;
+        this.adapter = adapter;
+    }
+
+    @Nonnull
+    public String getClassPattern() {
+        return classPattern;
+    }
+
+    @Nonnull
+    public String getMethodPattern() {
+        return methodPattern;
+    }
+
+    @Nullable
+    public Class<? extends EvaluationAdapter> getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * @param className class name (<code>com.mycompany.MyClass</code>)
+     * @return
+     */
+    public boolean matchesClass(@Nonnull String className) {
+        return matchesPattern(classPattern, className);
+    }
+
+    /**
+     * @param className class name (<code>com.mycompany.MyClass</code>)
+     * @param methodName method name
+     * @return
+     */
+    public boolean matches(@Nonnull String className, @Nonnull String methodName) {
+        return matchesPattern(classPattern, className) && matchesPattern(methodPattern, methodName);
+    }
+
+    static boolean isPrefix(String pattern) {
+        return pattern.endsWith(ANY);
+    }
+
+    static String getPrefix(String pattern) {
+        return pattern.substring(0, pattern.length() - ANY.length());
+    }
+
+    private static boolean matchesPattern(String pattern, String name) {
+        return isPrefix(pattern) ? name.startsWith(getPrefix(pattern)) : pattern.equals(name);
+    }
+
+    @Override
+    public String[] instanceFields() {
+        return instanceFields.clone();
+    }
+
+    @Override
+    public Class<? extends DebuggingAdapter> debugger() {
+        return debugger;
+    }
+
+    @Override
+    public boolean debugOnce() {
+        return debugOnce;
+    }
+
+    @Override
+    public boolean deferEvaluation() {
+        return deferEvaluation;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Debug.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof DebugRule)) {
+            return false;
+        }
+        DebugRule that = (DebugRule) o;
+        return classPattern.equals(that.classPattern) && methodPattern.equals(that.methodPattern)
+                && Arrays.equals(instanceFields, that.instanceFields) && debugOnce == that.debugOnce
+                && deferEvaluation == that.deferEvaluation && debugger.equals(that.debugger)
+                && (adapter == null ? that.adapter == null : adapter.equals(that.adapter));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * classPattern.hashCode() + methodPattern.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return classPattern + "#" + methodPattern;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.rules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Registry of runtime debug rules. Rules are compiled into immutable index (exact class names are looked up in the
+ * map, only prefix patterns are scanned), which is replaced on every change, so lookups are lock free.
+ *
+ * Rules are applied by <code>dbg4j-agent</code>: classes that match the rules are (re)instrumented when rules are
+ * changed, methods that do not match any rule are not touched at all.
+ *
+ * @see DebugRule
+ * @see DebugRules
+ * @author Maksym Fedoryshyn
+ */
+public final class DebugRuleRegistry {
+
+    /**
+     * Rule change listener.
+     */
+    public static interface Listener {
+        /**
+         * @param changed rules that were added or removed
+         */
+        void rulesChanged(@Nonnull Collection<DebugRule> changed);
+    }
+
+    private static final Object LOCK = new Object();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private static volatile Index index = new Index(Collections.<DebugRule>emptyList());
+
+    private DebugRuleRegistry() {}
+
+    public static void register(@Nonnull DebugRule rule) {
+        synchronized (LOCK) {
+            List<DebugRule> rules = new ArrayList<DebugRule>(index.rules);
+            if(rules.contains(rule)) {
+                return;
+            }
+            rules.add(rule);
+            index = new Index(rules);
+        }
+        notifyListeners(Collections.singletonList(rule));
+    }
+
+    public static boolean unregister(@Nonnull DebugRule rule) {
+        synchronized (LOCK) {
+            List<DebugRule> rules = new ArrayList<DebugRule>(index.rules);
+            if(!rules.remove(rule)) {
+                return false;
+            }
+            index = new Index(rules);
+        }
+        notifyListeners(Collections.singletonList(rule));
+        return true;
+    }
+
+    public static void clear() {
+        List<DebugRule> removed;
+        synchronized (LOCK) {
+            removed = index.rules;
+            index = new Index(Collections.<DebugRule>emptyList());
+        }
+        if(!removed.isEmpty()) {
+            notifyListeners(removed);
+        }
+    }
+
+    @Nonnull
+    public static List<DebugRule> getRules() {
+        return index.rules;
+    }
+
+    public static boolean isEmpty() {
+        return index.rules.isEmpty();
+    }
+
+    /**
+     * @param className class name (<code>com.mycompany.MyClass</code>)
+     * @return <code>true</code> if some rule may be applied to methods of the class
+     */
+    public static boolean matchesClass(@Nonnull String className) {
+        Index current = index;
+        return !current.rules.isEmpty()
+                && (current.exact.containsKey(className) || current.firstPrefixed(className, null) != null);
+    }
+
+    /**
+     * Find rule for the method. Rules for exact class name are checked first, then prefix rules (in registration
+     * order).
+     *
+     * @param className class name (<code>com.mycompany.MyClass</code>)
+     * @param methodName method name
+     * @return first matching rule or <code>null</code>
+     */
+    @Nullable
+    public static DebugRule match(@Nonnull String className, @Nonnull String methodName) {
+        Index current = index;
+        if(current.rules.isEmpty()) {
+            return null;
+        }
+        List<DebugRule> exact = current.exact.get(className);
+        if(exact != null) {
+            for(DebugRule rule: exact) {
+                if(rule.matches(className, methodName)) {
+                    return rule;
+                }
+            }
+        }
+        return current.firstPrefixed(className, methodName);
+    }
+
+    public static void addListener(@Nonnull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(@Nonnull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static void notifyListeners(Collection<DebugRule> changed) {
+        for(Listener listener: listeners) {
+            try {
+                listener.rulesChanged(changed);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Compiled rules.
+     */
+    private static final class Index {
+        final List<DebugRule> rules;
+        final Map<String, List<DebugRule>> exact = new HashMap<String, List<DebugRule>>();
+        final List<DebugRule> prefixed = new ArrayList<DebugRule>();
+
+        Index(List<DebugRule> rules) {
+            this.rules = Collections.unmodifiableList(rules);
+            for(DebugRule rule: rules) {
+                if(DebugRule.isPrefix(rule.getClassPattern())) {
+                    prefixed.add(rule);
+                } else {
+                    List<DebugRule> list = exact.get(rule.getClassPattern());
+                    if(list == null) {
+                        list = new ArrayList<DebugRule>(1);
+                        exact.put(rule.getClassPattern(), list);
+                    }
+                    list.add(rule);
+                }
+            }
+        }
+
+        DebugRule firstPrefixed(String className, String methodName) {
+            for(DebugRule rule: prefixed) {
+                if(methodName == null ? rule.matchesClass(className) : rule.matches(className, methodName)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.rules;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.dbg4j.core.annotations.Debug;
+
+/**
+ * JMX bean to manage {@link DebugRuleRegistry}. Register it with {@link #register()} (<code>dbg4j-agent</code> does
+ * it on startup).
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DebugRules implements DebugRulesMBean {
+
+    public static final String OBJECT_NAME = "org.dbg4j:type=DebugRules";
+
+    /**
+     * Register bean in platform MBean server (if not registered yet).
+     *
+     * @return object name or <code>null</code> if bean cannot be registered
+     */
+    @Nullable
+    public static ObjectName register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!server.isRegistered(name)) {
+                server.registerMBean(new DebugRules(), name);
+            }
+            return name;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String[] getRules() {
+        List<String> result = new ArrayList<String>();
+        for(DebugRule rule: DebugRuleRegistry.getRules()) {
+            result.add(rule.toString());
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    @Override
+    public void addRule(String classPattern, String methodPattern, String instanceFields, boolean debugOnce) {
+        DebugRuleRegistry.register(new DebugRule(classPattern, methodPattern, parseFields(instanceFields), debugOnce,
+                false, null, null));
+    }
+
+    @Override
+    public boolean removeRule(String classPattern, String methodPattern) {
+        boolean removed = false;
+        for(DebugRule rule: DebugRuleRegistry.getRules()) {
+            if(rule.getClassPattern().equals(classPattern)
+                    && rule.getMethodPattern().equals(new DebugRule(classPattern, methodPattern).getMethodPattern())) {
+                removed |= DebugRuleRegistry.unregister(rule);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        DebugRuleRegistry.clear();
+    }
+
+    @Nullable
+    static String[] parseFields(@Nullable String instanceFields) {
+        if(instanceFields == null || instanceFields.trim().length() == 0) {
+            return null;
+        }
+        if(DebugRule.ANY.equals(instanceFields.trim())) {
+            return new String[]{Debug.DEBUG_ALL_FIELDS_CONSTANT};
+        }
+        List<String> fields = new ArrayList<String>();
+        for(String field: instanceFields.split(",")) {
+            if(field.trim().length() > 0) {
+                fields.add(field.trim());
+            }
+        }
+        return fields.toArray(new String[fields.size()]);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.core.rules;
+
+/**
+ * JMX interface of {@link DebugRules}.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public interface DebugRulesMBean {
+
+    /**
+     * @return registered rules (<code>classPattern#methodPattern</code>)
+     */
+    String[] getRules();
+
+    /**
+     * Add rule.
+     *
+     * @param classPattern class name pattern
+     * @param methodPattern method name pattern
+     * @param instanceFields comma separated field names, empty for annotated fields, <code>*</code> for all fields
+     * @param debugOnce
+     */
+    void addRule(String classPattern, String methodPattern, String instanceFields, boolean debugOnce);
+
+    /**
+     * Remove all rules with given patterns.
+     *
+     * @param classPattern
+     * @param methodPattern
+     * @return <code>true</code> if some rule was removed
+     */
+    boolean removeRule(String classPattern, String methodPattern);
+
+    void clear();
+}
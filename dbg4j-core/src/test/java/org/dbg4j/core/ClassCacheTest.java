@@ -0,0 +1,33 @@
+package org.dbg4j.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClassCacheTest {
+
+    @Test
+    public void testGet() throws Exception {
+        final AtomicInteger computed = new AtomicInteger();
+        ClassCache<String> cache = new ClassCache<String>() {
+            @Nonnull
+            @Override
+            protected String compute(@Nonnull Class clz) {
+                computed.incrementAndGet();
+                return clz.getSimpleName();
+            }
+        };
+
+        assertEquals("String", cache.get(String.class));
+        assertEquals("String", cache.get(String.class));
+        assertEquals(1, computed.get());
+
+        assertEquals("Integer", cache.get(Integer.class));
+        assertEquals(2, computed.get());
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,79 @@
+package org.dbg4j.core.adapters;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import org.junit.Test;
+
+import org.dbg4j.core.adapters.impl.DefaultEvaluationAdapter;
+import org.dbg4j.core.annotations.Adapter;
+import org.dbg4j.core.annotations.Debug;
+import org.dbg4j.core.annotations.Ignore;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DebugDescriptorTest {
+
+    @Test
+    public void testForMethod() throws Exception {
+        Method method = TestClass.class.getDeclaredMethod("method", int.class, String.class, Object.class);
+        Debug debug = method.getAnnotation(Debug.class);
+
+        DebugDescriptor descriptor = DebugDescriptor.forMethod(method, debug);
+        assertSame(descriptor, DebugDescriptor.forMethod(method, debug));
+        assertEquals("String method(int, String, Object)", descriptor.getSignature());
+        assertEquals(3, descriptor.getParameterTypes().length);
+        assertFalse(descriptor.isIgnored(0));
+        assertTrue(descriptor.isIgnored(1));
+        assertNull(descriptor.getArgumentAdapter(0));
+        assertNull(descriptor.getArgumentAdapter(1));
+        assertTrue(descriptor.getArgumentAdapter(2) instanceof DefaultEvaluationAdapter);
+        assertTrue(descriptor.getResultAdapter() instanceof DefaultEvaluationAdapter);
+        assertFalse(descriptor.isVoid());
+        assertTrue(descriptor.isDebugOnce());
+        assertFalse(descriptor.isDeferEvaluation());
+
+        Debug other = mock(Debug.class);
+        DebugDescriptor otherDescriptor = DebugDescriptor.forMethod(method, other);
+        assertNotSame(descriptor, otherDescriptor);
+        assertSame(other, otherDescriptor.getDebugAnnotation());
+        descriptor = DebugDescriptor.forMethod(method, debug);
+        assertSame(debug, descriptor.getDebugAnnotation());
+        assertSame(descriptor, DebugDescriptor.forMethod(method, debug));
+
+        DebugDescriptor empty = DebugDescriptor.forMethod(null, other);
+        assertNull(empty.getSignature());
+        assertEquals(0, empty.getParameterTypes().length);
+        assertTrue(empty.isVoid());
+    }
+
+    @Test
+    public void testGetFields() throws Exception {
+        Method method = TestClass.class.getDeclaredMethod("method", int.class, String.class, Object.class);
+        DebugDescriptor descriptor = DebugDescriptor.forMethod(method, method.getAnnotation(Debug.class));
+
+        Collection<Field> fields = descriptor.getFields(new TestClass());
+        assertEquals(1, fields.size());
+        assertEquals("field", fields.iterator().next().getName());
+        assertSame(fields, descriptor.getFields(new TestClass()));
+        assertTrue(descriptor.getFields(null).isEmpty());
+
+        Debug debug = mock(Debug.class);
+        doReturn(new String[]{Debug.DEBUG_SKIP_FIELDS_CONSTANT}).when(debug).instanceFields();
+        assertTrue(DebugDescriptor.forMethod(method, debug).getFields(new TestClass()).isEmpty());
+    }
+
+    private static class TestClass {
+        @Debug
+        private int field = 1;
+        private int other = 2;
+
+        @Debug(debugOnce = true)
+        @Adapter
+        public String method(int i, @Ignore String s, @Adapter Object o) {
+            return s;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.dbg4j.core.adapters.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.dbg4j.core.adapters.EvaluationAdapter;
+
+import static org.junit.Assert.assertEquals;
+
+public class BoundedEvaluationAdapterTest {
+
+    @Test
+    public void testEvaluate() throws Exception {
+        EvaluationAdapter adapter = new BoundedEvaluationAdapter();
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("a", 1);
+        map.put("b", Arrays.asList("x", "y"));
+
+        assertEquals("null", adapter.evaluate(Object.class, null));
+        assertEquals("123", adapter.evaluate(Object.class, 123));
+        assertEquals("Test", adapter.evaluate(Object.class, "Test"));
+        assertEquals(Arrays.asList(1, 2, 3).toString(), adapter.evaluate(List.class, Arrays.asList(1, 2, 3)));
+        assertEquals(map.toString(), adapter.evaluate(Map.class, map));
+        assertEquals("[1, 2]", adapter.evaluate(int[].class, new int[]{1, 2}));
+        assertEquals("[a, null]", adapter.evaluate(Object[].class, new Object[]{"a", null}));
+    }
+
+    @Test
+    public void testLimits() throws Exception {
+        EvaluationAdapter adapter = new BoundedEvaluationAdapter(10, 3, 2, 4);
+        List<Integer> list = new ArrayList<Integer>();
+        for(int i = 0; i < 50000; i++) {
+            list.add(i);
+        }
+
+        assertEquals("0123456789...", adapter.evaluate(String.class, "0123456789ABCDEF"));
+        assertEquals("[0, 1, 2, ...", adapter.evaluate(List.class, list));
+        assertEquals("[[[...]]]", adapter.evaluate(List.class,
+                Collections.singletonList(Collections.singletonList(Collections.singletonList(1)))));
+        assertEquals("[1, 2, 3, ...", adapter.evaluate(byte[].class, new byte[]{1, 2, 3, 4, 5}));
+
+        adapter = new BoundedEvaluationAdapter(100, 3, 2, 2);
+        assertEquals("[0, 1, 2, ...(50000 total)]", adapter.evaluate(List.class, list));
+        assertEquals("[1, 2, ...(5 total)]", adapter.evaluate(byte[].class, new byte[]{1, 2, 3, 4, 5}));
+        assertEquals("[1, ...(2 total)]", adapter.evaluate(short[].class, new short[]{1, 2}));
+    }
+}
@@ -3,6 +3,8 @@
 package org.dbg4j.core.adapters.impl;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.After;
@@ -10,11 +12,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import org.dbg4j.core.CustomEvaluationAdapter;
+import org.dbg4j.core.adapters.DebugDescriptor;
 import org.dbg4j.core.adapters.MethodInvocationPoint;
 import org.dbg4j.core.annotations.Adapter;
 import org.dbg4j.core.annotations.Debug;
 import org.dbg4j.core.annotations.Ignore;
 import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.DeferredValue;
 import org.dbg4j.core.context.ContextListener;
 import org.dbg4j.core.context.DebugContext;
 
@@ -49,7 +53,7 @@ public class DefaultDebuggingAdapterTest {
         spied.debug(methodInvocationPoint);
 
         verify(methodInvocationPoint, times(1)).invoke();
-        verify(spied, never()).createMainData(methodInvocationPoint);
+        verify(spied, never()).createMainData(eq(methodInvocationPoint), any(DebugDescriptor.class));
     }
 
     @Test
@@ -61,9 +65,11 @@ public class DefaultDebuggingAdapterTest {
         DebugData debugData = new DebugData();
 
         doReturn(debug).when(methodInvocationPoint).getDebugAnnotation();
-        doReturn(debugData).when(spied).createMainData(methodInvocationPoint);
-        doNothing().when(spied).appendArgumentsInfo(debugData, methodInvocationPoint);
-        doNothing().when(spied).appendInstanceFieldsInfo(debugData, methodInvocationPoint);
+        doReturn(debugData).when(spied).createMainData(eq(methodInvocationPoint), any(DebugDescriptor.class));
+        doNothing().when(spied).appendArgumentsInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class));
+        doNothing().when(spied).appendInstanceFieldsInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class));
         doNothing().when(spied).appendStackTraceInfo(debugData);
         doThrow(e).when(methodInvocationPoint).invoke();
 
@@ -73,12 +79,14 @@ public class DefaultDebuggingAdapterTest {
         } catch (NullPointerException expected) {}
 
         verify(methodInvocationPoint, times(1)).invoke();
-        verify(spied, times(1)).createMainData(any(MethodInvocationPoint.class));
-        verify(spied, times(1)).appendArgumentsInfo(any(DebugData.class), any(MethodInvocationPoint.class));
-        verify(spied, times(1)).appendInstanceFieldsInfo(any(DebugData.class), any(MethodInvocationPoint.class));
+        verify(spied, times(1)).createMainData(any(MethodInvocationPoint.class), any(DebugDescriptor.class));
+        verify(spied, times(1)).appendArgumentsInfo(any(DebugData.class), any(MethodInvocationPoint.class),
+                any(DebugDescriptor.class));
+        verify(spied, times(1)).appendInstanceFieldsInfo(any(DebugData.class), any(MethodInvocationPoint.class),
+                any(DebugDescriptor.class));
         verify(spied, times(1)).appendStackTraceInfo(any(DebugData.class));
         verify(spied, never()).appendResultInfo(any(DebugData.class), any(MethodInvocationPoint.class),
-                any(Object.class));
+                any(DebugDescriptor.class), any(Object.class));
 
         //even if method invocation has thrown an exception, debug data should be collected
         assertEquals(1, testListener.getNotified());
@@ -93,22 +101,29 @@ public class DefaultDebuggingAdapterTest {
         DebugData debugData = new DebugData();
 
         doReturn(debug).when(methodInvocationPoint).getDebugAnnotation();
-        doReturn(debugData).when(spied).createMainData(methodInvocationPoint);
-        doNothing().when(spied).appendArgumentsInfo(debugData, methodInvocationPoint);
-        doNothing().when(spied).appendInstanceFieldsInfo(debugData, methodInvocationPoint);
+        doReturn(debugData).when(spied).createMainData(eq(methodInvocationPoint), any(DebugDescriptor.class));
+        doNothing().when(spied).appendArgumentsInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class));
+        doNothing().when(spied).appendInstanceFieldsInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class));
         doNothing().when(spied).appendStackTraceInfo(debugData);
         doReturn(result).when(methodInvocationPoint).invoke();
-        doNothing().when(spied).appendResultInfo(debugData, methodInvocationPoint, result);
+        doNothing().when(spied).appendResultInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class), eq(result));
 
         spied.debug(methodInvocationPoint);
 
         verify(methodInvocationPoint, times(1)).invoke();
-        verify(spied, times(1)).createMainData(any(MethodInvocationPoint.class));
-        verify(spied, times(1)).appendArgumentsInfo(any(DebugData.class), any(MethodInvocationPoint.class));
-        verify(spied, times(1)).appendInstanceFieldsInfo(any(DebugData.class), any(MethodInvocationPoint.class));
+        verify(spied, times(1)).createMainData(any(MethodInvocationPoint.class), any(DebugDescriptor.class));
+        verify(spied, times(1)).appendArgumentsInfo(any(DebugData.class), any(MethodInvocationPoint.class),
+                any(DebugDescriptor.class));
+        verify(spied, times(1)).appendInstanceFieldsInfo(any(DebugData.class), any(MethodInvocationPoint.class),
+                any(DebugDescriptor.class));
         verify(spied, times(1)).appendStackTraceInfo(any(DebugData.class));
         verify(spied, times(1)).appendResultInfo(any(DebugData.class), any(MethodInvocationPoint.class),
-                eq(result));
+                any(DebugDescriptor.class), eq(result));
+        //descriptor is resolved once per call
+        verify(spied, times(1)).getDescriptor(methodInvocationPoint);
 
         //even if method invocation has thrown an exception, debug data should be collected
         assertEquals(1, testListener.getNotified());
@@ -128,12 +143,15 @@ public class DefaultDebuggingAdapterTest {
         DefaultDebuggingAdapter spied = spy(adapter);
 
         doReturn(debug).when(methodInvocationPoint).getDebugAnnotation();
-        doReturn(debugData).when(spied).createMainData(methodInvocationPoint);
-        doNothing().when(spied).appendArgumentsInfo(debugData, methodInvocationPoint);
-        doNothing().when(spied).appendInstanceFieldsInfo(debugData, methodInvocationPoint);
+        doReturn(debugData).when(spied).createMainData(eq(methodInvocationPoint), any(DebugDescriptor.class));
+        doNothing().when(spied).appendArgumentsInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class));
+        doNothing().when(spied).appendInstanceFieldsInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class));
         doNothing().when(spied).appendStackTraceInfo(debugData);
         doReturn(result).when(methodInvocationPoint).invoke();
-        doNothing().when(spied).appendResultInfo(debugData, methodInvocationPoint, result);
+        doNothing().when(spied).appendResultInfo(eq(debugData), eq(methodInvocationPoint),
+                any(DebugDescriptor.class), eq(result));
         doReturn(true).when(debug).debugOnce();
 
         spied.debug(methodInvocationPoint);
@@ -312,6 +330,24 @@ public class DefaultDebuggingAdapterTest {
         assertEquals("125", dd.get("Result"));
     }
 
+    @Test
+    public void testAppendResultInfo_deferred() throws Throwable {
+        DebugData dd = new DebugData();
+        List<String> result = new ArrayList<String>(Arrays.asList("a"));
+
+        doReturn(debug).when(methodInvocationPoint).getDebugAnnotation();
+        doReturn(true).when(debug).deferEvaluation();
+        doReturn(TestClass.class.getDeclaredMethod("method_2")).when(methodInvocationPoint).getMethod();
+
+        adapter.appendResultInfo(dd, methodInvocationPoint, result);
+        result.add("b");
+
+        assertTrue(dd.get("Result") instanceof DeferredValue);
+        assertFalse(((DeferredValue) dd.get("Result")).isEvaluated());
+        assertEquals("[a]", dd.get("Result").toString());
+        assertEquals("{\"Result\":\"[a]\"}", dd.toString());
+    }
+
     @Test
     public void testAppendResultInfo_custom() throws Throwable {
         DebugData dd = new DebugData();
@@ -323,6 +359,18 @@ public class DefaultDebuggingAdapterTest {
         assertNotNull(dd.get("Result"));
         assertEquals(CustomEvaluationAdapter.VALUE, dd.get("Result"));
     }
+
+    @Test
+    public void testAppendResultInfo_structured() throws Throwable {
+        DebugData dd = new DebugData();
+
+        doReturn(TestClass.class.getDeclaredMethod("method_4")).when(methodInvocationPoint).getMethod();
+
+        adapter.appendResultInfo(dd, methodInvocationPoint, Arrays.asList("a"));
+
+        assertEquals(Arrays.asList("a"), dd.get("Result"));
+        assertEquals("{\"Result\":[\"a\"]}", dd.toString());
+    }
 }
 
 class TestListener implements ContextListener {
@@ -369,4 +417,9 @@ class TestClass {
     private int method_3() {
         return 33;
     }
+
+    @Adapter(value = StructuredEvaluationAdapter.class)
+    private List<String> method_4() {
+        return null;
+    }
 }
\ No newline at end of file
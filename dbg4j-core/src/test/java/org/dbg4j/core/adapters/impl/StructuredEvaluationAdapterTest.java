@@ -0,0 +1,107 @@
+package org.dbg4j.core.adapters.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import org.dbg4j.core.CustomEvaluationAdapter;
+import org.dbg4j.core.annotations.Adapter;
+import org.dbg4j.core.annotations.Ignore;
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+
+public class StructuredEvaluationAdapterTest {
+
+    @Test
+    public void testEvaluateStructured() throws Exception {
+        StructuredEvaluationAdapter adapter = new StructuredEvaluationAdapter();
+        User user = new User("john", new Address("Kyiv"));
+        user.friends.add(new User("jane", null));
+
+        assertEquals("null", adapter.evaluateStructured(Object.class, null));
+        assertEquals("123", adapter.evaluateStructured(Integer.class, 123));
+        assertEquals("Test", adapter.evaluateStructured(String.class, "Test"));
+
+        DebugData data = (DebugData) adapter.evaluateStructured(User.class, user);
+        assertEquals("john", data.get("name"));
+        assertEquals(30, data.get("age"));
+        assertFalse(data.getAll().containsKey("password"));
+        assertEquals(CustomEvaluationAdapter.VALUE, data.get("custom"));
+        assertEquals("Address in Kyiv", data.get("address"));
+        List<?> friends = (List<?>) data.get("friends");
+        assertEquals(1, friends.size());
+        assertEquals("jane", ((DebugData) friends.get(0)).get("name"));
+        assertTrue(((DebugData) friends.get(0)).getAll().containsKey("address"));
+        assertNull(((DebugData) friends.get(0)).get("address"));
+
+        JSONObject json = new JSONObject(adapter.evaluate(User.class, user));
+        assertEquals("jane", json.getJSONArray("friends").getJSONObject(0).getString("name"));
+    }
+
+    @Test
+    public void testLimits() throws Exception {
+        StructuredEvaluationAdapter adapter = new StructuredEvaluationAdapter(100, 2, 3, 100, 100);
+        User user = new User("john", null);
+        user.friends.add(user);
+        user.friends.add(new User("jane", null));
+        user.friends.add(new User("jack", null));
+
+        DebugData data = (DebugData) adapter.evaluateStructured(User.class, user);
+        List<?> friends = (List<?>) data.get("friends");
+        assertEquals(3, friends.size());
+        assertEquals("(cycle: User)", friends.get(0));
+        assertEquals(BoundedEvaluationAdapter.TRUNCATED, ((DebugData) friends.get(1)).get("friends"));
+        assertEquals("...(3 total)", friends.get(2));
+
+        JSONArray array = new JSONArray(adapter.evaluate(List.class, Arrays.asList(1, "a")));
+        assertEquals(1, array.getInt(0));
+        assertEquals("a", array.getString(1));
+    }
+
+    @Test
+    public void testMaxTotalLength() throws Exception {
+        StructuredEvaluationAdapter adapter = new StructuredEvaluationAdapter(100, 100, 5, 100, 100, 10);
+
+        List<?> result = (List<?>) adapter.evaluateStructured(List.class, Arrays.asList("abcdef", "ghijkl", "mnop"));
+        assertEquals(Arrays.asList("abcdef", "ghij...", "..."), result);
+
+        DebugData data = (DebugData) adapter.evaluateStructured(User.class, new User("john", null));
+        assertEquals("john", data.get("name"));
+        assertEquals(BoundedEvaluationAdapter.TRUNCATED, data.get(BoundedEvaluationAdapter.TRUNCATED));
+        assertFalse(data.getAll().containsKey("friends"));
+    }
+
+    static class User {
+        String name;
+        int age = 30;
+        @Ignore
+        String password = "secret";
+        @Adapter(CustomEvaluationAdapter.class)
+        String custom = "custom";
+        Address address;
+        List<User> friends = new ArrayList<User>();
+
+        User(String name, Address address) {
+            this.name = name;
+            this.address = address;
+        }
+    }
+
+    static class Address {
+        String city;
+
+        Address(String city) {
+            this.city = city;
+        }
+
+        @Override
+        public String toString() {
+            return "Address in " + city;
+        }
+    }
+}
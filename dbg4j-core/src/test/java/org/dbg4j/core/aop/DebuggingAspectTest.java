@@ -2,6 +2,10 @@
 
 package org.dbg4j.core.aop;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -98,6 +102,40 @@ public class DebuggingAspectTest {
         assertEquals(InterfaceImpl.class.getMethod("doSomething"), aspect.getMethod(pjp));
     }
 
+    @Test
+    public void testGetMethod_superclass() throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.getTarget()).thenReturn(new InterfaceImplSubclass());
+        when(signature.getMethod()).thenReturn(Interface.class.getMethod("doSomething"));
+
+        assertEquals(InterfaceImpl.class.getMethod("doSomething"), aspect.getMethod(pjp));
+        assertSame(aspect.getMethod(pjp), aspect.getMethod(pjp));
+    }
+
+    @Test
+    public void testGetMethod_notFound() throws Throwable {
+        Interface proxy = (Interface) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{Interface.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                return null;
+            }
+        });
+        MethodSignature signature = mock(MethodSignature.class);
+
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.getTarget()).thenReturn(proxy);
+        when(signature.getMethod()).thenReturn(Interface.class.getMethod("doSomething"));
+
+        assertEquals(proxy.getClass().getDeclaredMethod("doSomething"), aspect.getMethod(pjp));
+
+        when(pjp.getTarget()).thenReturn(new Object());
+        assertEquals(Interface.class.getMethod("doSomething"), aspect.getMethod(pjp));
+        assertEquals(Interface.class.getMethod("doSomething"), aspect.getMethod(pjp));
+    }
+
     @Test
     public void testGetDebugger() throws Throwable {
 
@@ -120,6 +158,9 @@ interface Interface {
     void doSomething();
 }
 
+class InterfaceImplSubclass extends InterfaceImpl {
+}
+
 class InterfaceImpl implements Interface {
 
     @Override
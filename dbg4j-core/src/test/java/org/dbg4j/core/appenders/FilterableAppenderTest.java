@@ -8,6 +8,7 @@ import java.util.Collection;
 import org.junit.Test;
 
 import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.MethodDebugData;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -53,4 +54,42 @@ public class FilterableAppenderTest {
         verify(filter2, times(1)).filter(any(DebugData.class));
         verify(filter3, times(1)).filter(any(DebugData.class));
     }
+
+    @Test
+    public void testWrite_frozenRecord() throws Exception {
+        final DebugData[] written = new DebugData[1];
+        FilterableAppender appender = new FilterableAppender() {
+            @Override
+            protected void doWrite(Collection<DebugData> datas, Object... params) {
+                written[0] = datas.iterator().next();
+            }
+        };
+        appender.addFilter(new ContentFilter() {
+            @Override
+            public DebugData filter(DebugData data) {
+                data.set("secret", "*hidden*");
+                return data;
+            }
+        });
+
+        DebugData dd = new DebugData("secret", "password");
+        dd.freeze();
+
+        appender.write(Arrays.asList(dd));
+
+        assertEquals("password", dd.get("secret"));
+        assertNotSame(dd, written[0]);
+        assertEquals("*hidden*", written[0].get("secret"));
+
+        MethodDebugData method = new MethodDebugData();
+        method.set(MethodDebugData.METHOD, "void test()");
+        method.freeze();
+
+        appender.write(Arrays.<DebugData>asList(method));
+
+        assertEquals(MethodDebugData.class, written[0].getClass());
+        assertEquals("void test()", written[0].get(MethodDebugData.METHOD));
+        assertEquals("*hidden*", written[0].get("secret"));
+        assertNull(method.get("secret"));
+    }
 }
@@ -0,0 +1,101 @@
+package org.dbg4j.core.beans;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DebugDataTest {
+
+    @Test
+    public void testSetAndGet() throws Exception {
+        DebugData dd = new DebugData("key1", "val1");
+        dd.set("key2", "val2");
+        dd.set("key1", "val1.1");
+
+        assertEquals("val1.1", dd.get("key1"));
+        assertEquals("val2", dd.get("key2"));
+        assertNull(dd.get("key3"));
+        assertEquals(2, dd.getAll().size());
+
+        dd.remove("key1");
+        assertNull(dd.get("key1"));
+        assertEquals(1, dd.getAll().size());
+        assertFalse(dd.getAll().containsKey("key1"));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        DebugData original = new DebugData();
+        original.set("key1", "val1");
+        original.set("key2", "val2");
+
+        DebugData copy = new DebugData(original);
+        copy.set("key1", "changed");
+        copy.remove("key2");
+        original.set("key3", "val3");
+
+        assertEquals("val1", original.get("key1"));
+        assertEquals("val2", original.get("key2"));
+        assertEquals("val3", original.get("key3"));
+        assertEquals("changed", copy.get("key1"));
+        assertNull(copy.get("key2"));
+        assertNull(copy.get("key3"));
+        assertEquals(1, copy.getAll().size());
+
+        DebugData empty = new DebugData((DebugData) null);
+        assertEquals(0, empty.getAll().size());
+    }
+
+    @Test
+    public void testFreeze() throws Exception {
+        DebugData nested = new DebugData("nestedKey", "nestedVal");
+        List<DebugData> list = Arrays.asList(new DebugData("listKey", "listVal"));
+        DebugData dd = new DebugData();
+        dd.set("nested", nested);
+        dd.set("list", list);
+
+        dd.freeze();
+
+        assertTrue(dd.isFrozen());
+        assertTrue(nested.isFrozen());
+        assertTrue(list.get(0).isFrozen());
+        try {
+            dd.set("key", "val");
+            fail("IllegalStateException should be thrown");
+        } catch (IllegalStateException expected) {}
+        try {
+            dd.remove("nested");
+            fail("IllegalStateException should be thrown");
+        } catch (IllegalStateException expected) {}
+
+        DebugData copy = new DebugData(dd);
+        assertFalse(copy.isFrozen());
+        copy.set("key", "val");
+        assertEquals("val", copy.get("key"));
+        assertSame(nested, copy.get("nested"));
+        assertNull(dd.get("key"));
+    }
+
+    @Test
+    public void testToString() throws Exception {
+        assertEquals("{}", new DebugData().toString());
+
+        DebugData dd = new DebugData("key1", "val1");
+        dd.set("key2", "val2");
+        dd.remove("key1");
+
+        JSONObject json = new JSONObject(dd.toString());
+        assertEquals(1, json.length());
+        assertEquals("val2", json.getString("key2"));
+
+        dd.set("nested", new DebugData("key3", "val3"));
+        dd.set("list", Arrays.asList(new DebugData("key4", "val4")));
+        json = new JSONObject(dd.toString());
+        assertEquals("val3", json.getJSONObject("nested").getString("key3"));
+        assertEquals("val4", json.getJSONArray("list").getJSONObject(0).getString("key4"));
+    }
+}
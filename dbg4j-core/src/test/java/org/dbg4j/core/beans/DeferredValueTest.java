@@ -0,0 +1,53 @@
+package org.dbg4j.core.beans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.dbg4j.core.adapters.EvaluationAdapter;
+import org.dbg4j.core.adapters.impl.BoundedEvaluationAdapter;
+import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
+import org.dbg4j.core.adapters.impl.DefaultEvaluationAdapter;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DeferredValueTest {
+
+    @Test
+    public void testSnapshot() throws Exception {
+        int[] array = {1, 2};
+        StringBuilder element = new StringBuilder("x");
+        List<Object> list = new ArrayList<Object>(Arrays.asList(element));
+
+        DeferredValue arrayValue = new DeferredValue(BoundedEvaluationAdapter.DEFAULT, int[].class, array);
+        DeferredValue listValue = new DeferredValue(new DefaultEvaluationAdapter(), List.class, list);
+        array[0] = 100;
+        list.add("y");
+        element.append("z");
+
+        assertFalse(listValue.isEvaluated());
+        assertEquals("[1, 2]", arrayValue.toString());
+        assertEquals("\"[1, 2]\"", arrayValue.toJSONString());
+        //structural changes are not visible, changes of elements are
+        assertEquals("[xz]", listValue.toString());
+        assertTrue(listValue.isEvaluated());
+    }
+
+    @Test
+    public void testEvaluatedOnce() throws Exception {
+        EvaluationAdapter adapter = mock(EvaluationAdapter.class);
+        when(adapter.evaluate(String.class, "value")).thenReturn("evaluated");
+
+        DeferredValue value = new DeferredValue(adapter, String.class, "value");
+        verify(adapter, never()).evaluate(any(Class.class), any());
+
+        assertEquals("evaluated", value.toString());
+        assertEquals("evaluated", value.toString());
+        verify(adapter, times(1)).evaluate(String.class, "value");
+
+        when(adapter.evaluate(String.class, "error")).thenThrow(new RuntimeException());
+        assertEquals(DefaultDebuggingAdapter.UNKNOWN_VALUE, new DeferredValue(adapter, String.class, "error").toString());
+    }
+}
@@ -0,0 +1,87 @@
+package org.dbg4j.core.beans;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MethodDebugDataTest {
+
+    @Test
+    public void testSetAndGet() throws Exception {
+        MethodDebugData dd = new MethodDebugData();
+        dd.set(MethodDebugData.CLASS, "MyClass");
+        dd.set(new String("Method"), "void method()");
+        dd.set("Custom", "customValue");
+
+        assertEquals("MyClass", dd.get("Class"));
+        assertEquals("void method()", dd.get(MethodDebugData.METHOD));
+        assertEquals("customValue", dd.get("Custom"));
+        assertNull(dd.get(MethodDebugData.RESULT));
+
+        Map<String, Object> all = dd.getAll();
+        assertEquals(3, all.size());
+        assertEquals("MyClass", all.get("Class"));
+        assertEquals("customValue", all.get("Custom"));
+
+        dd.remove(MethodDebugData.CLASS);
+        dd.remove("Custom");
+        assertNull(dd.get(MethodDebugData.CLASS));
+        assertEquals(1, dd.getAll().size());
+    }
+
+    @Test
+    public void testFreezeAndCopy() throws Exception {
+        DebugData argument = new DebugData("int", "1");
+        MethodDebugData dd = new MethodDebugData();
+        dd.set(MethodDebugData.ARGUMENTS, Arrays.asList(argument));
+        dd.set(MethodDebugData.RESULT, "result");
+        dd.set("Custom", "customValue");
+        dd.freeze();
+
+        assertTrue(argument.isFrozen());
+        try {
+            dd.set(MethodDebugData.RESULT, "changed");
+            fail("IllegalStateException should be thrown");
+        } catch (IllegalStateException expected) {}
+
+        MethodDebugData copy = new MethodDebugData(dd);
+        copy.set(MethodDebugData.RESULT, "changed");
+        assertEquals("result", dd.get(MethodDebugData.RESULT));
+        assertEquals("changed", copy.get(MethodDebugData.RESULT));
+        assertEquals("customValue", copy.get("Custom"));
+
+        DebugData typedCopy = dd.copy();
+        assertEquals(MethodDebugData.class, typedCopy.getClass());
+        assertFalse(typedCopy.isFrozen());
+        assertEquals("result", typedCopy.get(MethodDebugData.RESULT));
+
+        DebugData plainCopy = new DebugData(dd);
+        plainCopy.remove(MethodDebugData.ARGUMENTS);
+        assertEquals("result", plainCopy.get(MethodDebugData.RESULT));
+        assertEquals("customValue", plainCopy.get("Custom"));
+        assertNull(plainCopy.get(MethodDebugData.ARGUMENTS));
+        assertNotNull(dd.get(MethodDebugData.ARGUMENTS));
+    }
+
+    @Test
+    public void testToString() throws Exception {
+        MethodDebugData dd = new MethodDebugData();
+        dd.set(MethodDebugData.TYPE, "METHOD");
+        dd.set(MethodDebugData.ARGUMENTS, Arrays.asList(new DebugData("int", "1")));
+        dd.set("Custom", "customValue");
+
+        JSONObject json = new JSONObject(dd.toString());
+        assertEquals(3, json.length());
+        assertEquals("METHOD", json.getString("Type"));
+        assertEquals("customValue", json.getString("Custom"));
+        JSONArray arguments = json.getJSONArray("Arguments");
+        assertEquals(1, arguments.length());
+
+        assertEquals(new JSONObject(new DebugData(dd).toString()).toString(), json.toString());
+    }
+}
@@ -0,0 +1,80 @@
+package org.dbg4j.core.beans;
+
+import java.util.Arrays;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.context.DebugContext;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StackFramePolicyTest {
+
+    @Test
+    public void testApply() throws Exception {
+        StackFramePolicy policy = new StackFramePolicy(Arrays.asList("org.aspectj.", "*$$EnhancerBy"),
+                Arrays.asList("org.apache.catalina."));
+        StackTraceElement[] frames = {
+                frame("com.example.Service"),
+                frame("org.aspectj.runtime.reflect.JoinPointImpl"),
+                frame("com.example.Service$$EnhancerByCGLIB$$12345"),
+                frame("com.example.Controller"),
+                frame("org.apache.catalina.core.ApplicationFilterChain"),
+                frame("org.aspectj.runtime.Something"),
+                frame("org.apache.catalina.core.StandardWrapperValve"),
+                frame("org.apache.catalina.core.StandardEngineValve"),
+                frame("java.lang.Thread")
+        };
+
+        StackTraceElement[] result = policy.apply(frames);
+
+        assertArrayEquals(new StackTraceElement[]{frames[0], frames[3], frames[4], frames[8]}, result);
+        assertSame(frames, StackFramePolicy.NONE.apply(frames));
+    }
+
+    @Test
+    public void testDefaultCollapsed_matchesExactClass() throws Exception {
+        StackFramePolicy policy = StackFramePolicy.DEFAULT;
+
+        assertTrue(policy.isCollapsed(frame("java.lang.Thread")));
+        assertTrue(policy.isCollapsed(frame("java.util.concurrent.ThreadPoolExecutor$Worker")));
+        assertTrue(policy.isCollapsed(frame("org.apache.catalina.core.ApplicationFilterChain")));
+        assertFalse(policy.isCollapsed(frame("java.lang.ThreadLocal")));
+        assertFalse(policy.isCollapsed(frame("java.lang.ThreadGroup")));
+        assertFalse(policy.isExcluded(frame("org.dbg4j.core.DebugUtilsTest")));
+    }
+
+    @Test
+    public void testDefaultExcluded_modules() throws Exception {
+        StackFramePolicy policy = StackFramePolicy.DEFAULT;
+
+        assertTrue(policy.isExcluded(frame("org.dbg4j.rest.DebugJerseyFilter")));
+        assertTrue(policy.isExcluded(frame("org.dbg4j.jaxrs.DebugClientFilter")));
+        assertTrue(policy.isExcluded(frame("org.dbg4j.httpclient.DebugHttpClient$AsyncCall")));
+        assertTrue(policy.isExcluded(frame("org.dbg4j.jdbc.StatementHandler")));
+        assertTrue(policy.isExcluded(frame("com.sun.proxy.$Proxy12")));
+        assertTrue(policy.isExcluded(frame("jdk.proxy2.$Proxy12")));
+        assertFalse(policy.isExcluded(frame("com.example.ProxyService")));
+    }
+
+    @Test
+    public void testGetStackTrace() throws Exception {
+        Exception e = new Exception();
+        e.setStackTrace(new StackTraceElement[]{frame("org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter"),
+                frame("com.example.Service")});
+        try {
+            String stackTrace = DebugUtils.getStackTrace(e).toString();
+            assertFalse(stackTrace.contains("DefaultDebuggingAdapter"));
+            assertTrue(stackTrace.contains("com.example.Service"));
+
+            DebugContext.setStackFramePolicy(null);
+            assertTrue(DebugUtils.getStackTrace(e).toString().contains("DefaultDebuggingAdapter"));
+        } finally {
+            DebugContext.setStackFramePolicy(StackFramePolicy.DEFAULT);
+        }
+    }
+
+    private static StackTraceElement frame(String className) {
+        return new StackTraceElement(className, "method", "File.java", 1);
+    }
+}
@@ -0,0 +1,59 @@
+package org.dbg4j.core.beans;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StackFrameTableTest {
+
+    @Test
+    public void testIntern() throws Exception {
+        StackFrameTable table = new StackFrameTable();
+        Exception[] exceptions = create();
+        Exception first = exceptions[0];
+        Exception second = exceptions[1];
+
+        StackTrace firstTrace = table.intern(first);
+        int size = table.size();
+        StackTrace secondTrace = table.intern(second);
+
+        assertEquals(ExceptionUtils.getStackTrace(first), firstTrace.toString());
+        assertEquals(ExceptionUtils.getStackTrace(second), secondTrace.toString());
+        assertEquals(first.getStackTrace().length, firstTrace.getDepth());
+        //only frames below the common part are added
+        assertEquals(size + 2, table.size());
+        assertEquals(firstTrace.getNode(), table.getParent(table.getParent(secondTrace.getNode())));
+
+        assertEquals(firstTrace, table.intern(first));
+        assertEquals(size + 2, table.size());
+        assertNull(table.intern(new Exception(first)));
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        Exception e = new Exception();
+        StackTraceElement[] frames = e.getStackTrace();
+        StackFrameTable table = new StackFrameTable(frames.length - 1);
+
+        assertNull(table.intern(e));
+        assertEquals(frames.length - 1, table.size());
+        //all frames except the innermost one are already there
+        assertNotNull(table.intern("header", Arrays.copyOfRange(frames, 1, frames.length)));
+        assertNull(table.intern("header", new StackTraceElement[]{frames[0]}));
+    }
+
+    private static Exception[] create() {
+        return new Exception[]{new Exception("first"), nested()};
+    }
+
+    private static Exception nested() {
+        return nestedAgain();
+    }
+
+    private static Exception nestedAgain() {
+        return new Exception("second");
+    }
+}
@@ -0,0 +1,72 @@
+package org.dbg4j.core.context;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+
+public class AsyncCallTest {
+
+    @After
+    public void tearDown() {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testSubmit_noContext() throws Exception {
+        assertNull(AsyncCall.submit(new DebugData()));
+    }
+
+    @Test
+    public void testSubmitAndComplete() throws Exception {
+        DebugContext context = DebugContext.init(null);
+        DebugData record = new DebugData("Url", "http://localhost");
+
+        final AsyncCall call = AsyncCall.submit(record);
+
+        assertNotNull(call);
+        assertSame(context, call.getContext());
+        assertEquals(1, context.getDebugData().size());
+        JSONObject response = new JSONObject(record.toString()).getJSONObject(AsyncCall.RESPONSE);
+        assertTrue(response.getBoolean("Pending"));
+
+        Thread callback = new Thread() {
+            @Override
+            public void run() {
+                call.set("ResponseCode", 200);
+                call.complete();
+            }
+        };
+        callback.start();
+        callback.join();
+
+        assertTrue(call.isCompleted());
+        assertFalse(call.complete());
+        call.set("ResponseCode", 500);
+        response = new JSONObject(record.toString()).getJSONObject(AsyncCall.RESPONSE);
+        assertEquals(200, response.getInt("ResponseCode"));
+        assertFalse(response.has("Pending"));
+        assertTrue(response.getDouble("Duration") >= 0);
+    }
+
+    @Test
+    public void testFail() throws Exception {
+        DebugContext context = DebugContext.init(null);
+        DebugContext.commit();
+
+        DebugData record = new DebugData();
+        AsyncCall call = AsyncCall.submit(context, record, System.nanoTime());
+        assertTrue(call.fail(new RuntimeException("failed")));
+
+        assertEquals(1, context.getDebugData().size());
+        String error = new JSONObject(call.toString()).getString("Error");
+        assertTrue(error.startsWith("java.lang.RuntimeException: failed"));
+        assertEquals(error.indexOf("java.lang.RuntimeException"), error.lastIndexOf("java.lang.RuntimeException"));
+
+        context.close();
+        assertNull(AsyncCall.submit(context, new DebugData(), System.nanoTime()));
+    }
+}
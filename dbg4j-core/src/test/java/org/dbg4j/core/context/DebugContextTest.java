@@ -117,6 +117,30 @@ public class DebugContextTest {
 
     }
 
+    @Test
+    public void testIsDebugAllowed_memoizable() throws Exception {
+        MemoizableDebugAllowanceStrategy allowanceStrategy = mock(MemoizableDebugAllowanceStrategy.class);
+        doReturn(false).doReturn(true).when(allowanceStrategy).isAllowed(any(DebugContext.class),
+                (Object[]) anyVararg());
+
+        DebugContext context = DebugContext.init(allowanceStrategy);
+        assertFalse(DebugContext.isDebugAllowed());
+        assertFalse(DebugContext.isDebugAllowed("param"));
+        verify(allowanceStrategy, times(1)).isAllowed(any(DebugContext.class), (Object[]) anyVararg());
+
+        context.addProperty("key", "value");
+        assertTrue(DebugContext.isDebugAllowed());
+        assertTrue(DebugContext.isDebugAllowed());
+        verify(allowanceStrategy, times(2)).isAllowed(any(DebugContext.class), (Object[]) anyVararg());
+
+        doReturn(false).when(allowanceStrategy).isAllowed(any(DebugContext.class), (Object[]) anyVararg());
+        context.invalidateDebugAllowance();
+        assertFalse(DebugContext.isDebugAllowed());
+        context.removeProperty("key");
+        assertFalse(DebugContext.isDebugAllowed());
+        verify(allowanceStrategy, times(4)).isAllowed(any(DebugContext.class), (Object[]) anyVararg());
+    }
+
     @Test
     public void testAddDebugRecord() throws Exception {
         DebugData dd1 = new DebugData();
@@ -133,6 +157,26 @@ public class DebugContextTest {
         assertTrue(dds.contains(dd2));
     }
 
+    @Test
+    public void testMaxRecordsAndDiscard() throws Exception {
+        ContextListener listener = mock(ContextListener.class);
+        DebugData dd1 = new DebugData();
+        DebugData dd2 = new DebugData();
+
+        DebugContext context = DebugContext.initSafe(null, listener);
+        context.setMaxRecords(1);
+        context.addDebugRecord(dd1);
+        context.addDebugRecord(dd2);
+
+        assertEquals(1, context.getDebugData().size());
+        assertTrue(context.getDebugData().contains(dd1));
+        assertEquals(1, context.getDroppedRecords());
+        verify(listener, never()).notify(DebugContext.EventType.RECORD_ADDED, context, dd2);
+
+        context.discardDebugData();
+        assertTrue(context.getDebugData().isEmpty());
+    }
+
     @Test
     public void testContains() throws Exception {
         DebugData dd1 = new DebugData();
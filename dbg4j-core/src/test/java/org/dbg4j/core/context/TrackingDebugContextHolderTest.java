@@ -0,0 +1,145 @@
+package org.dbg4j.core.context;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TrackingDebugContextHolderTest {
+
+    @After
+    public void tearDown() {
+        DebugContext.commit();
+        DebugContext.setDebugContextHolder(new DefaultDebugContextHolder());
+    }
+
+    @Test
+    public void testCommit() throws Exception {
+        TrackingDebugContextHolder holder = new TrackingDebugContextHolder(60000,
+                TrackingDebugContextHolder.ReapAction.COMMIT);
+        DebugContext.setDebugContextHolder(holder);
+
+        DebugContext.init(null);
+        assertEquals(1, holder.getLiveCount());
+        assertEquals(0, holder.reap());
+
+        DebugContext.commit();
+        assertEquals(0, holder.getLiveCount());
+        assertEquals(0, holder.getOverwrittenCount());
+    }
+
+    @Test
+    public void testReap_expired() throws Exception {
+        TrackingDebugContextHolder holder = new TrackingDebugContextHolder(-1,
+                TrackingDebugContextHolder.ReapAction.COMMIT);
+        DebugContext.setDebugContextHolder(holder);
+        ContextListener listener = mock(ContextListener.class);
+
+        DebugContext context = DebugContext.init(null, listener);
+        context.addDebugRecord(new DebugData());
+
+        assertEquals(1, holder.reap());
+
+        verify(listener, never()).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), any(DebugContext.class),
+                anyVararg());
+        assertTrue(context.isClosed());
+        assertEquals(0, holder.getCommittedCount());
+        assertEquals(1, holder.getExpiredCount());
+        assertEquals(0, holder.getLiveCount());
+        assertSame(context, DebugContext.getContext());
+
+        context.addDebugRecord(new DebugData());
+        assertEquals(1, context.getDebugData().size());
+
+        //owner commits context itself
+        DebugContext.commit();
+        verify(listener, times(1)).notify(DebugContext.EventType.CONTEXT_COMMIT, context, (Object) null);
+        assertNull(DebugContext.getContext());
+    }
+
+    @Test
+    public void testReap_expiredLiveThread() throws Exception {
+        final TrackingDebugContextHolder holder = new TrackingDebugContextHolder(-1,
+                TrackingDebugContextHolder.ReapAction.COMMIT);
+        DebugContext.setDebugContextHolder(holder);
+        final ContextListener listener = mock(ContextListener.class);
+        final DebugContext[] contexts = new DebugContext[2];
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch reaped = new CountDownLatch(1);
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                contexts[0] = DebugContext.init(null, listener);
+                contexts[0].addDebugRecord(new DebugData());
+                started.countDown();
+                try {
+                    reaped.await();
+                } catch (InterruptedException ignored) {}
+                contexts[1] = DebugContext.getContext();
+                DebugContext.commit();
+            }
+        };
+        thread.start();
+        started.await();
+
+        assertEquals(1, holder.reap());
+        verify(listener, never()).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), any(DebugContext.class),
+                anyVararg());
+        assertTrue(contexts[0].isClosed());
+        assertEquals(1, holder.getExpiredCount());
+        assertEquals(0, holder.getCommittedCount());
+        assertEquals(0, holder.reap());
+
+        reaped.countDown();
+        thread.join();
+
+        assertSame(contexts[0], contexts[1]);
+        verify(listener, times(1)).notify(DebugContext.EventType.CONTEXT_COMMIT, contexts[0], (Object) null);
+        assertEquals(1, contexts[0].getDebugData().size());
+    }
+
+    @Test
+    public void testReap_deadThread() throws Exception {
+        final TrackingDebugContextHolder holder = new TrackingDebugContextHolder(60000,
+                TrackingDebugContextHolder.ReapAction.DISCARD);
+        DebugContext.setDebugContextHolder(holder);
+        final DebugContext[] contexts = new DebugContext[1];
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                contexts[0] = DebugContext.init(null);
+                contexts[0].addDebugRecord(new DebugData());
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertEquals(1, holder.getLiveCount());
+        assertEquals(1, holder.reap());
+        assertEquals(1, holder.getDiscardedCount());
+        assertTrue(contexts[0].isClosed());
+        assertTrue(contexts[0].getDebugData().isEmpty());
+    }
+
+    @Test
+    public void testOverwritten() throws Exception {
+        TrackingDebugContextHolder holder = new TrackingDebugContextHolder(60000,
+                TrackingDebugContextHolder.ReapAction.COMMIT);
+        DebugContext.setDebugContextHolder(holder);
+
+        DebugContext first = DebugContext.init(null);
+        DebugContext second = DebugContext.init(null);
+
+        assertEquals(1, holder.getOverwrittenCount());
+        assertEquals(1, holder.getLiveCount());
+        assertTrue(first.isClosed());
+        assertSame(second, DebugContext.getContext());
+    }
+}
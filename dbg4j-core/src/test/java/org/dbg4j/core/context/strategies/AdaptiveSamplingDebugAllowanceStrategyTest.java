@@ -0,0 +1,44 @@
+package org.dbg4j.core.context.strategies;
+
+import org.junit.Test;
+
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveSamplingDebugAllowanceStrategyTest {
+
+    @Test
+    public void testUpdate() throws Exception {
+        AdaptiveSamplingDebugAllowanceStrategy strategy = new AdaptiveSamplingDebugAllowanceStrategy(10, 1, 8);
+        assertEquals(1, strategy.getRate());
+
+        for(int i = 0; i < 20; i++) {
+            strategy.update(100);
+        }
+        assertEquals(8, strategy.getRate());
+        assertTrue(strategy.getAverageOverhead() > 10);
+
+        for(int i = 0; i < 20; i++) {
+            strategy.update(0);
+        }
+        assertEquals(1, strategy.getRate());
+        assertTrue(strategy.getAverageOverhead() < 5);
+    }
+
+    @Test
+    public void testNotify() throws Exception {
+        AdaptiveSamplingDebugAllowanceStrategy strategy = spy(new AdaptiveSamplingDebugAllowanceStrategy(10));
+        DebugContext context = mock(DebugContext.class);
+        doReturn(System.nanoTime() - 1000000L).when(context).getStartTime();
+        doReturn(10000000000L).when(context).getOverhead();
+
+        strategy.notify(DebugContext.EventType.RECORD_ADDED, context);
+        verify(strategy, never()).update(anyDouble());
+
+        strategy.notify(DebugContext.EventType.CONTEXT_COMMIT, context);
+        verify(strategy, times(1)).update(anyDouble());
+        assertEquals(2, strategy.getRate());
+    }
+}
@@ -0,0 +1,57 @@
+package org.dbg4j.core.context.strategies;
+
+import org.junit.Test;
+
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RateLimitingDebugAllowanceStrategyTest {
+
+    @Test
+    public void testIsAllowed() throws Exception {
+        RateLimitingDebugAllowanceStrategy strategy = new RateLimitingDebugAllowanceStrategy(0.001, 2);
+
+        assertTrue(strategy.isAllowed(null));
+        assertTrue(strategy.isAllowed(null));
+        assertFalse(strategy.isAllowed(null));
+        assertTrue(strategy.isAllowed(mock(DebugContext.class)));
+    }
+
+    @Test
+    public void testTokenBucket() throws Exception {
+        RateLimitingDebugAllowanceStrategy.TokenBucket bucket =
+                new RateLimitingDebugAllowanceStrategy.TokenBucket(10, 2);
+        long now = System.nanoTime();
+
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now + 50000000L));
+        assertTrue(bucket.tryAcquire(now + 100000000L));
+        assertFalse(bucket.tryAcquire(now + 100000000L));
+        //bucket capacity is limited by burst
+        assertTrue(bucket.tryAcquire(now + 10000000000L));
+        assertTrue(bucket.tryAcquire(now + 10000000000L));
+        assertFalse(bucket.tryAcquire(now + 10000000000L));
+    }
+
+    @Test
+    public void testKeys() throws Exception {
+        RateLimitingDebugAllowanceStrategy strategy = new RateLimitingDebugAllowanceStrategy(0.001, 1, 2) {
+            @Override
+            protected String getKey(Object... params) {
+                return (String) params[0];
+            }
+        };
+
+        assertTrue(strategy.isAllowed(null, "a"));
+        assertFalse(strategy.isAllowed(null, "a"));
+        assertTrue(strategy.isAllowed(null, "b"));
+        //all other keys share overflow bucket
+        assertTrue(strategy.isAllowed(null, "c"));
+        assertFalse(strategy.isAllowed(null, "d"));
+        assertEquals(2, strategy.buckets.size());
+    }
+}
@@ -0,0 +1,42 @@
+package org.dbg4j.core.context.strategies;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+
+public class SamplingDebugAllowanceStrategyTest {
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testIsAllowed() throws Exception {
+        SamplingDebugAllowanceStrategy strategy = new SamplingDebugAllowanceStrategy(1);
+        assertTrue(strategy.isAllowed(null));
+
+        strategy.setRate(10);
+        int allowed = 0;
+        for(int i = 0; i < 10000; i++) {
+            if(strategy.isAllowed(null)) {
+                allowed++;
+            }
+        }
+        assertTrue(allowed > 500 && allowed < 1500);
+
+        //decision is made once, before context creation
+        strategy.setRate(Integer.MAX_VALUE);
+        DebugContext context = DebugContext.init(strategy);
+        assertTrue(strategy.isAllowed(context));
+        assertTrue(DebugContext.isDebugAllowed());
+
+        try {
+            strategy.setRate(0);
+            fail("IllegalArgumentException should be thrown");
+        } catch (IllegalArgumentException expected) {}
+    }
+}
@@ -0,0 +1,51 @@
+package org.dbg4j.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoundedTeeInputStreamTest {
+
+    @Test
+    public void testCapture() throws Exception {
+        CapturedContent content = new CapturedContent(1024, null);
+        InputStream in = new BoundedTeeInputStream(new ByteArrayInputStream("hello world".getBytes("UTF-8")), content);
+
+        assertEquals('h', in.read());
+        byte[] buffer = new byte[4];
+        assertEquals(4, in.read(buffer));
+        assertEquals("hello", content.toString());
+
+        while(in.read(buffer) > 0) {}
+        assertEquals("hello world", content.toString());
+        assertEquals(11, content.getTotal());
+        assertFalse(content.isTruncated());
+        assertFalse(in.markSupported());
+    }
+
+    @Test
+    public void testCapture_truncated() throws Exception {
+        CapturedContent content = new CapturedContent(5, Charset.forName("ISO-8859-1"));
+        InputStream in = new BoundedTeeInputStream(new ByteArrayInputStream("hello \"world\"".getBytes("UTF-8")),
+                content);
+
+        byte[] buffer = new byte[3];
+        StringBuilder read = new StringBuilder();
+        int count;
+        while((count = in.read(buffer)) > 0) {
+            read.append(new String(buffer, 0, count, "UTF-8"));
+        }
+
+        assertEquals("hello \"world\"", read.toString());
+        assertEquals(5, content.size());
+        assertEquals(13, content.getTotal());
+        assertTrue(content.isTruncated());
+        assertEquals("hello" + CapturedContent.TRUNCATED_SUFFIX, content.toString());
+        assertEquals("hello...", new JSONObject("{\"body\":" + content.toJSONString() + "}").getString("body"));
+    }
+}
@@ -0,0 +1,115 @@
+package org.dbg4j.core.rules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
+import org.dbg4j.core.annotations.Debug;
+
+import static org.junit.Assert.*;
+
+public class DebugRuleRegistryTest {
+
+    @After
+    public void tearDown() throws Exception {
+        DebugRuleRegistry.clear();
+    }
+
+    @Test
+    public void testRule() throws Exception {
+        DebugRule rule = new DebugRule("com.mycompany.*", "get*");
+
+        assertTrue(rule.matches("com.mycompany.MyClass", "getValue"));
+        assertTrue(rule.matches("com.mycompany.sub.MyClass", "get"));
+        assertFalse(rule.matches("com.mycompany.MyClass", "setValue"));
+        assertFalse(rule.matches("com.other.MyClass", "getValue"));
+        assertTrue(new DebugRule("com.mycompany.MyClass", null).matches("com.mycompany.MyClass", "any"));
+        assertFalse(new DebugRule("com.mycompany.MyClass", null).matchesClass("com.mycompany.MyClass2"));
+
+        assertEquals(Debug.class, rule.annotationType());
+        assertEquals(DefaultDebuggingAdapter.class, rule.debugger());
+        assertArrayEquals(new String[]{Debug.DEBUG_ANNOTATED_FIELDS_CONSTANT}, rule.instanceFields());
+        assertFalse(rule.debugOnce());
+        assertEquals(rule, new DebugRule("com.mycompany.*", "get*"));
+
+        try {
+            new DebugRule(" ", "method");
+            fail("IllegalArgumentException should be thrown");
+        } catch (IllegalArgumentException expected) {}
+    }
+
+    @Test
+    public void testMatch() throws Exception {
+        assertTrue(DebugRuleRegistry.isEmpty());
+        assertNull(DebugRuleRegistry.match("com.mycompany.MyClass", "getValue"));
+
+        DebugRule exact = new DebugRule("com.mycompany.MyClass", "getValue");
+        DebugRule prefixed = new DebugRule("com.mycompany.*", "get*");
+        DebugRuleRegistry.register(prefixed);
+        DebugRuleRegistry.register(exact);
+        DebugRuleRegistry.register(new DebugRule("com.mycompany.MyClass", "getValue"));
+
+        assertEquals(2, DebugRuleRegistry.getRules().size());
+        assertSame(exact, DebugRuleRegistry.match("com.mycompany.MyClass", "getValue"));
+        assertSame(prefixed, DebugRuleRegistry.match("com.mycompany.MyClass", "getOther"));
+        assertSame(prefixed, DebugRuleRegistry.match("com.mycompany.Other", "getValue"));
+        assertNull(DebugRuleRegistry.match("com.mycompany.MyClass", "setValue"));
+        assertTrue(DebugRuleRegistry.matchesClass("com.mycompany.Other"));
+        assertFalse(DebugRuleRegistry.matchesClass("com.other.Other"));
+
+        assertTrue(DebugRuleRegistry.unregister(exact));
+        assertFalse(DebugRuleRegistry.unregister(exact));
+        assertSame(prefixed, DebugRuleRegistry.match("com.mycompany.MyClass", "getValue"));
+    }
+
+    @Test
+    public void testListeners() throws Exception {
+        final List<DebugRule> changes = new ArrayList<DebugRule>();
+        DebugRuleRegistry.Listener listener = new DebugRuleRegistry.Listener() {
+            @Override
+            public void rulesChanged(Collection<DebugRule> changed) {
+                changes.addAll(changed);
+            }
+        };
+        DebugRuleRegistry.addListener(listener);
+        try {
+            DebugRule rule = new DebugRule("com.mycompany.MyClass", "getValue");
+            DebugRuleRegistry.register(rule);
+            DebugRuleRegistry.register(rule);
+            DebugRuleRegistry.clear();
+            DebugRuleRegistry.clear();
+
+            assertEquals(2, changes.size());
+            assertSame(rule, changes.get(0));
+            assertSame(rule, changes.get(1));
+        } finally {
+            DebugRuleRegistry.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        DebugRules rules = new DebugRules();
+        rules.addRule("com.mycompany.MyClass", "getValue", "field1, field2", true);
+        rules.addRule("com.mycompany.*", "", "*", false);
+
+        assertArrayEquals(new String[]{"com.mycompany.MyClass#getValue", "com.mycompany.*#*"}, rules.getRules());
+        DebugRule rule = DebugRuleRegistry.match("com.mycompany.MyClass", "getValue");
+        assertArrayEquals(new String[]{"field1", "field2"}, rule.instanceFields());
+        assertTrue(rule.debugOnce());
+        assertArrayEquals(new String[]{Debug.DEBUG_ALL_FIELDS_CONSTANT},
+                DebugRuleRegistry.match("com.mycompany.Other", "any").instanceFields());
+
+        assertTrue(rules.removeRule("com.mycompany.*", null));
+        assertFalse(rules.removeRule("com.mycompany.*", null));
+        assertEquals(1, rules.getRules().length);
+
+        assertNotNull(DebugRules.register());
+        rules.clear();
+        assertTrue(DebugRuleRegistry.isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.dump;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Constants of the binary dump format. Dump file layout:
+ * <pre>
+ *  file    := MAGIC(int) VERSION(short) session* END
+ *  session := length(int, &gt; 0) timestamp(long) count(varint) value*
+ *  END     := 0(int) - zero length marks the end of the data
+ * </pre>
+ * Every session has its own string table: string reference is a varint, <code>0</code> means that new string
+ * follows (varint length + UTF-8 bytes) and gets the next index, any other value <code>n</code> refers to
+ * the string with index <code>n - 1</code>. So repeated class names, method signatures and stack frames are
+ * stored only once per session. Interned stack traces ({@link org.dbg4j.core.beans.StackTrace}) share their
+ * frames within the session as well.
+ *
+ * @see DumpWriter
+ * @see DumpReader
+ * @author Maksym Fedoryshyn
+ */
+public final class DumpFormat {
+
+    public static final int MAGIC = 0x44424734; // "DBG4"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 6;
+
+    /** <code>null</code> value */
+    static final byte NULL = 0;
+    /** string reference */
+    static final byte STRING = 1;
+    static final byte TRUE = 2;
+    static final byte FALSE = 3;
+    static final byte INT = 4;
+    static final byte LONG = 5;
+    static final byte DOUBLE = 6;
+    /** varint count + values */
+    static final byte LIST = 7;
+    /** varint count + (key string reference, value) pairs; read back as {@link org.dbg4j.core.beans.DebugData} */
+    static final byte DATA = 8;
+    /** multi-line string (e.g. stacktrace), varint count + string reference per line */
+    static final byte LINES = 9;
+    /**
+     * interned stack trace: header string reference, base node (varint, <code>0</code> - no base), varint count of
+     * new nodes + frame string reference per node (outermost first). Nodes are numbered from <code>1</code> in the
+     * order of definition within the session, so shared stack prefixes are written once per session.
+     */
+    static final byte STACK = 10;
+
+    private DumpFormat() {}
+
+    public static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+    }
+
+    public static void readHeader(ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a dbg4j dump");
+        }
+        short version = buffer.getShort();
+        if(version != VERSION) {
+            throw new IOException("Unsupported dump version: " + version);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.dump;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Reads debugging sessions from the dump (see {@link DumpFormat}). Nested records and maps are read back as
+ * {@link DebugData}, collections and arrays - as lists.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DumpReader {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final ByteBuffer buffer;
+    private final List<String> strings = new ArrayList<String>();
+    private final List<Integer> nodeParents = new ArrayList<Integer>();
+    private final List<String> nodeFrames = new ArrayList<String>();
+
+    /**
+     * @param buffer dump content, starting from header
+     * @throws IOException if buffer doesn't contain dump
+     */
+    public DumpReader(@Nonnull ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        DumpFormat.readHeader(buffer);
+    }
+
+    public static DumpReader open(@Nonnull File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new DumpReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Read next session.
+     *
+     * @return session or <code>null</code> if there are no more sessions
+     * @throws IOException if the dump is corrupted
+     */
+    @Nullable
+    public DumpSession next() throws IOException {
+        if(buffer.remaining() < 4) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if(length <= 0) {
+            return null;
+        }
+        if(length > buffer.remaining()) {
+            throw new IOException("Truncated session at position " + (buffer.position() - 4));
+        }
+        int end = buffer.position() + length;
+        strings.clear();
+        nodeParents.clear();
+        nodeFrames.clear();
+        try {
+            long timestamp = buffer.getLong();
+            int count = readVarInt();
+            List<DebugData> records = new ArrayList<DebugData>(count);
+            for(int i = 0; i < count; i++) {
+                Object record = readValue();
+                if(record instanceof DebugData) {
+                    records.add((DebugData) record);
+                }
+            }
+            return new DumpSession(timestamp, records);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupted session at position " + (end - length - 4));
+        } finally {
+            buffer.position(end);
+        }
+    }
+
+    /**
+     * Read all remaining sessions.
+     */
+    public List<DumpSession> readAll() throws IOException {
+        List<DumpSession> result = new ArrayList<DumpSession>();
+        DumpSession session;
+        while((session = next()) != null) {
+            result.add(session);
+        }
+        return result;
+    }
+
+    protected Object readValue() throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case DumpFormat.NULL:
+                return null;
+            case DumpFormat.STRING:
+                return readString();
+            case DumpFormat.TRUE:
+                return Boolean.TRUE;
+            case DumpFormat.FALSE:
+                return Boolean.FALSE;
+            case DumpFormat.INT:
+                return buffer.getInt();
+            case DumpFormat.LONG:
+                return buffer.getLong();
+            case DumpFormat.DOUBLE:
+                return buffer.getDouble();
+            case DumpFormat.LIST:
+                int size = readVarInt();
+                List<Object> list = new ArrayList<Object>(size);
+                for(int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            case DumpFormat.DATA:
+                int fields = readVarInt();
+                DebugData data = new DebugData();
+                for(int i = 0; i < fields; i++) {
+                    String key = readString();
+                    data.set(key, readValue());
+                }
+                return data;
+            case DumpFormat.LINES:
+                int lines = readVarInt();
+                StringBuilder sb = new StringBuilder();
+                for(int i = 0; i < lines; i++) {
+                    if(i > 0) {
+                        sb.append('\n');
+                    }
+                    sb.append(readString());
+                }
+                return sb.toString();
+            case DumpFormat.STACK:
+                return readStackTrace();
+            default:
+                throw new IOException("Unknown value type " + tag + " at position " + (buffer.position() - 1));
+        }
+    }
+
+    /**
+     * Reads interned stack trace, it is restored as <code>ExceptionUtils.getStackTrace()</code> string.
+     */
+    protected String readStackTrace() throws IOException {
+        String header = readString();
+        int node = readVarInt();
+        if(node > nodeFrames.size()) {
+            throw new IOException("Unknown stack node " + node);
+        }
+        int count = readVarInt();
+        for(int i = 0; i < count; i++) {
+            nodeParents.add(node);
+            nodeFrames.add(readString());
+            node = nodeFrames.size();
+        }
+        StringBuilder sb = new StringBuilder(header).append(LINE_SEPARATOR);
+        for(; node > 0; node = nodeParents.get(node - 1)) {
+            sb.append("\tat ").append(nodeFrames.get(node - 1)).append(LINE_SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    protected String readString() throws IOException {
+        int ref = readVarInt();
+        if(ref > 0) {
+            if(ref > strings.size()) {
+                throw new IOException("Unknown string reference " + ref);
+            }
+            return strings.get(ref - 1);
+        }
+        byte[] bytes = new byte[readVarInt()];
+        buffer.get(bytes);
+        String value = new String(bytes, DumpWriter.UTF8);
+        strings.add(value);
+        return value;
+    }
+
+    protected int readVarInt() {
+        int result = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+}
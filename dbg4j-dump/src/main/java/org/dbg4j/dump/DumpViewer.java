@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.dump;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.MethodDebugData;
+
+/**
+ * Command line viewer of binary dumps. Converts dumps back to JSON (one line per session, same format as
+ * {@link DebugUtils#toJsonArray(java.util.Collection)}) or prints them as call tree:
+ * <pre>
+ *     java org.dbg4j.dump.DumpViewer [-json|-tree] &lt;file&gt;...
+ * </pre>
+ *
+ * Call tree is restored from stacktraces of the records: records are added to the context when call completes,
+ * so every record adopts preceding records with deeper stacks. Records without stacktrace are treated as siblings
+ * of the preceding record.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DumpViewer {
+
+    static final String[] STACK_KEYS = {MethodDebugData.STACKTRACE, "CalledFrom"};
+
+    public static void main(String[] args) {
+        boolean tree = false;
+        List<File> files = new ArrayList<File>();
+        for(String arg: args) {
+            if("-tree".equals(arg)) {
+                tree = true;
+            } else if("-json".equals(arg)) {
+                tree = false;
+            } else {
+                files.add(new File(arg));
+            }
+        }
+        if(files.isEmpty()) {
+            System.err.println("Usage: java " + DumpViewer.class.getName() + " [-json|-tree] <file>...");
+            System.exit(1);
+        }
+        int status = 0;
+        for(File file: files) {
+            try {
+                print(DumpReader.open(file).readAll(), tree, System.out);
+            } catch (Exception e) {
+                System.err.println(file + ": " + e.getMessage());
+                status = 2;
+            }
+        }
+        System.exit(status);
+    }
+
+    public static void print(@Nonnull List<DumpSession> sessions, boolean tree, @Nonnull PrintStream out) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        for(DumpSession session: sessions) {
+            if(tree) {
+                out.println("Session " + format.format(new Date(session.getTimestamp()))
+                        + " (" + session.getRecords().size() + " records)");
+                for(CallNode node: buildCallTree(session.getRecords())) {
+                    printNode(node, 1, out);
+                }
+            } else {
+                out.println(DebugUtils.toJsonArray(session.getRecords()));
+            }
+        }
+    }
+
+    /**
+     * Restores call tree from records of one session.
+     *
+     * @param records records in order they were added to the context
+     * @return root calls
+     */
+    public static List<CallNode> buildCallTree(@Nonnull List<DebugData> records) {
+        LinkedList<CallNode> pending = new LinkedList<CallNode>();
+        int lastDepth = Integer.MAX_VALUE;
+        for(DebugData record: records) {
+            int depth = getDepth(record);
+            if(depth < 0) {
+                depth = lastDepth;
+            }
+            lastDepth = depth;
+            CallNode node = new CallNode(record, depth);
+            while(!pending.isEmpty() && pending.getLast().depth > node.depth) {
+                node.children.add(0, pending.removeLast());
+            }
+            pending.add(node);
+        }
+        return pending;
+    }
+
+    /**
+     * @return stack depth of the record or <code>-1</code> if record has no stacktrace
+     */
+    static int getDepth(DebugData record) {
+        for(String key: STACK_KEYS) {
+            Object stack = record.get(key);
+            if(stack != null) {
+                String s = stack.toString();
+                int depth = 1;
+                for(int i = s.indexOf('\n'); i >= 0; i = s.indexOf('\n', i + 1)) {
+                    depth++;
+                }
+                return depth;
+            }
+        }
+        return -1;
+    }
+
+    static String getLabel(DebugData record) {
+        StringBuilder sb = new StringBuilder();
+        Object type = record.get(MethodDebugData.TYPE);
+        sb.append('[').append(type != null ? type : "?").append(']');
+        Object clazz = record.get(MethodDebugData.CLASS);
+        if(clazz != null) {
+            sb.append(' ').append(clazz).append(':');
+        }
+        Object method = record.get(MethodDebugData.METHOD);
+        if(method != null) {
+            sb.append(' ').append(method);
+        }
+        Object url = record.get("Url");
+        if(url != null) {
+            sb.append(' ').append(url);
+        }
+        Object error = record.get(MethodDebugData.ERROR);
+        if(error != null) {
+            String s = error.toString();
+            int eol = s.indexOf('\n');
+            sb.append(" !! ").append(eol < 0 ? s : s.substring(0, eol).trim());
+        }
+        return sb.toString();
+    }
+
+    private static void printNode(CallNode node, int level, PrintStream out) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < level; i++) {
+            sb.append("  ");
+        }
+        out.println(sb.append(getLabel(node.record)));
+        for(CallNode child: node.children) {
+            printNode(child, level + 1, out);
+        }
+    }
+
+    /**
+     * Call tree node.
+     */
+    public static class CallNode {
+        private final DebugData record;
+        private final int depth;
+        private final List<CallNode> children = new LinkedList<CallNode>();
+
+        CallNode(DebugData record, int depth) {
+            this.record = record;
+            this.depth = depth;
+        }
+
+        public DebugData getRecord() {
+            return record;
+        }
+
+        public List<CallNode> getChildren() {
+            return children;
+        }
+    }
+}
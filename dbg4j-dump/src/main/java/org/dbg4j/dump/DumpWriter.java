@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.dump;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.DeferredValue;
+import org.dbg4j.core.beans.StackFrameTable;
+import org.dbg4j.core.beans.StackTrace;
+
+/**
+ * Encodes debugging session (records of committed context) into the binary format described in
+ * {@link DumpFormat}. Writer keeps the string table of the session, so create new writer for each session.
+ *
+ * Values are encoded according to their type: strings, booleans, numbers, collections/arrays of values,
+ * maps and {@link DebugData} are kept as is, any other object is stored as <code>String.valueOf()</code>.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DumpWriter {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    /** frame table node -> session node, per table */
+    private final Map<StackFrameTable, Map<Integer, Integer>> nodes = new IdentityHashMap<StackFrameTable, Map<Integer, Integer>>();
+    private int nodeCount;
+
+    /**
+     * Encode session.
+     *
+     * @param timestamp session timestamp
+     * @param records records of the session
+     * @return session (length-prefixed), ready to be written to the dump
+     */
+    public byte[] write(long timestamp, @Nonnull Collection<DebugData> records) {
+        out.reset();
+        strings.clear();
+        nodes.clear();
+        nodeCount = 0;
+        writeInt(0); //placeholder for the length
+        writeLong(timestamp);
+        writeVarInt(records.size());
+        for(DebugData record: records) {
+            writeValue(record);
+        }
+        byte[] result = out.toByteArray();
+        int length = result.length - 4;
+        result[0] = (byte) (length >>> 24);
+        result[1] = (byte) (length >>> 16);
+        result[2] = (byte) (length >>> 8);
+        result[3] = (byte) length;
+        return result;
+    }
+
+    protected void writeValue(Object value) {
+        if(value == null) {
+            out.write(DumpFormat.NULL);
+        } else if(value instanceof String) {
+            writeText((String) value);
+        } else if(value instanceof Boolean) {
+            out.write((Boolean) value ? DumpFormat.TRUE : DumpFormat.FALSE);
+        } else if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.write(DumpFormat.INT);
+            writeInt(((Number) value).intValue());
+        } else if(value instanceof Long) {
+            out.write(DumpFormat.LONG);
+            writeLong((Long) value);
+        } else if(value instanceof Double || value instanceof Float) {
+            out.write(DumpFormat.DOUBLE);
+            writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if(value instanceof DeferredValue) {
+            writeValue(((DeferredValue) value).getValue());
+        } else if(value instanceof StackTrace) {
+            writeStackTrace((StackTrace) value);
+        } else if(value instanceof DebugData) {
+            writeMap(((DebugData) value).getAll());
+        } else if(value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if(value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            out.write(DumpFormat.LIST);
+            writeVarInt(collection.size());
+            for(Object item: collection) {
+                writeValue(item);
+            }
+        } else if(value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            out.write(DumpFormat.LIST);
+            writeVarInt(array.length);
+            for(Object item: array) {
+                writeValue(item);
+            }
+        } else if(value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            out.write(DumpFormat.LIST);
+            writeVarInt(length);
+            for(int i = 0; i < length; i++) {
+                writeValue(Array.get(value, i));
+            }
+        } else {
+            writeText(String.valueOf(value));
+        }
+    }
+
+    protected void writeMap(Map<?, ?> map) {
+        out.write(DumpFormat.DATA);
+        writeVarInt(map.size());
+        for(Map.Entry<?, ?> entry: map.entrySet()) {
+            writeString(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+        }
+    }
+
+    /**
+     * Multi-line strings (stacktraces mostly) are split by lines, so every line (stack frame) gets into the
+     * string table.
+     */
+    protected void writeText(String value) {
+        if(value.indexOf('\n') < 0) {
+            out.write(DumpFormat.STRING);
+            writeString(value);
+            return;
+        }
+        String[] lines = value.split("\n", -1);
+        out.write(DumpFormat.LINES);
+        writeVarInt(lines.length);
+        for(String line: lines) {
+            writeString(line);
+        }
+    }
+
+    /**
+     * Writes frames that were not written in this session yet, so records share common part of their stacks.
+     */
+    protected void writeStackTrace(StackTrace stackTrace) {
+        StackFrameTable table = stackTrace.getTable();
+        Map<Integer, Integer> written = nodes.get(table);
+        if(written == null) {
+            written = new HashMap<Integer, Integer>();
+            nodes.put(table, written);
+        }
+        List<StackTraceElement> newFrames = new ArrayList<StackTraceElement>();
+        List<Integer> newNodes = new ArrayList<Integer>();
+        int base = 0;
+        for(int node = stackTrace.getNode(); node >= 0; node = table.getParent(node)) {
+            Integer sessionNode = written.get(node);
+            if(sessionNode != null) {
+                base = sessionNode;
+                break;
+            }
+            newNodes.add(node);
+            newFrames.add(table.getFrame(node));
+        }
+        out.write(DumpFormat.STACK);
+        writeString(stackTrace.getHeader());
+        writeVarInt(base);
+        writeVarInt(newFrames.size());
+        for(int i = newFrames.size() - 1; i >= 0; i--) {
+            writeString(newFrames.get(i).toString());
+            written.put(newNodes.get(i), ++nodeCount);
+        }
+    }
+
+    protected void writeString(String value) {
+        Integer index = strings.get(value);
+        if(index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+        strings.put(value, strings.size());
+        byte[] bytes = value.getBytes(UTF8);
+        writeVarInt(0);
+        writeVarInt(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    protected void writeVarInt(int value) {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    protected void writeInt(int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    protected void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+}
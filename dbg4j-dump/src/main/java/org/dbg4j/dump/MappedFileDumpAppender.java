@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.dump;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.dbg4j.core.appenders.FilterableAppender;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.ContextListener;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Writes debugging sessions in binary format (see {@link DumpFormat}) into rolling memory-mapped files
+ * <code>&lt;directory&gt;/&lt;fileName&gt;.&lt;index&gt;.dbg</code>. Every file is preallocated to
+ * <code>maxFileSize</code> bytes; when session doesn't fit into the current file, appender switches to the next
+ * one (after <code>maxFiles</code> files the oldest one is overwritten). Session that doesn't fit into the empty
+ * file is dropped (see {@link #getDroppedSessions()}).
+ *
+ * Works as ContextListener: whole context is written once on <code>DebugContext.EventType.CONTEXT_COMMIT</code>
+ * event. Use {@link DumpViewer} to read dumps.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class MappedFileDumpAppender extends FilterableAppender implements ContextListener {
+
+    public static final long DEFAULT_MAX_FILE_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_FILES = 4;
+    public static final String DEFAULT_FILE_NAME = "dbg4j";
+    public static final String EXTENSION = ".dbg";
+
+    private final File directory;
+    private final String fileName;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    private final AtomicLong droppedSessions = new AtomicLong();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int fileIndex = -1;
+
+    public MappedFileDumpAppender(@Nonnull File directory) {
+        this(directory, DEFAULT_FILE_NAME, DEFAULT_MAX_FILE_SIZE, DEFAULT_MAX_FILES);
+    }
+
+    public MappedFileDumpAppender(@Nonnull File directory, String fileName, long maxFileSize, int maxFiles) {
+        this.directory = directory;
+        this.fileName = (fileName != null) ? fileName : DEFAULT_FILE_NAME;
+        this.maxFileSize = (maxFileSize > DumpFormat.HEADER_SIZE + 8) ? maxFileSize : DEFAULT_MAX_FILE_SIZE;
+        this.maxFiles = (maxFiles > 0) ? maxFiles : DEFAULT_MAX_FILES;
+        if(this.maxFileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("File size is too big: " + maxFileSize);
+        }
+    }
+
+    @Override
+    protected void doWrite(Collection<DebugData> data, Object... params) throws Exception {
+        if(data == null || data.isEmpty()) {
+            return;
+        }
+        byte[] session = new DumpWriter().write(System.currentTimeMillis(), data);
+        // session + end marker should fit into the file
+        if(session.length + 4 > maxFileSize - DumpFormat.HEADER_SIZE) {
+            droppedSessions.incrementAndGet();
+            return;
+        }
+        synchronized (this) {
+            if(buffer == null || buffer.remaining() < session.length + 4) {
+                roll();
+            }
+            buffer.put(session);
+            // end marker, overwritten by the next session
+            buffer.putInt(buffer.position(), 0);
+        }
+    }
+
+    /**
+     * Writes committed context.
+     */
+    @Override
+    public void notify(DebugContext.EventType eventType, DebugContext debugContext, Object... parameters) {
+        if(DebugContext.EventType.CONTEXT_COMMIT.equals(eventType)) {
+            this.write(debugContext.getDebugData());
+        }
+    }
+
+    /**
+     * Flush and close current file.
+     */
+    public synchronized void close() {
+        if(buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if(channel != null) {
+            try {
+                channel.close();
+            } catch (Exception ignored) {}
+            channel = null;
+        }
+    }
+
+    public File getFile(int index) {
+        return new File(directory, fileName + "." + index + EXTENSION);
+    }
+
+    /**
+     * @return file currently written to or <code>null</code> if nothing was written yet
+     */
+    public synchronized File getCurrentFile() {
+        return (fileIndex >= 0) ? getFile(fileIndex) : null;
+    }
+
+    public long getDroppedSessions() {
+        return droppedSessions.get();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    protected void roll() throws IOException {
+        close();
+        fileIndex = (fileIndex < 0) ? firstIndex() : (fileIndex + 1) % maxFiles;
+        if(!directory.exists()) {
+            directory.mkdirs();
+        }
+        RandomAccessFile file = new RandomAccessFile(getFile(fileIndex), "rw");
+        try {
+            file.setLength(0);
+            file.setLength(maxFileSize);
+            channel = file.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxFileSize);
+        } catch (IOException e) {
+            file.close();
+            channel = null;
+            throw e;
+        }
+        DumpFormat.writeHeader(buffer);
+        buffer.putInt(buffer.position(), 0);
+    }
+
+    /**
+     * Continue after the most recent file, so dumps of the previous run are overwritten last.
+     */
+    private int firstIndex() {
+        int result = 0;
+        long lastModified = -1;
+        for(int i = 0; i < maxFiles; i++) {
+            File file = getFile(i);
+            if(file.exists() && file.lastModified() > lastModified) {
+                lastModified = file.lastModified();
+                result = (i + 1) % maxFiles;
+            }
+        }
+        return result;
+    }
+}
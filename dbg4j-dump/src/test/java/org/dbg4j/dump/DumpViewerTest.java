@@ -0,0 +1,62 @@
+package org.dbg4j.dump;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.MethodDebugData;
+import org.json.JSONArray;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DumpViewerTest {
+
+    @Test
+    public void testBuildCallTree() throws Exception {
+        DebugData inner1 = method("inner1", "e\n\tat b\n\tat a");
+        DebugData output = new DebugData("Type", "Output");
+        DebugData inner2 = method("inner2", "e\n\tat c\n\tat a");
+        DebugData outer = method("outer", "e\n\tat a");
+        DebugData other = method("other", "e\n\tat a");
+
+        List<DumpViewer.CallNode> roots = DumpViewer.buildCallTree(Arrays.asList(inner1, output, inner2, outer, other));
+
+        assertEquals(2, roots.size());
+        assertSame(outer, roots.get(0).getRecord());
+        assertSame(other, roots.get(1).getRecord());
+        List<DumpViewer.CallNode> children = roots.get(0).getChildren();
+        assertEquals(3, children.size());
+        assertSame(inner1, children.get(0).getRecord());
+        assertSame(output, children.get(1).getRecord());
+        assertSame(inner2, children.get(2).getRecord());
+    }
+
+    @Test
+    public void testPrint() throws Exception {
+        DumpSession session = new DumpSession(0, Arrays.asList(method("inner", "e\n\tat b\n\tat a"),
+                method("outer", "e\n\tat a")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DumpViewer.print(Arrays.asList(session), false, new PrintStream(out, true));
+        assertEquals(2, new JSONArray(out.toString().trim()).length());
+
+        out.reset();
+        DumpViewer.print(Arrays.asList(session), true, new PrintStream(out, true));
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("  [METHOD] MyClass: void outer()", lines[1].replace("\r", ""));
+        assertEquals("    [METHOD] MyClass: void inner()", lines[2].replace("\r", ""));
+    }
+
+    private static DebugData method(String name, String stacktrace) {
+        MethodDebugData result = new MethodDebugData();
+        result.set(MethodDebugData.TYPE, "METHOD");
+        result.set(MethodDebugData.CLASS, "MyClass");
+        result.set(MethodDebugData.METHOD, "void " + name + "()");
+        result.set(MethodDebugData.STACKTRACE, stacktrace);
+        return result;
+    }
+}
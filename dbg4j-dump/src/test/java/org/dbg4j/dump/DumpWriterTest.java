@@ -0,0 +1,111 @@
+package org.dbg4j.dump;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.beans.MethodDebugData;
+import org.dbg4j.core.beans.StackFrameTable;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DumpWriterTest {
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        MethodDebugData method = new MethodDebugData();
+        method.set(MethodDebugData.TYPE, "METHOD");
+        method.set(MethodDebugData.CLASS, "MyClass");
+        method.set(MethodDebugData.ARGUMENTS, Arrays.asList(new DebugData("int", "1")));
+        method.set(MethodDebugData.STACKTRACE, "java.lang.Exception\n\tat A.a(A.java:1)\n\tat B.b(B.java:2)");
+        method.set("Async", true);
+        method.set("ResponseCode", 200);
+        method.set("Duration", 15L);
+        method.set("Ratio", 0.5);
+        method.set("Nothing", null);
+        method.set("Array", new int[]{1, 2});
+        DebugData custom = new DebugData("key", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435");
+
+        ByteBuffer buffer = dump(new DumpWriter().write(42L, Arrays.asList(method, custom)));
+        DumpReader reader = new DumpReader(buffer);
+        DumpSession session = reader.next();
+        assertNull(reader.next());
+
+        assertEquals(42L, session.getTimestamp());
+        List<DebugData> records = session.getRecords();
+        assertEquals(2, records.size());
+        DebugData read = records.get(0);
+        assertEquals("METHOD", read.get("Type"));
+        assertEquals("MyClass", read.get("Class"));
+        assertEquals(method.get(MethodDebugData.STACKTRACE), read.get("Stacktrace"));
+        assertEquals(Boolean.TRUE, read.get("Async"));
+        assertEquals(200, read.get("ResponseCode"));
+        assertEquals(15L, read.get("Duration"));
+        assertEquals(0.5, read.get("Ratio"));
+        assertTrue(read.getAll().containsKey("Nothing"));
+        assertNull(read.get("Nothing"));
+        assertEquals(Arrays.asList(1, 2), read.get("Array"));
+        List<?> arguments = (List<?>) read.get("Arguments");
+        assertEquals("1", ((DebugData) arguments.get(0)).get("int"));
+        assertEquals("\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435", records.get(1).get("key"));
+    }
+
+    @Test
+    public void testStringTable() throws Exception {
+        String stack = "java.lang.Exception\n\tat org.dbg4j.SomeClass.someMethod(SomeClass.java:10)";
+        DebugData first = new DebugData("Stacktrace", stack);
+        DebugData second = new DebugData("Stacktrace", stack + "\n\tat org.dbg4j.SomeClass.someMethod(SomeClass.java:10)");
+
+        byte[] one = new DumpWriter().write(0, Arrays.asList(first));
+        byte[] two = new DumpWriter().write(0, Arrays.asList(first, second));
+        //second record reuses key and all frames: tag + field count + key ref + tag + line count + 3 line refs
+        assertEquals(one.length + 8, two.length);
+
+        List<DebugData> records = new DumpReader(dump(two)).next().getRecords();
+        assertEquals(second.get("Stacktrace"), records.get(1).get("Stacktrace"));
+    }
+
+    @Test
+    public void testStackTrace() throws Exception {
+        StackFrameTable table = new StackFrameTable();
+        Exception first = new Exception();
+        Exception second = new Exception("second");
+        DebugData firstRecord = new DebugData("Stacktrace", table.intern(first));
+        DebugData secondRecord = new DebugData("Stacktrace", table.intern(second));
+
+        byte[] one = new DumpWriter().write(0, Arrays.asList(firstRecord));
+        byte[] two = new DumpWriter().write(0, Arrays.asList(firstRecord, secondRecord));
+        List<DebugData> records = new DumpReader(dump(two)).next().getRecords();
+
+        assertEquals(ExceptionUtils.getStackTrace(first), records.get(0).get("Stacktrace"));
+        assertEquals(ExceptionUtils.getStackTrace(second), records.get(1).get("Stacktrace"));
+        //second stack differs only in the innermost frame
+        int header = 2 + "java.lang.Exception: second".length();
+        int frame = 2 + second.getStackTrace()[0].toString().length();
+        assertEquals(one.length + 3 + header + 3 + frame, two.length);
+    }
+
+    @Test
+    public void testEndOfDump() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        DumpFormat.writeHeader(buffer);
+        buffer.rewind();
+        assertNull(new DumpReader(buffer).next());
+
+        try {
+            new DumpReader(ByteBuffer.allocate(64));
+            fail("Exception expected");
+        } catch (java.io.IOException expected) {}
+    }
+
+    private static ByteBuffer dump(byte[] session) {
+        ByteBuffer buffer = ByteBuffer.allocate(DumpFormat.HEADER_SIZE + session.length + 4);
+        DumpFormat.writeHeader(buffer);
+        buffer.put(session);
+        buffer.rewind();
+        return buffer;
+    }
+}
@@ -0,0 +1,80 @@
+package org.dbg4j.dump;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MappedFileDumpAppenderTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("dbg4j", "dump");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file: files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testNotify() throws Exception {
+        MappedFileDumpAppender appender = new MappedFileDumpAppender(directory);
+        DebugContext context = mock(DebugContext.class);
+        when(context.getDebugData()).thenReturn(Arrays.asList(new DebugData("key", "value")));
+
+        appender.notify(DebugContext.EventType.RECORD_ADDED, context, new DebugData("other", "value"));
+        assertNull(appender.getCurrentFile());
+
+        appender.notify(DebugContext.EventType.CONTEXT_COMMIT, context);
+        appender.notify(DebugContext.EventType.CONTEXT_COMMIT, context);
+        appender.close();
+
+        List<DumpSession> sessions = DumpReader.open(appender.getFile(0)).readAll();
+        assertEquals(2, sessions.size());
+        assertEquals("value", sessions.get(1).getRecords().get(0).get("key"));
+    }
+
+    @Test
+    public void testRolling() throws Exception {
+        List<DebugData> session = Arrays.asList(new DebugData("key", "value"));
+        int sessionSize = new DumpWriter().write(0, session).length;
+        // two sessions per file
+        MappedFileDumpAppender appender = new MappedFileDumpAppender(directory, "test",
+                DumpFormat.HEADER_SIZE + 2 * sessionSize + 4, 2);
+
+        for(int i = 0; i < 5; i++) {
+            appender.write(session);
+        }
+        appender.write(Arrays.asList(new DebugData("key", new String(new char[1000]))));
+        appender.close();
+
+        assertEquals(1, appender.getDroppedSessions());
+        assertEquals(appender.getFile(0), appender.getCurrentFile());
+        assertEquals(1, DumpReader.open(appender.getFile(0)).readAll().size());
+        assertEquals(2, DumpReader.open(appender.getFile(1)).readAll().size());
+
+        //continues after the most recent file
+        appender = new MappedFileDumpAppender(directory, "test", DumpFormat.HEADER_SIZE + 2 * sessionSize + 4, 2);
+        appender.write(session);
+        appender.close();
+        assertEquals(appender.getFile(1), appender.getCurrentFile());
+    }
+}
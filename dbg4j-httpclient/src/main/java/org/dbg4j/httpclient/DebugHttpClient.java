@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.httpclient;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.adapters.impl.StackTraceException;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.AsyncCall;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * <code>HttpClient</code> wrapper that collects debug information about http calls. Calls are recorded only if
+ * debugging is allowed by the current debug context (the same context and allowance strategy as {@code @Debug}
+ * methods use). Asynchronous calls are
+ * recorded at submit time and completed when response is received (see {@link AsyncCall}), so they are recorded in
+ * the debug context of the caller even though response is handled by client's executor. Duration of the call
+ * includes queueing time.
+ * <pre>
+ *     HttpClient client = new DebugHttpClient(HttpClient.newHttpClient());
+ * </pre>
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DebugHttpClient extends HttpClient {
+
+    protected final HttpClient delegate;
+    private boolean disabled;
+
+    public DebugHttpClient(@Nonnull HttpClient delegate) {
+        if(delegate == null) {
+            throw new NullPointerException("delegate cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        if(disabled || !DebugContext.isDebugAllowed()) {
+            return delegate.send(request, responseBodyHandler);
+        }
+        DebugData httpCall = new DebugData();
+        appendRequestDetails(request, httpCall);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = delegate.send(request, responseBodyHandler);
+            appendResponseDetails(response, httpCall);
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            httpCall.set("Error", e.toString());
+            throw e;
+        } finally {
+            httpCall.set("Duration", Math.round((System.nanoTime() - start) / 1000d) / 1000d);
+            try { throw new StackTraceException();}
+            catch(StackTraceException e) {
+                httpCall.set("CalledFrom", DebugUtils.getStackTrace(e));
+            }
+            DebugContext context = DebugContext.getContext();
+            if(context != null) {
+                context.addDebugRecord(httpCall);
+            }
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler) {
+        AsyncCall call = submit(request);
+        return track(call, delegate.sendAsync(request, responseBodyHandler));
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        AsyncCall call = submit(request);
+        return track(call, delegate.sendAsync(request, responseBodyHandler, pushPromiseHandler));
+    }
+
+    protected AsyncCall submit(@Nonnull HttpRequest request) {
+        if(disabled) {
+            return null;
+        }
+        try {
+            DebugData httpCall = new DebugData();
+            appendRequestDetails(request, httpCall);
+            httpCall.set("Async", true);
+            return AsyncCall.submit(httpCall);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Complete the call when response future completes. Original future is returned (callback is attached as a side
+     * stage), so cancellation by the caller reaches the delegate.
+     */
+    protected <T> CompletableFuture<HttpResponse<T>> track(AsyncCall call,
+                                                           CompletableFuture<HttpResponse<T>> future) {
+        if(call == null) {
+            return future;
+        }
+        future.whenComplete((response, error) -> {
+            try {
+                if(error != null) {
+                    call.fail(error);
+                } else {
+                    DebugData details = new DebugData();
+                    appendResponseDetails(response, details);
+                    for(Map.Entry<String, Object> entry: details.getAll().entrySet()) {
+                        call.set(entry.getKey(), entry.getValue());
+                    }
+                    call.complete();
+                }
+            } catch (Exception ignored) {
+                call.complete();
+            }
+        });
+        return future;
+    }
+
+    protected void appendRequestDetails(@Nonnull HttpRequest request, @Nonnull DebugData httpCall) {
+        try {
+            httpCall.set("Type", "RestCall");
+            httpCall.set("Url", request.uri().toASCIIString());
+            httpCall.set("Method", request.method());
+            httpCall.set("RequestHeaders", getHeaders(request.headers()));
+        } catch (Exception ignored) { }
+    }
+
+    protected void appendResponseDetails(@Nonnull HttpResponse<?> response, @Nonnull DebugData httpCall) {
+        try {
+            httpCall.set("ResponseCode", response.statusCode());
+            httpCall.set("ResponseHeaders", getHeaders(response.headers()));
+        } catch (Exception ignored) { }
+    }
+
+    protected String getHeaders(@Nonnull HttpHeaders headers) {
+        StringBuilder b = new StringBuilder();
+        for (Map.Entry<String, List<String>> e : headers.map().entrySet()) {
+            b.append(e.getKey()).append(": ").append(String.join(",", e.getValue())).append("\n");
+        }
+        return b.toString();
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    /**
+     * Web socket connections are not recorded.
+     */
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() {
+        return delegate.newWebSocketBuilder();
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    public void setDisabled(boolean disabled) {
+        this.disabled = disabled;
+    }
+}
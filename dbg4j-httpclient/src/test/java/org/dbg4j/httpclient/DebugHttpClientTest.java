@@ -0,0 +1,303 @@
+package org.dbg4j.httpclient;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.AsyncCall;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+
+public class DebugHttpClientTest {
+
+    private StubHttpClient delegate;
+    private DebugHttpClient client;
+    private HttpRequest request;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate = new StubHttpClient();
+        client = new DebugHttpClient(delegate);
+        request = HttpRequest.newBuilder(new URI("http://localhost/test")).header("Accept", "text/plain").build();
+        DebugContext.init(null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testSendAsync_disabled() throws Exception {
+        client.setDisabled(true);
+
+        CompletableFuture<HttpResponse<String>> result = client.sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+
+        assertSame(delegate.future, result);
+        assertEquals(0, DebugContext.getContext().getDebugData().size());
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        DebugContext context = DebugContext.getContext();
+
+        CompletableFuture<HttpResponse<String>> result = client.sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(1, context.getDebugData().size());
+        DebugData httpCall = context.getDebugData().iterator().next();
+        assertEquals("http://localhost/test", httpCall.get("Url"));
+        assertEquals("GET", httpCall.get("Method"));
+        assertEquals(true, httpCall.get("Async"));
+        assertEquals("Accept: text/plain\n", httpCall.get("RequestHeaders"));
+        AsyncCall call = (AsyncCall) httpCall.get(AsyncCall.RESPONSE);
+        assertFalse(call.isCompleted());
+
+        //response is completed by the thread without debug context
+        Thread callback = new Thread() {
+            @Override
+            public void run() {
+                DebugContext.commit();
+                delegate.future.complete(new StubResponse(request, 201));
+            }
+        };
+        callback.start();
+        callback.join();
+
+        assertEquals(201, result.get().statusCode());
+        assertTrue(call.isCompleted());
+        JSONObject response = new JSONObject(httpCall.toString()).getJSONObject(AsyncCall.RESPONSE);
+        assertEquals(201, response.getInt("ResponseCode"));
+        assertEquals("Content-Type: text/plain\n", response.getString("ResponseHeaders"));
+        assertTrue(response.has("Duration"));
+    }
+
+    @Test
+    public void testSendAsync_error() throws Exception {
+        DebugContext context = DebugContext.getContext();
+
+        CompletableFuture<HttpResponse<String>> result = client.sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+        delegate.future.completeExceptionally(new IOException("connection refused"));
+
+        assertTrue(result.isCompletedExceptionally());
+        DebugData httpCall = context.getDebugData().iterator().next();
+        JSONObject response = new JSONObject(httpCall.toString()).getJSONObject(AsyncCall.RESPONSE);
+        assertTrue(response.getString("Error").startsWith("java.io.IOException: connection refused"));
+    }
+
+    @Test
+    public void testSendAsync_cancel() throws Exception {
+        DebugContext context = DebugContext.getContext();
+
+        CompletableFuture<HttpResponse<String>> result = client.sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+        assertSame(delegate.future, result);
+        result.cancel(true);
+
+        assertTrue(delegate.future.isCancelled());
+        DebugData httpCall = context.getDebugData().iterator().next();
+        assertTrue(((AsyncCall) httpCall.get(AsyncCall.RESPONSE)).isCompleted());
+        JSONObject response = new JSONObject(httpCall.toString()).getJSONObject(AsyncCall.RESPONSE);
+        assertTrue(response.getString("Error").startsWith("java.util.concurrent.CancellationException"));
+    }
+
+    @Test
+    public void testSend() throws Exception {
+        delegate.response = new StubResponse(request, 200);
+
+        assertSame(delegate.response, client.send(request, HttpResponse.BodyHandlers.ofString()));
+
+        assertEquals(1, DebugContext.getContext().getDebugData().size());
+        DebugData httpCall = DebugContext.getContext().getDebugData().iterator().next();
+        assertEquals("RestCall", httpCall.get("Type"));
+        assertEquals("http://localhost/test", httpCall.get("Url"));
+        assertEquals(200, httpCall.get("ResponseCode"));
+        assertEquals("Content-Type: text/plain\n", httpCall.get("ResponseHeaders"));
+        assertNotNull(httpCall.get("Duration"));
+        assertNotNull(httpCall.get("CalledFrom"));
+        assertNull(httpCall.get("Async"));
+    }
+
+    @Test
+    public void testSend_error() throws Exception {
+        try {
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+            fail("IOException should be thrown");
+        } catch (IOException expected) {}
+
+        DebugData httpCall = DebugContext.getContext().getDebugData().iterator().next();
+        assertEquals("java.io.IOException: connection refused", httpCall.get("Error"));
+        assertNull(httpCall.get("ResponseCode"));
+    }
+
+    @Test
+    public void testSend_noContext() throws Exception {
+        DebugContext.commit();
+        delegate.response = new StubResponse(request, 200);
+
+        assertSame(delegate.response, client.send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    @Test
+    public void testNewWebSocketBuilder() throws Exception {
+        delegate.webSocketBuilder = HttpClient.newHttpClient().newWebSocketBuilder();
+
+        assertSame(delegate.webSocketBuilder, client.newWebSocketBuilder());
+    }
+
+    static class StubHttpClient extends HttpClient {
+        CompletableFuture<HttpResponse<String>> future = new CompletableFuture<HttpResponse<String>>();
+        HttpResponse<String> response;
+        WebSocket.Builder webSocketBuilder;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+                throws IOException {
+            if(response == null) {
+                throw new IOException("connection refused");
+            }
+            return (HttpResponse<T>) response;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler) {
+            return (CompletableFuture) future;
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, handler);
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+
+        @Override
+        public WebSocket.Builder newWebSocketBuilder() {
+            return webSocketBuilder;
+        }
+    }
+
+    static class StubResponse implements HttpResponse<String> {
+        private final HttpRequest request;
+        private final int status;
+
+        StubResponse(HttpRequest request, int status) {
+            this.request = request;
+            this.status = status;
+        }
+
+        @Override
+        public int statusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of("Content-Type", List.of("text/plain")), (name, value) -> true);
+        }
+
+        @Override
+        public String body() {
+            return "body";
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
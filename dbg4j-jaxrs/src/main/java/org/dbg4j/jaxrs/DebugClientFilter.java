@@ -0,0 +1,249 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jaxrs;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.ws.rs.client.AsyncInvoker;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.MediaType;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.adapters.impl.StackTraceException;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.AsyncCall;
+import org.dbg4j.core.context.DebugContext;
+import org.dbg4j.core.io.BoundedTeeInputStream;
+import org.dbg4j.core.io.CapturedContent;
+
+/**
+ * JAX-RS 2 client filter that collects debug information about rest calls. Response body is captured while the
+ * application reads the entity (up to {@link #setMaxBodySize(int)} bytes), so it is neither read eagerly nor
+ * buffered twice. Body of the response which is not read by the moment debug context is committed is captured
+ * partially (or not captured at all).
+ * <p/>
+ * Debug context is taken on request, so responses of async calls are recorded as well. Async invokers usually send
+ * requests on their own threads, which have no debug context - use {@link #async(Invocation.Builder)} to submit
+ * such requests: the record is added at submit time and completed when response is received (see
+ * {@link AsyncCall}), its duration includes queueing time. Async calls failed without response stay pending.
+ * <pre>
+ *     Future&lt;String&gt; result = DebugClientFilter.async(target.request()).get(String.class);
+ * </pre>
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DebugClientFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    public static final String RECORD_PROPERTY = DebugClientFilter.class.getName() + ".record";
+    public static final String CONTEXT_PROPERTY = DebugClientFilter.class.getName() + ".context";
+    public static final String START_PROPERTY = DebugClientFilter.class.getName() + ".start";
+    public static final String CALL_PROPERTY = DebugClientFilter.class.getName() + ".call";
+
+    private boolean disabled;
+    private boolean async;
+    private int maxBodySize = CapturedContent.DEFAULT_LIMIT;
+
+    /**
+     * Get async invoker which propagates current debug context (and submit time) to the filter.
+     *
+     * @param builder
+     * @return async invoker of the builder
+     */
+    public static AsyncInvoker async(@Nonnull Invocation.Builder builder) {
+        DebugContext context = DebugContext.getContext();
+        if(context != null && DebugContext.isDebugAllowed()) {
+            builder.property(CONTEXT_PROPERTY, context);
+            builder.property(START_PROPERTY, System.nanoTime());
+        }
+        return builder.async();
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        if(disabled) {
+            return;
+        }
+        Object propagated = requestContext.getProperty(CONTEXT_PROPERTY);
+        if(propagated instanceof DebugContext) {
+            submitAsyncCall(requestContext, (DebugContext) propagated);
+            return;
+        }
+        if(!DebugContext.isDebugAllowed()) {
+            return;
+        }
+        try {
+            DebugData restCall = new DebugData();
+            appendRequestDetails(requestContext, restCall);
+            requestContext.setProperty(RECORD_PROPERTY, restCall);
+            requestContext.setProperty(CONTEXT_PROPERTY, DebugContext.getContext());
+            requestContext.setProperty(START_PROPERTY, System.nanoTime());
+        } catch (Exception ignored) { }
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext)
+            throws IOException {
+        Object call = requestContext.getProperty(CALL_PROPERTY);
+        if(call instanceof AsyncCall) {
+            completeAsyncCall(responseContext, (AsyncCall) call);
+            return;
+        }
+        Object restCall = requestContext.getProperty(RECORD_PROPERTY);
+        Object context = requestContext.getProperty(CONTEXT_PROPERTY);
+        if(!(restCall instanceof DebugData) || !(context instanceof DebugContext)) {
+            return;
+        }
+        try {
+            Object start = requestContext.getProperty(START_PROPERTY);
+            if(start instanceof Long) {
+                ((DebugData) restCall).set("Duration", Math.round((System.nanoTime() - (Long) start) / 1000d) / 1000d);
+            }
+            try { throw new StackTraceException();}
+            catch(StackTraceException e) {
+                appendResponseDetails(responseContext, (DebugData) restCall, e);
+            }
+            ((DebugContext) context).addDebugRecord((DebugData) restCall);
+        } catch (Exception ignored) { }
+    }
+
+    protected void submitAsyncCall(@Nonnull ClientRequestContext requestContext, @Nonnull DebugContext context) {
+        try {
+            DebugData restCall = new DebugData();
+            appendRequestDetails(requestContext, restCall);
+            restCall.set("Async", true);
+            Object start = requestContext.getProperty(START_PROPERTY);
+            AsyncCall call = AsyncCall.submit(context, restCall,
+                    (start instanceof Long) ? (Long) start : System.nanoTime());
+            if(call != null) {
+                requestContext.setProperty(CALL_PROPERTY, call);
+            }
+        } catch (Exception ignored) { }
+    }
+
+    protected void completeAsyncCall(@Nonnull ClientResponseContext responseContext, @Nonnull AsyncCall call) {
+        try {
+            DebugData details = new DebugData();
+            appendResponseDetails(responseContext, details, null);
+            for(Map.Entry<String, Object> entry: details.getAll().entrySet()) {
+                call.set(entry.getKey(), entry.getValue());
+            }
+        } catch (Exception ignored) {
+        } finally {
+            call.complete();
+        }
+    }
+
+    protected void appendRequestDetails(@Nonnull ClientRequestContext request, @Nonnull DebugData restCall) {
+        try {
+            restCall.set("Type", "RestCall");
+            restCall.set("Url", request.getUri().toASCIIString());
+            restCall.set("Method", request.getMethod());
+            restCall.set("Async", async);
+            restCall.set("RequestHeaders", getHeaders(request.getStringHeaders()));
+            if(request.hasEntity()){
+                restCall.set("Payload", String.valueOf(request.getEntity()));
+            }
+        } catch (Exception ignored) { }
+    }
+
+    protected void appendResponseDetails(@Nonnull ClientResponseContext response, @Nonnull DebugData restCall,
+            @Nullable Exception e) {
+        try {
+            restCall.set("ResponseHeaders", getHeaders(response.getHeaders()));
+            restCall.set("ResponseCode", response.getStatus());
+            if(response.hasEntity()) {
+                CapturedContent body = new CapturedContent(maxBodySize, getCharset(response.getMediaType()));
+                response.setEntityStream(new BoundedTeeInputStream(response.getEntityStream(), body));
+                restCall.set("ResponseBody", body);
+            }
+            if(e != null){
+                restCall.set("CalledFrom", DebugUtils.getStackTrace(e));
+            }
+        } catch (Exception ignored) { }
+    }
+
+    private String getHeaders(Map<String, List<String>> headers) {
+        String result = "Error retrieving headers: ";
+        try {
+            StringBuilder b = new StringBuilder();
+            for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+                b.append(e.getKey()).append(": ");
+                boolean add = false;
+                for (String value : e.getValue()) {
+                    if (add){
+                        b.append(',');
+                    }
+                    add = true;
+                    b.append(value);
+                }
+                b.append("\n");
+            }
+            result = b.toString();
+        } catch (Exception e) {
+            result += e.toString();
+        }
+        return result;
+    }
+
+    @Nullable
+    private static Charset getCharset(@Nullable MediaType mediaType) {
+        try {
+            String charset = (mediaType != null) ? mediaType.getParameters().get(MediaType.CHARSET_PARAMETER) : null;
+            return (charset != null) ? Charset.forName(charset) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    public void setDisabled(boolean disabled) {
+        this.disabled = disabled;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Max number of captured bytes of response body.
+     *
+     * @param maxBodySize
+     */
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+}
@@ -0,0 +1,215 @@
+package org.dbg4j.jaxrs;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.client.AsyncInvoker;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.json.JSONObject;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.AsyncCall;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.mockito.Mockito.*;
+
+import static junit.framework.Assert.*;
+
+public class DebugClientFilterTest {
+
+    private DebugClientFilter filter;
+    private ClientRequestContext request;
+    private ClientResponseContext response;
+    private Map<String, Object> properties;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = new DebugClientFilter();
+        request = mock(ClientRequestContext.class);
+        response = mock(ClientResponseContext.class);
+
+        properties = new HashMap<String, Object>();
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                properties.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(request).setProperty(anyString(), any());
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return properties.get(invocation.getArguments()[0]);
+            }
+        }).when(request).getProperty(anyString());
+
+        MultivaluedMap<String, String> requestHeaders = new MultivaluedHashMap<String, String>();
+        requestHeaders.add("Accept", "text/plain");
+        requestHeaders.add("Accept", "application/json");
+        when(request.getUri()).thenReturn(new URI("http://localhost/test"));
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getStringHeaders()).thenReturn(requestHeaders);
+        when(request.hasEntity()).thenReturn(true);
+        when(request.getEntity()).thenReturn("payload");
+
+        MultivaluedMap<String, String> responseHeaders = new MultivaluedHashMap<String, String>();
+        responseHeaders.add("Content-Type", "text/plain");
+        when(response.getHeaders()).thenReturn(responseHeaders);
+        when(response.getStatus()).thenReturn(200);
+        when(response.hasEntity()).thenReturn(true);
+        when(response.getMediaType()).thenReturn(new MediaType("text", "plain",
+                Collections.singletonMap(MediaType.CHARSET_PARAMETER, "UTF-8")));
+        when(response.getEntityStream()).thenReturn(new ByteArrayInputStream("response body".getBytes("UTF-8")));
+
+        DebugContext.init(null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testFilter_disabled() throws Exception {
+        filter.setDisabled(true);
+
+        filter.filter(request);
+        filter.filter(request, response);
+
+        assertEquals(0, DebugContext.getContext().getDebugData().size());
+        verify(response, never()).setEntityStream(any(InputStream.class));
+    }
+
+    @Test
+    public void testFilter_noContext() throws Exception {
+        DebugContext.commit();
+
+        filter.filter(request);
+        filter.filter(request, response);
+
+        verify(request, never()).setProperty(anyString(), any());
+        verify(response, never()).setEntityStream(any(InputStream.class));
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        filter.setAsync(true);
+        filter.setMaxBodySize(8);
+
+        filter.filter(request);
+        filter.filter(request, response);
+
+        ArgumentCaptor<InputStream> entityStream = ArgumentCaptor.forClass(InputStream.class);
+        verify(response, times(1)).setEntityStream(entityStream.capture());
+
+        Collection<DebugData> records = DebugContext.getContext().getDebugData();
+        assertEquals(1, records.size());
+        DebugData restCall = records.iterator().next();
+        assertEquals("RestCall", restCall.get("Type"));
+        assertEquals("http://localhost/test", restCall.get("Url"));
+        assertEquals("POST", restCall.get("Method"));
+        assertEquals(true, restCall.get("Async"));
+        assertEquals("Accept: text/plain,application/json\n", restCall.get("RequestHeaders"));
+        assertEquals("payload", restCall.get("Payload"));
+        assertEquals("Content-Type: text/plain\n", restCall.get("ResponseHeaders"));
+        assertEquals(200, restCall.get("ResponseCode"));
+        assertNotNull(restCall.get("CalledFrom"));
+        assertNotNull(restCall.get("Duration"));
+
+        //body is captured only when application reads it
+        assertEquals("", restCall.get("ResponseBody").toString());
+        InputStream in = entityStream.getValue();
+        byte[] buffer = new byte[64];
+        StringBuilder body = new StringBuilder();
+        int count;
+        while((count = in.read(buffer)) > 0) {
+            body.append(new String(buffer, 0, count, "UTF-8"));
+        }
+        assertEquals("response body", body.toString());
+        assertEquals("response...", restCall.get("ResponseBody").toString());
+    }
+
+    @Test
+    public void testFilter_asyncResponse() throws Exception {
+        filter.filter(request);
+        final DebugContext context = DebugContext.getContext();
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                DebugContext.commit();
+                try {
+                    filter.filter(request, response);
+                } catch (Exception ignored) {}
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertEquals(1, context.getDebugData().size());
+    }
+
+    @Test
+    public void testFilter_asyncInvoker() throws Exception {
+        Invocation.Builder builder = mock(Invocation.Builder.class);
+        AsyncInvoker invoker = mock(AsyncInvoker.class);
+        when(builder.async()).thenReturn(invoker);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                properties.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(builder).property(anyString(), any());
+
+        assertSame(invoker, DebugClientFilter.async(builder));
+        DebugContext context = DebugContext.getContext();
+        assertSame(context, properties.get(DebugClientFilter.CONTEXT_PROPERTY));
+
+        //request is sent by thread without debug context
+        Thread sender = new Thread() {
+            @Override
+            public void run() {
+                DebugContext.commit();
+                try {
+                    filter.filter(request);
+                } catch (Exception ignored) {}
+            }
+        };
+        sender.start();
+        sender.join();
+
+        assertEquals(1, context.getDebugData().size());
+        DebugData restCall = context.getDebugData().iterator().next();
+        assertEquals(true, restCall.get("Async"));
+        AsyncCall call = (AsyncCall) restCall.get(AsyncCall.RESPONSE);
+        assertFalse(call.isCompleted());
+        assertTrue(new JSONObject(restCall.toString()).getJSONObject(AsyncCall.RESPONSE).getBoolean("Pending"));
+
+        filter.filter(request, response);
+
+        assertTrue(call.isCompleted());
+        JSONObject json = new JSONObject(restCall.toString()).getJSONObject(AsyncCall.RESPONSE);
+        assertEquals(200, json.getInt("ResponseCode"));
+        assertTrue(json.has("Duration"));
+        assertEquals(1, context.getDebugData().size());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Connection proxy handler: wraps created statements.
+ *
+ * @author Maksym Fedoryshyn
+ */
+class ConnectionHandler extends JdbcInvocationHandler {
+
+    private ConnectionHandler(@Nonnull Connection target, @Nonnull DebugDataSource dataSource) {
+        super(target, dataSource);
+    }
+
+    static Connection wrap(@Nonnull Connection connection, @Nonnull DebugDataSource dataSource) {
+        return newProxy(Connection.class, new ConnectionHandler(connection, dataSource));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = delegate(method, args);
+        String name = method.getName();
+        if(result instanceof Statement && ("createStatement".equals(name) || "prepareStatement".equals(name)
+                || "prepareCall".equals(name))) {
+            String sql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : null;
+            return StatementHandler.wrap((Class<Statement>) method.getReturnType(), (Statement) result, sql,
+                    (Connection) proxy, dataSource);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+/**
+ * <code>DataSource</code> proxy that records JDBC statements executed through its connections: SQL, bind parameters,
+ * row count and timing. Statements are recorded only if debugging is allowed by the current debug context (the same
+ * context and allowance strategy as {@code @Debug} methods use), all statements of the context are also aggregated
+ * into single {@link StatementStatistics} record.
+ * <pre>
+ *     DataSource dataSource = DebugDataSource.wrap(originalDataSource);
+ * </pre>
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DebugDataSource {
+
+    public static final int DEFAULT_MAX_PARAMETER_LENGTH = 256;
+
+    private final DataSource target;
+    private final DataSource proxy;
+    private volatile boolean disabled;
+    private volatile boolean recordStatements = true;
+    private volatile boolean aggregateStatements = true;
+    private volatile int maxParameterLength = DEFAULT_MAX_PARAMETER_LENGTH;
+
+    public DebugDataSource(@Nonnull DataSource target) {
+        if(target == null) {
+            throw new NullPointerException("target cannot be null");
+        }
+        this.target = target;
+        this.proxy = JdbcInvocationHandler.newProxy(DataSource.class, new DataSourceHandler(target, this));
+    }
+
+    /**
+     * Wrap data source with default settings.
+     *
+     * @param target
+     * @return data source proxy
+     */
+    @Nonnull
+    public static DataSource wrap(@Nonnull DataSource target) {
+        return new DebugDataSource(target).getDataSource();
+    }
+
+    /**
+     * @return data source proxy
+     */
+    @Nonnull
+    public DataSource getDataSource() {
+        return proxy;
+    }
+
+    /**
+     * @return original data source
+     */
+    @Nonnull
+    public DataSource getTarget() {
+        return target;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    public void setDisabled(boolean disabled) {
+        this.disabled = disabled;
+    }
+
+    public boolean isRecordStatements() {
+        return recordStatements;
+    }
+
+    /**
+     * Add record for each executed statement (<code>true</code> by default).
+     *
+     * @param recordStatements
+     */
+    public void setRecordStatements(boolean recordStatements) {
+        this.recordStatements = recordStatements;
+    }
+
+    public boolean isAggregateStatements() {
+        return aggregateStatements;
+    }
+
+    /**
+     * Aggregate statements of the context into {@link StatementStatistics} record (<code>true</code> by default).
+     *
+     * @param aggregateStatements
+     */
+    public void setAggregateStatements(boolean aggregateStatements) {
+        this.aggregateStatements = aggregateStatements;
+    }
+
+    public int getMaxParameterLength() {
+        return maxParameterLength;
+    }
+
+    /**
+     * Bind parameters longer than this are truncated.
+     *
+     * @param maxParameterLength
+     */
+    public void setMaxParameterLength(int maxParameterLength) {
+        this.maxParameterLength = maxParameterLength;
+    }
+
+    private static class DataSourceHandler extends JdbcInvocationHandler {
+
+        private DataSourceHandler(@Nonnull DataSource target, @Nonnull DebugDataSource dataSource) {
+            super(target, dataSource);
+        }
+
+        @Override
+        protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if("getConnection".equals(method.getName()) && result instanceof Connection) {
+                return ConnectionHandler.wrap((Connection) result, dataSource);
+            }
+            return result;
+        }
+    }
+}
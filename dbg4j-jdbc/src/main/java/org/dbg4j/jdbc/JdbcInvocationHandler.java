@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Base handler of JDBC proxies: delegates calls to the target object and keeps identity semantic of the proxy.
+ *
+ * @author Maksym Fedoryshyn
+ */
+abstract class JdbcInvocationHandler implements InvocationHandler {
+
+    protected final Object target;
+    protected final DebugDataSource dataSource;
+
+    protected JdbcInvocationHandler(@Nonnull Object target, @Nonnull DebugDataSource dataSource) {
+        this.target = target;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if("equals".equals(name) && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if("hashCode".equals(name) && args == null) {
+            return System.identityHashCode(proxy);
+        }
+        return handle(proxy, method, args);
+    }
+
+    protected abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+    protected Object delegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <T> T newProxy(@Nonnull Class<T> type, @Nonnull InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(DebugDataSource.class.getClassLoader(), new Class[] {type}, handler);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Result set proxy handler: counts rows read by the application.
+ *
+ * @author Maksym Fedoryshyn
+ */
+class ResultSetHandler extends JdbcInvocationHandler {
+
+    private final Statement statement;
+    private final RowCount rows;
+
+    private ResultSetHandler(@Nonnull ResultSet target, @Nonnull Statement statement, @Nonnull RowCount rows,
+                             @Nonnull DebugDataSource dataSource) {
+        super(target, dataSource);
+        this.statement = statement;
+        this.rows = rows;
+    }
+
+    static ResultSet wrap(@Nonnull ResultSet resultSet, @Nonnull Statement statement, @Nonnull RowCount rows,
+                          @Nonnull DebugDataSource dataSource) {
+        return newProxy(ResultSet.class, new ResultSetHandler(resultSet, statement, rows, dataSource));
+    }
+
+    @Override
+    protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = delegate(method, args);
+        String name = method.getName();
+        if("next".equals(name) && Boolean.TRUE.equals(result)) {
+            rows.add(1);
+        } else if("getStatement".equals(name)) {
+            return statement;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.json.JSONString;
+
+/**
+ * Number of rows affected or read by the statement. Rows of result set are counted while the application iterates
+ * it, so the value is final only when result set is read.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public final class RowCount implements JSONString {
+
+    private final AtomicLong count = new AtomicLong();
+    private final StatementStatistics.Entry entry;
+
+    RowCount(@Nullable StatementStatistics.Entry entry) {
+        this.entry = entry;
+    }
+
+    void add(long rows) {
+        count.addAndGet(rows);
+        if(entry != null) {
+            entry.addRows(rows);
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(count.get());
+    }
+
+    @Override
+    public String toJSONString() {
+        return toString();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.adapters.impl.StackTraceException;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Statement proxy handler: collects bind parameters and records executions.
+ *
+ * @author Maksym Fedoryshyn
+ */
+class StatementHandler extends JdbcInvocationHandler {
+
+    static final int MAX_BATCH_STATEMENTS = 100;
+
+    private final String sql;
+    private final Connection connection;
+    private final Map<Object, String> parameters = new LinkedHashMap<Object, String>();
+    private final List<String> batchStatements = new ArrayList<String>();
+    private int batchSize;
+    private RowCount lastRows;
+
+    private StatementHandler(@Nonnull Statement target, @Nullable String sql, @Nonnull Connection connection,
+                             @Nonnull DebugDataSource dataSource) {
+        super(target, dataSource);
+        this.sql = sql;
+        this.connection = connection;
+    }
+
+    static <T extends Statement> T wrap(@Nonnull Class<T> type, @Nonnull T statement, @Nullable String sql,
+                                        @Nonnull Connection connection, @Nonnull DebugDataSource dataSource) {
+        return newProxy(type, new StatementHandler(statement, sql, connection, dataSource));
+    }
+
+    @Override
+    protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if(name.startsWith("execute")) {
+            return execute(proxy, method, args);
+        }
+        Object result = delegate(method, args);
+        if(name.startsWith("set") && args != null && args.length >= 2
+                && (args[0] instanceof Integer || args[0] instanceof String)) {
+            parameters.put(args[0], "setNull".equals(name) ? null : describe(args[1]));
+        } else if("clearParameters".equals(name)) {
+            parameters.clear();
+        } else if("addBatch".equals(name)) {
+            batchSize++;
+            if(args != null && args.length == 1 && batchStatements.size() < MAX_BATCH_STATEMENTS) {
+                batchStatements.add(String.valueOf(args[0]));
+            }
+        } else if("clearBatch".equals(name)) {
+            clearBatch();
+        } else if("getConnection".equals(name)) {
+            return connection;
+        } else if("getResultSet".equals(name) && result instanceof ResultSet && lastRows != null) {
+            return ResultSetHandler.wrap((ResultSet) result, (Statement) proxy, lastRows, dataSource);
+        } else if("getUpdateCount".equals(name) && result instanceof Integer && (Integer) result > 0
+                && lastRows != null) {
+            lastRows.add((Integer) result);
+        }
+        return result;
+    }
+
+    protected Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        boolean batch = name.endsWith("Batch");
+        if(dataSource.isDisabled() || !DebugContext.isDebugAllowed()) {
+            lastRows = null;
+            try {
+                return delegate(method, args);
+            } finally {
+                if(batch) {
+                    clearBatch();
+                }
+            }
+        }
+        DebugContext context = DebugContext.getContext();
+        String statementSql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : sql;
+        if(statementSql == null && batch && !batchStatements.isEmpty()) {
+            statementSql = join(batchStatements);
+        }
+        StatementStatistics.Entry entry = dataSource.isAggregateStatements()
+                ? StatementStatistics.forContext(context).getEntry(statementSql) : null;
+        RowCount rows = new RowCount(entry);
+        lastRows = rows;
+
+        Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            Object result = delegate(method, args);
+            if(result instanceof Number) {
+                rows.add(((Number) result).longValue());
+            } else if(result instanceof int[]) {
+                for(int count: (int[]) result) {
+                    rows.add(Math.max(count, 0));
+                }
+            } else if(result instanceof long[]) {
+                for(long count: (long[]) result) {
+                    rows.add(Math.max(count, 0));
+                }
+            } else if(result instanceof ResultSet) {
+                result = ResultSetHandler.wrap((ResultSet) result, (Statement) proxy, rows, dataSource);
+            }
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            try {
+                if(entry != null) {
+                    entry.add(duration, error != null);
+                }
+                if(dataSource.isRecordStatements()) {
+                    context.addDebugRecord(createRecord(statementSql, batch, rows, duration, error));
+                }
+            } catch (Exception ignored) { }
+            if(batch) {
+                clearBatch();
+            }
+        }
+    }
+
+    protected DebugData createRecord(@Nullable String statementSql, boolean batch, @Nonnull RowCount rows,
+                                     long duration, @Nullable Throwable error) {
+        DebugData sqlCall = new DebugData();
+        sqlCall.set("Type", "Sql");
+        sqlCall.set("Sql", statementSql);
+        if(!parameters.isEmpty()) {
+            sqlCall.set("Parameters", parameters.toString());
+        }
+        if(batch) {
+            sqlCall.set("Batch", batchSize);
+        }
+        sqlCall.set("Rows", rows);
+        sqlCall.set("Duration", StatementStatistics.toMillis(duration));
+        if(error != null) {
+            sqlCall.set("Error", error.toString());
+        }
+        try { throw new StackTraceException();}
+        catch(StackTraceException e) {
+            sqlCall.set("CalledFrom", DebugUtils.getStackTrace(e));
+        }
+        return sqlCall;
+    }
+
+    protected String describe(Object value) {
+        if(value == null) {
+            return null;
+        } else if(value instanceof InputStream) {
+            return "<stream>";
+        } else if(value instanceof Reader) {
+            return "<reader>";
+        } else if(value instanceof Blob) {
+            return "<blob>";
+        } else if(value instanceof Clob) {
+            return "<clob>";
+        } else if(value instanceof byte[]) {
+            return "byte[" + ((byte[]) value).length + "]";
+        }
+        String result = String.valueOf(value);
+        int maxLength = dataSource.getMaxParameterLength();
+        if(maxLength >= 0 && result.length() > maxLength) {
+            result = result.substring(0, maxLength) + "...";
+        }
+        return result;
+    }
+
+    private void clearBatch() {
+        batchSize = 0;
+        batchStatements.clear();
+    }
+
+    private static String join(List<String> statements) {
+        StringBuilder b = new StringBuilder();
+        for(String statement: statements) {
+            if(b.length() > 0) {
+                b.append(";\n");
+            }
+            b.append(statement);
+        }
+        return b.toString();
+    }
+}
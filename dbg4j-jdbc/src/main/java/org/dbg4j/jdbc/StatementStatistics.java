@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Statements executed in the debug context aggregated by SQL: number of executions, total and max duration (in
+ * milliseconds), number of rows and errors. Statistics is added to the context as single <code>SqlStatistics</code>
+ * record when the first statement is executed, and written sorted by total duration. Statistics is kept in the
+ * context property {@link #STATISTICS_PROPERTY}.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class StatementStatistics implements JSONString {
+
+    public static final int MAX_STATEMENTS = 1000;
+    /** key of statements which exceed {@link #MAX_STATEMENTS} limit */
+    public static final String OTHER = "<other>";
+
+    /** context property that holds statistics of the context */
+    public static final String STATISTICS_PROPERTY = "dbg4j.sqlStatistics";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    protected StatementStatistics() {
+    }
+
+    /**
+     * Get statistics of the context (statistics is created and added to the context if needed).
+     *
+     * @param context
+     * @return statistics of the context
+     */
+    @Nonnull
+    public static StatementStatistics forContext(@Nonnull DebugContext context) {
+        StatementStatistics statistics = (StatementStatistics) context.getProperty(STATISTICS_PROPERTY);
+        if(statistics != null) {
+            return statistics;
+        }
+        //only the first statement of the context gets here
+        synchronized (context) {
+            statistics = (StatementStatistics) context.getProperty(STATISTICS_PROPERTY);
+            if(statistics != null) {
+                return statistics;
+            }
+            statistics = new StatementStatistics();
+            context.addProperty(STATISTICS_PROPERTY, statistics);
+        }
+        DebugData record = new DebugData();
+        record.set("Type", "SqlStatistics");
+        record.set("Statements", statistics);
+        context.addDebugRecord(record);
+        return statistics;
+    }
+
+    /**
+     * @param sql
+     * @return statistics of the statement
+     */
+    @Nonnull
+    public synchronized Entry getEntry(@Nullable String sql) {
+        String key = (sql != null) ? sql : OTHER;
+        Entry entry = entries.get(key);
+        if(entry == null) {
+            if(entries.size() >= MAX_STATEMENTS) {
+                key = OTHER;
+                entry = entries.get(key);
+            }
+            if(entry == null) {
+                entry = new Entry(key);
+                entries.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return statistics of all statements sorted by total duration
+     */
+    @Nonnull
+    public synchronized List<Entry> getEntries() {
+        List<Entry> result = new ArrayList<Entry>(entries.values());
+        Collections.sort(result, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry e1, Entry e2) {
+                long d1 = e1.getDuration();
+                long d2 = e2.getDuration();
+                return (d1 < d2) ? 1 : ((d1 == d2) ? 0 : -1);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public String toJSONString() {
+        JSONArray result = new JSONArray();
+        for(Entry entry: getEntries()) {
+            try {
+                JSONObject json = new JSONObject();
+                json.put("Sql", entry.getSql());
+                json.put("Count", entry.getCount());
+                json.put("Duration", toMillis(entry.getDuration()));
+                json.put("MaxDuration", toMillis(entry.getMaxDuration()));
+                json.put("Rows", entry.getRows());
+                json.put("Errors", entry.getErrors());
+                result.put(json);
+            } catch (JSONException ignored) {}
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJSONString();
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1000d) / 1000d;
+    }
+
+    /**
+     * Statistics of single statement.
+     */
+    public static class Entry {
+        private final String sql;
+        private long count;
+        private long duration;
+        private long maxDuration;
+        private long rows;
+        private long errors;
+
+        protected Entry(@Nonnull String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void add(long nanos, boolean error) {
+            count++;
+            duration += nanos;
+            maxDuration = Math.max(maxDuration, nanos);
+            if(error) {
+                errors++;
+            }
+        }
+
+        synchronized void addRows(long rows) {
+            this.rows += rows;
+        }
+
+        @Nonnull
+        public String getSql() {
+            return sql;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * @return total duration in nanoseconds
+         */
+        public synchronized long getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return max duration in nanoseconds
+         */
+        public synchronized long getMaxDuration() {
+            return maxDuration;
+        }
+
+        public synchronized long getRows() {
+            return rows;
+        }
+
+        public synchronized long getErrors() {
+            return errors;
+        }
+    }
+}
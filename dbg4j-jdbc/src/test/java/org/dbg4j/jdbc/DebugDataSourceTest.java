@@ -0,0 +1,173 @@
+package org.dbg4j.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.mockito.Mockito.*;
+
+import static junit.framework.Assert.*;
+
+public class DebugDataSourceTest {
+
+    private static final String SELECT = "select * from users where name = ? and age = ?";
+    private static final String UPDATE = "update users set age = ?";
+
+    private DataSource target;
+    private Connection connection;
+    private PreparedStatement preparedStatement;
+    private Statement statement;
+    private ResultSet resultSet;
+    private DebugDataSource debugDataSource;
+    private DataSource dataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        preparedStatement = mock(PreparedStatement.class);
+        statement = mock(Statement.class);
+        resultSet = mock(ResultSet.class);
+
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(preparedStatement.executeUpdate()).thenReturn(3);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        debugDataSource = new DebugDataSource(target);
+        dataSource = debugDataSource.getDataSource();
+        DebugContext.init(null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testExecute_noContext() throws Exception {
+        DebugContext.commit();
+
+        PreparedStatement ps = dataSource.getConnection().prepareStatement(SELECT);
+        ps.setString(1, "john");
+        ResultSet rs = ps.executeQuery();
+        while(rs.next()) {}
+
+        verify(preparedStatement, times(1)).setString(1, "john");
+        verify(resultSet, times(3)).next();
+    }
+
+    @Test
+    public void testExecute_disabled() throws Exception {
+        debugDataSource.setDisabled(true);
+
+        dataSource.getConnection().prepareStatement(UPDATE).executeUpdate();
+
+        assertEquals(0, DebugContext.getContext().getDebugData().size());
+    }
+
+    @Test
+    public void testExecuteQuery() throws Exception {
+        Connection c = dataSource.getConnection();
+        PreparedStatement ps = c.prepareStatement(SELECT);
+        ps.setString(1, "john");
+        ps.setNull(2, Types.INTEGER);
+        ResultSet rs = ps.executeQuery();
+        while(rs.next()) {}
+
+        assertSame(c, ps.getConnection());
+        assertSame(ps, rs.getStatement());
+        assertEquals(ps, ps);
+
+        List<DebugData> records = new ArrayList<DebugData>(DebugContext.getContext().getDebugData());
+        assertEquals(2, records.size());
+        assertEquals("SqlStatistics", records.get(0).get("Type"));
+        DebugData sqlCall = records.get(1);
+        assertEquals("Sql", sqlCall.get("Type"));
+        assertEquals(SELECT, sqlCall.get("Sql"));
+        assertEquals("{1=john, 2=null}", sqlCall.get("Parameters"));
+        assertEquals(2L, ((RowCount) sqlCall.get("Rows")).getCount());
+        assertNotNull(sqlCall.get("Duration"));
+        assertNotNull(sqlCall.get("CalledFrom"));
+        assertEquals(2, new JSONObject(sqlCall.toString()).getInt("Rows"));
+    }
+
+    @Test
+    public void testExecuteUpdate_aggregated() throws Exception {
+        debugDataSource.setRecordStatements(false);
+        debugDataSource.setMaxParameterLength(3);
+        PreparedStatement ps = dataSource.getConnection().prepareStatement(UPDATE);
+        ps.setString(1, "12345");
+        ps.executeUpdate();
+        ps.executeUpdate();
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("failed"));
+        try {
+            ps.executeUpdate();
+            fail("SQLException should be thrown");
+        } catch (SQLException expected) {}
+
+        assertEquals(1, DebugContext.getContext().getDebugData().size());
+        assertSame(StatementStatistics.forContext(DebugContext.getContext()),
+                DebugContext.getContext().getProperty(StatementStatistics.STATISTICS_PROPERTY));
+        StatementStatistics.Entry entry = StatementStatistics.forContext(DebugContext.getContext()).getEntry(UPDATE);
+        assertEquals(3, entry.getCount());
+        assertEquals(6, entry.getRows());
+        assertEquals(1, entry.getErrors());
+
+        DebugData statistics = DebugContext.getContext().getDebugData().iterator().next();
+        JSONArray json = new JSONObject(statistics.toString()).getJSONArray("Statements");
+        assertEquals(1, json.length());
+        assertEquals(UPDATE, json.getJSONObject(0).getString("Sql"));
+        assertEquals(3, json.getJSONObject(0).getInt("Count"));
+    }
+
+    @Test
+    public void testExecuteBatch() throws Exception {
+        debugDataSource.setAggregateStatements(false);
+        when(statement.executeBatch()).thenReturn(new int[] {1, 2, Statement.SUCCESS_NO_INFO});
+
+        Statement s = dataSource.getConnection().createStatement();
+        s.addBatch("delete from a");
+        s.addBatch("delete from b");
+        s.executeBatch();
+
+        assertEquals(1, DebugContext.getContext().getDebugData().size());
+        DebugData sqlCall = DebugContext.getContext().getDebugData().iterator().next();
+        assertEquals("delete from a;\ndelete from b", sqlCall.get("Sql"));
+        assertEquals(2, sqlCall.get("Batch"));
+        assertEquals(3L, ((RowCount) sqlCall.get("Rows")).getCount());
+    }
+
+    @Test
+    public void testExecute_updateCount() throws Exception {
+        debugDataSource.setAggregateStatements(false);
+        when(statement.execute("delete from a")).thenReturn(false);
+        when(statement.getUpdateCount()).thenReturn(5);
+
+        Statement s = dataSource.getConnection().createStatement();
+        assertFalse(s.execute("delete from a"));
+        assertEquals(5, s.getUpdateCount());
+
+        DebugData sqlCall = DebugContext.getContext().getDebugData().iterator().next();
+        assertEquals("delete from a", sqlCall.get("Sql"));
+        assertEquals(5L, ((RowCount) sqlCall.get("Rows")).getCount());
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.dbg4j.rest;
 
+import org.dbg4j.core.DebugUtils;
 import org.dbg4j.core.adapters.impl.StackTraceException;
 import org.dbg4j.core.beans.DebugData;
 import org.dbg4j.core.context.DebugContext;
@@ -98,7 +99,7 @@ public class DebugJerseyFilter extends ClientFilter {
                 restCall.set("ResponseBody", getResponseBody(response));
             }
             if(e != null){
-                restCall.set("CalledFrom", ExceptionUtils.getStackTrace(e));
+                restCall.set("CalledFrom", DebugUtils.getStackTrace(e));
             }
         } catch (Exception ignored) { }
     }
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Base class of response decorators which are selected by media type (content type without parameters). Media types
+ * ending with <code>+suffix</code> (f.e. <code>application/atom+xml</code>) match <code>*&#47;*+suffix</code> entry.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public abstract class AbstractResponseDecorator implements ResponseDecorator {
+
+    protected Set<String> mediaTypes;
+
+    protected AbstractResponseDecorator(String... mediaTypes) {
+        setMediaTypes(Arrays.asList(mediaTypes));
+    }
+
+    @Override
+    public boolean supports(@Nullable String contentType) {
+        String mediaType = getMediaType(contentType);
+        if(mediaType == null) {
+            return false;
+        }
+        if(mediaTypes.contains(mediaType)) {
+            return true;
+        }
+        int suffix = mediaType.lastIndexOf('+');
+        return suffix > 0 && mediaTypes.contains("*/*" + mediaType.substring(suffix));
+    }
+
+    @Override
+    public boolean modifiesContent() {
+        return true;
+    }
+
+    public Set<String> getMediaTypes() {
+        return mediaTypes;
+    }
+
+    /**
+     * Set media types supported by decorator.
+     *
+     * @param mediaTypes
+     */
+    public void setMediaTypes(@Nonnull Collection<String> mediaTypes) {
+        Set<String> result = new HashSet<String>(mediaTypes.size());
+        for(String mediaType: mediaTypes) {
+            String normalized = getMediaType(mediaType);
+            if(normalized != null) {
+                result.add(normalized);
+            }
+        }
+        this.mediaTypes = result;
+    }
+
+    /**
+     * Media type of the content type in lower case: <code>Text/HTML; charset=UTF-8</code> -> <code>text/html</code>
+     *
+     * @param contentType
+     * @return
+     */
+    @Nullable
+    protected static String getMediaType(@Nullable String contentType) {
+        if(contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        String result = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim();
+        return result.length() == 0 ? null : result.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Index of the last non-whitespace character before <code>from</code> (inclusive) or <code>-1</code>.
+     *
+     * @param content
+     * @param from
+     * @return
+     */
+    protected static int lastNonWhitespace(@Nonnull String content, int from) {
+        int i = Math.min(from, content.length() - 1);
+        while(i >= 0 && Character.isWhitespace(content.charAt(i))) {
+            i--;
+        }
+        return i;
+    }
+}
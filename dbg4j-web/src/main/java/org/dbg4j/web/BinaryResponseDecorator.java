@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * Decorator of binary responses (f.e. protobuf). Body is never touched: debug data is put into
+ * {@link DebugSessionStore} and response references it with {@link DebugSessionStore#SESSION_HEADER} header, so data
+ * may be fetched from {@link DebugSessionServlet}. Session id of the context is used if it has one (see
+ * {@link DebugFilter#setSessionStore(DebugSessionStore)}), otherwise new id is generated.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class BinaryResponseDecorator extends AbstractResponseDecorator {
+
+    private DebugSessionStore store;
+
+    public BinaryResponseDecorator(@Nonnull DebugSessionStore store) {
+        super("application/octet-stream", "application/protobuf", "application/x-protobuf",
+                "application/vnd.google.protobuf");
+        if(store == null) {
+            throw new NullPointerException("argument cannot be a null");
+        }
+        this.store = store;
+    }
+
+    @Override
+    public boolean modifiesContent() {
+        return false;
+    }
+
+    @Nonnull
+    @Override
+    public String decorate(@Nonnull String content, @Nonnull Collection<DebugData> data,
+                           @Nonnull HttpServletResponse response) {
+        if(response.isCommitted()) {
+            return content;
+        }
+        DebugContext context = DebugContext.getContext();
+        Object sessionId = (context != null) ? context.getProperty(DebugSessionStore.SESSION_ID_PROPERTY) : null;
+        String id = (sessionId instanceof String && DebugSessionStore.isValidSessionId((String) sessionId))
+                ? (String) sessionId : DebugSessionStore.newSessionId();
+        store.write(data, id);
+        response.setHeader(DebugSessionStore.SESSION_HEADER, id);
+        return content;
+    }
+
+    public DebugSessionStore getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+import javax.annotation.Nonnull;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+import org.dbg4j.core.io.CapturedContent;
+
+/**
+ * Request wrapper which captures request body (up to the limit) while the application reads it. Body is not read
+ * in advance, so large uploads are neither delayed nor kept in memory. Note that body of form requests which is
+ * parsed by the container (<code>getParameter()</code>) is not captured.
+ * <p/>
+ * Body is kept as raw bytes and decoded with request character encoding when it is written, so encoding set after
+ * the request is wrapped (f.e. by character encoding filter) is respected.
+ *
+ * @see DebugFilter#setRecordRequest(boolean)
+ * @author Maksym Fedoryshyn
+ */
+public class CapturingHttpServletRequest extends HttpServletRequestWrapper {
+
+    private static final String DEFAULT_ENCODING = "ISO-8859-1";
+
+    private final CapturedContent body;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    public CapturingHttpServletRequest(@Nonnull HttpServletRequest request, int maxBodySize) {
+        super(request);
+        this.body = new CapturedContent(maxBodySize, null) {
+            @Nonnull
+            @Override
+            public Charset getCharset() {
+                Charset charset = null;
+                try {
+                    charset = CapturingHttpServletRequest.getCharset(getCharacterEncoding());
+                } catch (Exception ignored) {
+                    //request may be already recycled by the container
+                }
+                return (charset != null) ? charset : super.getCharset();
+            }
+        };
+    }
+
+    @Override
+    public synchronized ServletInputStream getInputStream() throws IOException {
+        if(inputStream == null) {
+            inputStream = new DebugServletInputStream(super.getInputStream(), body);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public synchronized BufferedReader getReader() throws IOException {
+        if(reader == null) {
+            String encoding = getCharacterEncoding();
+            reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                    (encoding != null) ? encoding : DEFAULT_ENCODING));
+        }
+        return reader;
+    }
+
+    /**
+     * @return body captured so far
+     */
+    @Nonnull
+    public CapturedContent getBody() {
+        return body;
+    }
+
+    private static Charset getCharset(String encoding) {
+        try {
+            return Charset.forName((encoding != null) ? encoding : DEFAULT_ENCODING);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Streams records of debugged requests as Server-Sent Events while they are added (live tail of long-running
+ * requests). Subscription id is taken from path info (<code>/tail/{subscriptionId}</code>) or from <code>id</code>
+ * request parameter. Client picks subscription id and passes it to the debugged request in
+ * {@link DebugRecordBroadcaster#SUBSCRIPTION_HEADER} header.
+ *
+ * Following events are sent: <code>record</code> (json of debug record), <code>dropped</code> (total number of
+ * records dropped because client was too slow) and <code>commit</code> (session is over, stream is closed). Stream is
+ * also closed after max stream time. By default broadcaster published by {@link DebugFilter} in servlet context is
+ * used, it may be also set explicitly ({@link #setBroadcaster(DebugRecordBroadcaster)}).
+ *
+ * Note that debug data may contain sensitive information, so access to this servlet should be restricted.
+ *
+ * @see DebugRecordBroadcaster
+ * @author Maksym Fedoryshyn
+ */
+public class DebugEventStreamServlet extends HttpServlet {
+
+    public static final String SUBSCRIPTION_ID_PARAMETER = "id";
+    public static final long DEFAULT_MAX_STREAM_TIME = TimeUnit.MINUTES.toMillis(1);
+    public static final long DEFAULT_HEARTBEAT_INTERVAL = TimeUnit.SECONDS.toMillis(15);
+
+    private static final long POLL_INTERVAL = 500;
+
+    private DebugRecordBroadcaster broadcaster;
+    private long maxStreamTime = DEFAULT_MAX_STREAM_TIME;
+    private long heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        DebugRecordBroadcaster broadcaster = getBroadcaster();
+        if(broadcaster == null) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Debug record broadcaster is not configured");
+            return;
+        }
+        String subscriptionId = getSubscriptionId(req);
+        if(!DebugSessionStore.isValidSessionId(subscriptionId)) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid subscription id");
+            return;
+        }
+        DebugRecordBroadcaster.Subscriber subscriber = broadcaster.subscribe(subscriptionId);
+        if(subscriber == null) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many subscribers");
+            return;
+        }
+        try {
+            resp.setContentType("text/event-stream");
+            resp.setCharacterEncoding("UTF-8");
+            resp.setHeader("Cache-Control", "no-cache");
+            PrintWriter writer = resp.getWriter();
+            writer.print(": " + subscriptionId + "\n\n");
+            writer.flush();
+            stream(subscriber, writer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            broadcaster.unsubscribe(subscriber);
+        }
+    }
+
+    protected void stream(DebugRecordBroadcaster.Subscriber subscriber, PrintWriter writer)
+            throws InterruptedException {
+        long now = System.currentTimeMillis();
+        long deadline = now + maxStreamTime;
+        long heartbeat = now + heartbeatInterval;
+        long dropped = 0;
+        long eventId = 0;
+        while(!subscriber.isCompleted() && !writer.checkError()) {
+            now = System.currentTimeMillis();
+            if(now >= deadline) {
+                return;
+            }
+            DebugData record = subscriber.poll(Math.min(POLL_INTERVAL, deadline - now), TimeUnit.MILLISECONDS);
+            if(subscriber.getDropped() != dropped) {
+                dropped = subscriber.getDropped();
+                writeEvent(writer, "dropped", null, String.valueOf(dropped));
+            }
+            if(record != null) {
+                writeEvent(writer, "record", String.valueOf(++eventId), record.toString());
+                heartbeat = System.currentTimeMillis() + heartbeatInterval;
+            } else if(System.currentTimeMillis() >= heartbeat) {
+                writer.print(": heartbeat\n\n");
+                writer.flush();
+                heartbeat = System.currentTimeMillis() + heartbeatInterval;
+            }
+        }
+        if(subscriber.isCompleted()) {
+            writeEvent(writer, "commit", null, String.valueOf(subscriber.getDropped()));
+        }
+    }
+
+    private static void writeEvent(PrintWriter writer, String event, String id, String data) {
+        StringBuilder result = new StringBuilder();
+        if(id != null) {
+            result.append("id: ").append(id).append('\n');
+        }
+        result.append("event: ").append(event).append('\n');
+        for(String line: data.split("\r\n|\r|\n")) {
+            result.append("data: ").append(line).append('\n');
+        }
+        writer.print(result.append('\n'));
+        writer.flush();
+    }
+
+    protected String getSubscriptionId(HttpServletRequest req) {
+        String pathInfo = req.getPathInfo();
+        if(pathInfo != null && pathInfo.length() > 1) {
+            return pathInfo.substring(1);
+        }
+        return req.getParameter(SUBSCRIPTION_ID_PARAMETER);
+    }
+
+    public DebugRecordBroadcaster getBroadcaster() {
+        if(broadcaster == null && getServletConfig() != null) {
+            Object attribute = getServletContext().getAttribute(DebugRecordBroadcaster.BROADCASTER_ATTRIBUTE);
+            if(attribute instanceof DebugRecordBroadcaster) {
+                return (DebugRecordBroadcaster) attribute;
+            }
+        }
+        return broadcaster;
+    }
+
+    public void setBroadcaster(DebugRecordBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    public long getMaxStreamTime() {
+        return maxStreamTime;
+    }
+
+    /**
+     * Max time (in milliseconds) stream is kept open for. Each stream occupies request thread while it is open, so
+     * it is short by default; client may reconnect with the same subscription id to continue watching.
+     *
+     * @param maxStreamTime
+     */
+    public void setMaxStreamTime(long maxStreamTime) {
+        this.maxStreamTime = maxStreamTime;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    /**
+     * Interval (in milliseconds) of comment lines sent while there is no records, so proxies keep connection open and
+     * disconnected clients are detected.
+     *
+     * @param heartbeatInterval
+     */
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+}
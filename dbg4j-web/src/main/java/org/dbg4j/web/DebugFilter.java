@@ -18,10 +18,13 @@
 
 package org.dbg4j.web;
 
+import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
 import org.dbg4j.core.appenders.ContentFilter;
+import org.dbg4j.core.beans.DebugData;
 import org.dbg4j.core.context.ContextListener;
 import org.dbg4j.core.context.DebugAllowanceStrategy;
 import org.dbg4j.core.context.DebugContext;
+import org.dbg4j.core.io.CapturedContent;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -31,9 +34,28 @@ import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Debug Filter initiates debug context (if debugging is allowed) and commits it on request complete.
+ * <p/>
+ * In speculative mode (see {@link #setSpeculative(boolean)}) number of records is limited and debug data is reported
+ * to the listeners only if request was slow, returned <code>5xx</code> status or has failed. Data of all other requests
+ * is discarded. Values may be also evaluated lazily (see {@link #setDeferEvaluation(boolean)}), so values of discarded
+ * requests are never evaluated.
+ * <p/>
+ * Inbound request (method, url, headers, status, duration and body) is recorded if {@link #setRecordRequest(boolean)}
+ * is set. Body is captured while the application reads it, up to {@link #setMaxRequestBodySize(int)} bytes.
+ * <p/>
+ * If session store is set (see {@link #setSessionStore(DebugSessionStore)}) debug data is delivered out of band:
+ * response is not touched except for {@link DebugSessionStore#SESSION_HEADER} header with the session id, data of
+ * committed context is put into the store and may be fetched by that id from {@link DebugSessionServlet}. In
+ * speculative mode only data of kept requests is stored.
+ * <p/>
+ * If record broadcaster is set (see {@link #setRecordBroadcaster(DebugRecordBroadcaster)}) records may be watched
+ * live while they are added (see {@link DebugEventStreamServlet}). In this case client chooses subscription id and
+ * passes it in {@link DebugRecordBroadcaster#SUBSCRIPTION_HEADER} request header. Session id of the store is always
+ * generated by the filter.
  *
  * @author Maksym Fedoryshyn
  */
@@ -43,6 +65,20 @@ public class DebugFilter implements Filter {
     protected ContextListener[] listeners;
     protected ContentFilter[] contentFilters;
     protected boolean disabled;
+    protected boolean speculative;
+    protected boolean deferEvaluation;
+    protected long latencyThreshold = DEFAULT_LATENCY_THRESHOLD;
+    protected int speculativeBufferSize = DEFAULT_SPECULATIVE_BUFFER_SIZE;
+    protected boolean recordRequest;
+    protected int maxRequestBodySize = CapturedContent.DEFAULT_LIMIT;
+    protected DebugSessionStore sessionStore;
+    protected DebugRecordBroadcaster recordBroadcaster;
+
+    public static final long DEFAULT_LATENCY_THRESHOLD = 1000;
+    public static final int DEFAULT_SPECULATIVE_BUFFER_SIZE = 1000;
+    public static final String STATUS_RESPONSE_PROPERTY = "dbg4j.statusResponse";
+    public static final String REQUEST_RECORD_PROPERTY = "dbg4j.requestRecord";
+    public static final String REQUEST_TYPE = "Request";
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws ServletException, IOException {
@@ -80,7 +116,35 @@ public class DebugFilter implements Filter {
     protected void initDebugContext(@Nonnull ServletRequest request, @Nonnull ServletResponse response) {
         try {
             if(isDebuggingAllowed(request, response)) {
-                DebugContext debugContext = DebugContext.init(debugAllowanceStrategy, listeners);
+                DebugContext debugContext;
+                if(speculative) {
+                    //listeners are registered on commit, only if request is kept
+                    debugContext = DebugContext.init(debugAllowanceStrategy, getSpeculativeListeners());
+                    debugContext.setMaxRecords(speculativeBufferSize);
+                } else {
+                    debugContext = DebugContext.init(debugAllowanceStrategy, getContextListeners());
+                }
+                if(deferEvaluation) {
+                    debugContext.addProperty(DefaultDebuggingAdapter.DEFER_EVALUATION_PROPERTY, Boolean.TRUE);
+                }
+                if(sessionStore != null && response instanceof HttpServletResponse) {
+                    String sessionId = DebugSessionStore.newSessionId();
+                    debugContext.addProperty(DebugSessionStore.SESSION_ID_PROPERTY, sessionId);
+                    ((HttpServletResponse) response).setHeader(DebugSessionStore.SESSION_HEADER, sessionId);
+                }
+                if(recordBroadcaster != null) {
+                    String subscriptionId = getSubscriptionId(request);
+                    if(subscriptionId != null) {
+                        debugContext.addProperty(DebugRecordBroadcaster.SUBSCRIPTION_ID_PROPERTY, subscriptionId);
+                    }
+                }
+                if((speculative || recordRequest) && response instanceof HttpServletResponse) {
+                    response = new StatusCapturingHttpServletResponse((HttpServletResponse) response);
+                    debugContext.addProperty(STATUS_RESPONSE_PROPERTY, response);
+                }
+                if(recordRequest && request instanceof HttpServletRequest) {
+                    request = initRequestRecord(debugContext, (HttpServletRequest) request);
+                }
                 debugContext.addProperty("HttpServletRequest", request);
                 debugContext.addProperty("HttpServletResponse", response);
 
@@ -91,6 +155,171 @@ public class DebugFilter implements Filter {
         }
     }
 
+    /**
+     * Listeners of debug context. Allowance strategy is also registered if it is a {@link ContextListener} (f.e.
+     * {@link org.dbg4j.core.context.strategies.AdaptiveSamplingDebugAllowanceStrategy}).
+     *
+     * @return
+     */
+    protected ContextListener[] getContextListeners() {
+        if(!(debugAllowanceStrategy instanceof ContextListener)) {
+            return getReportingListeners();
+        }
+        return append(getReportingListeners(), (ContextListener) debugAllowanceStrategy);
+    }
+
+    /**
+     * Listeners debug data is reported to: configured listeners, session store and record broadcaster (if any).
+     *
+     * @return
+     */
+    protected ContextListener[] getReportingListeners() {
+        ContextListener[] result = listeners;
+        if(recordBroadcaster != null) {
+            result = append(result, recordBroadcaster);
+        }
+        if(sessionStore != null) {
+            result = append(result, sessionStore);
+        }
+        return result;
+    }
+
+    /**
+     * Subscription id passed by client in {@link DebugRecordBroadcaster#SUBSCRIPTION_HEADER} header.
+     *
+     * @param request
+     * @return id or <code>null</code> if header is missing or invalid
+     */
+    @Nullable
+    protected String getSubscriptionId(@Nonnull ServletRequest request) {
+        if(request instanceof HttpServletRequest) {
+            String subscriptionId = ((HttpServletRequest) request)
+                    .getHeader(DebugRecordBroadcaster.SUBSCRIPTION_HEADER);
+            if(DebugSessionStore.isValidSessionId(subscriptionId)) {
+                return subscriptionId;
+            }
+        }
+        return null;
+    }
+
+    private static ContextListener[] append(ContextListener[] listeners, ContextListener listener) {
+        int size = (listeners != null) ? listeners.length : 0;
+        ContextListener[] result = new ContextListener[size + 1];
+        if(size > 0) {
+            System.arraycopy(listeners, 0, result, 0, size);
+        }
+        result[size] = listener;
+        return result;
+    }
+
+    /**
+     * Create record of inbound request (it is added to the context when request is completed) and wrap request to
+     * capture its body.
+     *
+     * @param debugContext
+     * @param request
+     * @return request which should be passed down the chain
+     */
+    protected HttpServletRequest initRequestRecord(@Nonnull DebugContext debugContext,
+                                                   @Nonnull HttpServletRequest request) {
+        DebugData record = new DebugData();
+        record.set("Type", REQUEST_TYPE);
+        record.set("Method", request.getMethod());
+        record.set("Url", DebugUtils.getFullUrl(request));
+        record.set("Headers", DebugUtils.getHeaders(request));
+        if(maxRequestBodySize > 0) {
+            CapturingHttpServletRequest capturingRequest = new CapturingHttpServletRequest(request,
+                    maxRequestBodySize);
+            record.set("Body", capturingRequest.getBody());
+            request = capturingRequest;
+        }
+        debugContext.addProperty(REQUEST_RECORD_PROPERTY, record);
+        return request;
+    }
+
+    /**
+     * Complete record of inbound request (status and duration) and add it to the context.
+     *
+     * @param context
+     * @param error
+     */
+    protected void addRequestRecord(@Nonnull DebugContext context, @Nullable Exception error) {
+        Object record = context.getProperty(REQUEST_RECORD_PROPERTY);
+        if(!(record instanceof DebugData)) {
+            return;
+        }
+        DebugData requestRecord = (DebugData) record;
+        Object response = context.getProperty(STATUS_RESPONSE_PROPERTY);
+        if(response instanceof StatusCapturingHttpServletResponse) {
+            requestRecord.set("Status", ((StatusCapturingHttpServletResponse) response).getStatus());
+        }
+        requestRecord.set("Duration", Math.round((System.nanoTime() - context.getStartTime()) / 1000d) / 1000d);
+        if(error != null) {
+            requestRecord.set("Error", error.toString());
+        }
+        context.addDebugRecord(requestRecord);
+    }
+
+    /**
+     * Listeners registered on speculative context before the decision whether it should be kept is made (only
+     * allowance strategy if it is a {@link ContextListener}).
+     *
+     * @return
+     */
+    protected ContextListener[] getSpeculativeListeners() {
+        if(!(debugAllowanceStrategy instanceof ContextListener)) {
+            return new ContextListener[0];
+        }
+        return new ContextListener[] {(ContextListener) debugAllowanceStrategy};
+    }
+
+    /**
+     * Decides whether data of speculative context should be reported: request has failed, returned <code>5xx</code>
+     * status or took longer than latency threshold.
+     *
+     * @param context
+     * @param error
+     * @return
+     */
+    protected boolean isKept(@Nonnull DebugContext context, @Nullable Exception error) {
+        if(error != null) {
+            return true;
+        }
+        Object response = context.getProperty(STATUS_RESPONSE_PROPERTY);
+        if(response instanceof StatusCapturingHttpServletResponse
+                && ((StatusCapturingHttpServletResponse) response).getStatus() >= 500) {
+            return true;
+        }
+        return latencyThreshold >= 0
+                && System.nanoTime() - context.getStartTime() >= TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+    }
+
+    /**
+     * Reports collected data to the listeners if speculative context is kept (records are replayed as
+     * {@link DebugContext.EventType#RECORD_ADDED} events) or discards it otherwise.
+     *
+     * @param context
+     * @param error
+     */
+    protected void completeSpeculativeContext(@Nonnull DebugContext context, @Nullable Exception error) {
+        if(!isKept(context, error)) {
+            context.discardDebugData();
+            return;
+        }
+        ContextListener[] reportingListeners = getReportingListeners();
+        if(reportingListeners == null) {
+            return;
+        }
+        for(ContextListener listener: reportingListeners) {
+            for(DebugData record: context.getDebugData()) {
+                try {
+                    listener.notify(DebugContext.EventType.RECORD_ADDED, context, record);
+                } catch (Exception ignored) {}
+            }
+        }
+        context.registerListeners(reportingListeners);
+    }
+
     /**
      * Method finalizes debug request (commits DebugContext and runs <code>postExecuteSteps</code>). It also throws
      * error if exception has happened during handling the request.
@@ -105,6 +334,14 @@ public class DebugFilter implements Filter {
                 try {
                     postExecuteSteps(DebugContext.getContext());
                 } catch (Exception ignored) { }
+                if(recordRequest) {
+                    try {
+                        addRequestRecord(DebugContext.getContext(), error);
+                    } catch (Exception ignored) { }
+                }
+                if(speculative) {
+                    completeSpeculativeContext(DebugContext.getContext(), error);
+                }
                 DebugContext.commit();
             }
         } catch (Exception ignored) {
@@ -144,7 +381,18 @@ public class DebugFilter implements Filter {
     }
 
     @Override
-    public void init(FilterConfig filterConfig) throws ServletException {}
+    public void init(FilterConfig filterConfig) throws ServletException {
+        if(filterConfig == null || filterConfig.getServletContext() == null) {
+            return;
+        }
+        if(sessionStore != null) {
+            filterConfig.getServletContext().setAttribute(DebugSessionStore.STORE_ATTRIBUTE, sessionStore);
+        }
+        if(recordBroadcaster != null) {
+            filterConfig.getServletContext().setAttribute(DebugRecordBroadcaster.BROADCASTER_ATTRIBUTE,
+                    recordBroadcaster);
+        }
+    }
 
     @Override
     public void destroy() {}
@@ -165,6 +413,115 @@ public class DebugFilter implements Filter {
         }
     }
 
+    public boolean isSpeculative() {
+        return speculative;
+    }
+
+    /**
+     * Enables speculative (tail-based) mode: data is reported only for slow or failed requests.
+     *
+     * @param speculative
+     */
+    public void setSpeculative(boolean speculative) {
+        this.speculative = speculative;
+    }
+
+    public boolean isDeferEvaluation() {
+        return deferEvaluation;
+    }
+
+    /**
+     * Evaluate values of debugged methods lazily, when data is reported (see
+     * {@link DefaultDebuggingAdapter#DEFER_EVALUATION_PROPERTY}). It makes discarded speculative requests cheaper,
+     * but values of mutable objects are reported in their state at report time instead of call time.
+     *
+     * @param deferEvaluation
+     */
+    public void setDeferEvaluation(boolean deferEvaluation) {
+        this.deferEvaluation = deferEvaluation;
+    }
+
+    public long getLatencyThreshold() {
+        return latencyThreshold;
+    }
+
+    /**
+     * Requests which took longer (in milliseconds) are reported in speculative mode. Negative value disables latency
+     * check.
+     *
+     * @param latencyThreshold
+     */
+    public void setLatencyThreshold(long latencyThreshold) {
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    public int getSpeculativeBufferSize() {
+        return speculativeBufferSize;
+    }
+
+    /**
+     * Max number of records kept by speculative context.
+     *
+     * @param speculativeBufferSize
+     */
+    public void setSpeculativeBufferSize(int speculativeBufferSize) {
+        this.speculativeBufferSize = speculativeBufferSize;
+    }
+
+    public boolean isRecordRequest() {
+        return recordRequest;
+    }
+
+    /**
+     * Record inbound request: method, url, headers, status, duration and body.
+     *
+     * @param recordRequest
+     */
+    public void setRecordRequest(boolean recordRequest) {
+        this.recordRequest = recordRequest;
+    }
+
+    public int getMaxRequestBodySize() {
+        return maxRequestBodySize;
+    }
+
+    /**
+     * Max number of captured bytes of request body (<code>0</code> disables body capturing).
+     *
+     * @param maxRequestBodySize
+     */
+    public void setMaxRequestBodySize(int maxRequestBodySize) {
+        this.maxRequestBodySize = maxRequestBodySize;
+    }
+
+    public DebugSessionStore getSessionStore() {
+        return sessionStore;
+    }
+
+    /**
+     * Enables out-of-band delivery of debug data: data is put into the store instead of being injected into response.
+     * Store is published as servlet context attribute on filter init, so {@link DebugSessionServlet} can serve it.
+     *
+     * @param sessionStore
+     */
+    public void setSessionStore(DebugSessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    public DebugRecordBroadcaster getRecordBroadcaster() {
+        return recordBroadcaster;
+    }
+
+    /**
+     * Enables live tail of debug records. Broadcaster is published as servlet context attribute on filter init, so
+     * {@link DebugEventStreamServlet} can use it.
+     *
+     * @param recordBroadcaster
+     */
+    public void setRecordBroadcaster(DebugRecordBroadcaster recordBroadcaster) {
+        this.recordBroadcaster = recordBroadcaster;
+    }
+
     public boolean isDisabled() {
         return disabled;
     }
@@ -0,0 +1,238 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.ContextListener;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * DebugRecordBroadcaster passes records to subscribers (see {@link #SUBSCRIPTION_ID_PROPERTY}) while they are added,
+ * so long-running requests may be watched live (see {@link DebugEventStreamServlet}). Subscription id is chosen by
+ * client and passed to the debugged request in {@link #SUBSCRIPTION_HEADER} header; it is used only to route records
+ * and is never used as id of stored debug session (see {@link DebugSessionStore}).
+ *
+ * Each subscriber has its own bounded queue. Application thread never waits for the subscriber: records which do not
+ * fit into the queue are dropped and counted. Contexts without subscribers cost a single map lookup.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class DebugRecordBroadcaster implements ContextListener {
+
+    /**
+     * Name of servlet context attribute {@link DebugFilter} publishes its broadcaster under.
+     */
+    public static final String BROADCASTER_ATTRIBUTE = DebugRecordBroadcaster.class.getName();
+    /**
+     * Request header with subscription id.
+     */
+    public static final String SUBSCRIPTION_HEADER = "X-Dbg4j-Subscription";
+    /**
+     * Context property with subscription id (set by {@link DebugFilter}).
+     */
+    public static final String SUBSCRIPTION_ID_PROPERTY = "dbg4j.subscriptionId";
+
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+    public static final int DEFAULT_MAX_SUBSCRIBERS = 4;
+
+    private final ConcurrentMap<String, List<Subscriber>> subscribers =
+            new ConcurrentHashMap<String, List<Subscriber>>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private int maxSubscribers = DEFAULT_MAX_SUBSCRIBERS;
+
+    @Override
+    public void notify(DebugContext.EventType eventType, DebugContext debugContext, Object... parameters) {
+        if(subscriberCount.get() == 0 || debugContext == null) {
+            return;
+        }
+        Object subscriptionId = debugContext.getProperty(SUBSCRIPTION_ID_PROPERTY);
+        List<Subscriber> sessionSubscribers = (subscriptionId == null) ? null : subscribers.get(subscriptionId);
+        if(sessionSubscribers == null) {
+            return;
+        }
+        if(DebugContext.EventType.RECORD_ADDED.equals(eventType)) {
+            Object record = (parameters != null && parameters.length > 0) ? parameters[0] : null;
+            if(record instanceof DebugData) {
+                for(Subscriber subscriber: sessionSubscribers) {
+                    subscriber.offer((DebugData) record);
+                }
+            }
+        } else if(DebugContext.EventType.CONTEXT_COMMIT.equals(eventType)) {
+            for(Subscriber subscriber: sessionSubscribers) {
+                subscriber.complete();
+            }
+        }
+    }
+
+    /**
+     * Subscribe to records of requests with given subscription id. Subscriber should be unsubscribed when it is no
+     * longer needed.
+     *
+     * @param subscriptionId
+     * @return subscriber or <code>null</code> if max number of subscribers is reached
+     */
+    @Nullable
+    public Subscriber subscribe(@Nonnull String subscriptionId) {
+        if(subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(subscriptionId, queueSize);
+        while(true) {
+            List<Subscriber> sessionSubscribers = subscribers.get(subscriptionId);
+            if(sessionSubscribers == null) {
+                List<Subscriber> created = new CopyOnWriteArrayList<Subscriber>();
+                sessionSubscribers = subscribers.putIfAbsent(subscriptionId, created);
+                if(sessionSubscribers == null) {
+                    sessionSubscribers = created;
+                }
+            }
+            sessionSubscribers.add(subscriber);
+            if(subscribers.get(subscriptionId) == sessionSubscribers) {
+                return subscriber;
+            }
+            //list was removed by concurrent unsubscribe, try again
+            sessionSubscribers.remove(subscriber);
+        }
+    }
+
+    public void unsubscribe(@Nonnull Subscriber subscriber) {
+        List<Subscriber> sessionSubscribers = subscribers.get(subscriber.getSubscriptionId());
+        if(sessionSubscribers != null && sessionSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            if(sessionSubscribers.isEmpty()) {
+                subscribers.remove(subscriber.getSubscriptionId(), sessionSubscribers);
+            }
+        }
+    }
+
+    /**
+     * Number of active subscribers.
+     *
+     * @return
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Max number of records waiting for delivery to a single subscriber.
+     *
+     * @param queueSize
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    /**
+     * Max number of concurrent subscribers. Each stream of {@link DebugEventStreamServlet} blocks a container request
+     * thread while it is open, so subscribers are taken from the same thread pool that serves the application:
+     * keep the limit well below the pool size.
+     *
+     * @param maxSubscribers
+     */
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Subscriber of debug records.
+     */
+    public static class Subscriber {
+
+        private final String subscriptionId;
+        private final BlockingQueue<DebugData> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean completed;
+
+        Subscriber(String subscriptionId, int queueSize) {
+            this.subscriptionId = subscriptionId;
+            this.queue = new ArrayBlockingQueue<DebugData>(Math.max(queueSize, 1));
+        }
+
+        void offer(DebugData record) {
+            if(!queue.offer(record)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        void complete() {
+            completed = true;
+        }
+
+        /**
+         * Wait for next record.
+         *
+         * @param timeout
+         * @param unit
+         * @return record or <code>null</code> if timeout has elapsed
+         * @throws InterruptedException
+         */
+        @Nullable
+        public DebugData poll(long timeout, TimeUnit unit) throws InterruptedException {
+            DebugData record = queue.poll();
+            if(record != null || completed) {
+                return record;
+            }
+            return queue.poll(timeout, unit);
+        }
+
+        /**
+         * Debugged request was committed and all its records were received.
+         *
+         * @return
+         */
+        public boolean isCompleted() {
+            return completed && queue.isEmpty();
+        }
+
+        public String getSubscriptionId() {
+            return subscriptionId;
+        }
+
+        /**
+         * Number of records which were dropped because queue was full.
+         *
+         * @return
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nonnull;
+import javax.servlet.ServletInputStream;
+
+import org.dbg4j.core.io.CapturedContent;
+
+/**
+ * Servlet input stream which copies bytes read by the application into {@link CapturedContent}. For internal use
+ * only.
+ *
+ * @see CapturingHttpServletRequest
+ * @author Maksym Fedoryshyn
+ */
+class DebugServletInputStream extends ServletInputStream {
+
+    private final InputStream in;
+    private final CapturedContent content;
+
+    DebugServletInputStream(@Nonnull InputStream in, @Nonnull CapturedContent content) {
+        this.in = in;
+        this.content = content;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if(b >= 0) {
+            content.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = in.read(b, off, len);
+        if(count > 0) {
+            content.write(b, off, count);
+        }
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
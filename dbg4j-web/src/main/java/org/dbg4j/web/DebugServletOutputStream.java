@@ -20,8 +20,6 @@ package org.dbg4j.web;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.ServletOutputStream;
@@ -42,25 +40,31 @@ class DebugServletOutputStream extends ServletOutputStream {
     public static final String DEBUG_TYPE = "Output";
 
     private ByteArrayOutputStream outputStream;
-    private OutputStreamWriter outputStreamWriter;
     private ReentrantLock lock = new ReentrantLock();
 
     public DebugServletOutputStream() {
         super();
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
         try {
-            outputStream = new ByteArrayOutputStream();
-            outputStreamWriter = new OutputStreamWriter(outputStream, "ISO-8859-1");
-        } catch (UnsupportedEncodingException e) {
-            outputStreamWriter = new OutputStreamWriter(outputStream);
+            lock.lock();
+            if(outputStream != null) {
+                outputStream.write(b);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
-    public void write(int b) throws IOException {
+    public void write(byte[] b, int off, int len) throws IOException {
         try {
             lock.lock();
-            if(outputStreamWriter != null) {
-                outputStreamWriter.write(b);
+            if(outputStream != null) {
+                outputStream.write(b, off, len);
             }
         } finally {
             lock.unlock();
@@ -95,23 +99,28 @@ class DebugServletOutputStream extends ServletOutputStream {
      * @return data written to the stream
      */
     String commit(){
-        String result = "";
+        return new String(commitBytes());
+    }
+
+    /**
+     * Closes output stream and returns data written to the stream as is, without any decoding (response may be
+     * compressed or binary)
+     *
+     * @return data written to the stream
+     */
+    byte[] commitBytes(){
+        byte[] result;
         if(isCommitted()) {
             throw new IllegalStateException("Response is already committed");
         }
         try {
             lock.lock();
-            try {
-                outputStreamWriter.flush();
-            } catch (IOException ignored) {}
-            result = new String(outputStream.toByteArray());
+            result = outputStream.toByteArray();
             try {
                 outputStream.close();
-                outputStreamWriter.close();
             } catch (IOException ignored) {
             } finally {
                 outputStream = null;
-                outputStreamWriter = null;
             }
         } finally {
             lock.unlock();
@@ -120,7 +129,7 @@ class DebugServletOutputStream extends ServletOutputStream {
     }
 
     public boolean isCommitted() {
-        return outputStreamWriter == null;
+        return outputStream == null;
     }
 
     protected DebugData createDebugRecord(String event) {
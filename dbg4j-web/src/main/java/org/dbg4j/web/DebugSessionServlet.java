@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves debug data of out-of-band sessions as json array. Session id is taken from path info
+ * (<code>/debug/{sessionId}</code>) or from <code>id</code> request parameter. By default store published by
+ * {@link DebugFilter} in servlet context is used, it may be also set explicitly
+ * ({@link #setStore(DebugSessionStore)}).
+ *
+ * Note that debug data may contain sensitive information, so access to this servlet should be restricted.
+ *
+ * @see DebugSessionStore
+ * @author Maksym Fedoryshyn
+ */
+public class DebugSessionServlet extends HttpServlet {
+
+    public static final String SESSION_ID_PARAMETER = "id";
+
+    private DebugSessionStore store;
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        DebugSessionStore store = getStore();
+        if(store == null) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Debug session store is not configured");
+            return;
+        }
+        String sessionId = getSessionId(req);
+        if(!DebugSessionStore.isValidSessionId(sessionId)) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid debug session id");
+            return;
+        }
+        String data = store.load(sessionId);
+        if(data == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "Debug session not found");
+            return;
+        }
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "no-store");
+        resp.getWriter().print(data);
+    }
+
+    protected String getSessionId(HttpServletRequest req) {
+        String pathInfo = req.getPathInfo();
+        if(pathInfo != null && pathInfo.length() > 1) {
+            return pathInfo.substring(1);
+        }
+        return req.getParameter(SESSION_ID_PARAMETER);
+    }
+
+    public DebugSessionStore getStore() {
+        if(store == null && getServletConfig() != null) {
+            Object attribute = getServletContext().getAttribute(DebugSessionStore.STORE_ATTRIBUTE);
+            if(attribute instanceof DebugSessionStore) {
+                return (DebugSessionStore) attribute;
+            }
+        }
+        return store;
+    }
+
+    public void setStore(DebugSessionStore store) {
+        this.store = store;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.appenders.FilterableAppender;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.ContextListener;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * DebugSessionStore keeps debug data of committed contexts, so it can be delivered out of band (see
+ * {@link DebugSessionServlet}) instead of being injected into response body. Response streams through unmodified and
+ * carries only session id header ({@link #SESSION_HEADER}), which is set by {@link DebugFilter}.
+ *
+ * Works as <code>ContextListener</code>: data is stored on <code>DebugContext.EventType.CONTEXT_COMMIT</code> event
+ * if context has session id property ({@link #SESSION_ID_PROPERTY}). Content filters are applied before data is
+ * stored.
+ *
+ * @see InMemoryDebugSessionStore
+ * @see FileDebugSessionStore
+ * @author Maksym Fedoryshyn
+ */
+public abstract class DebugSessionStore extends FilterableAppender implements ContextListener {
+
+    public static final String SESSION_ID_PROPERTY = "dbg4j.sessionId";
+    public static final String SESSION_HEADER = "X-Dbg4j-Session";
+
+    /**
+     * Name of servlet context attribute {@link DebugFilter} publishes its store under.
+     */
+    public static final String STORE_ATTRIBUTE = DebugSessionStore.class.getName();
+
+    private static final int MAX_SESSION_ID_LENGTH = 64;
+
+    @Override
+    public void notify(DebugContext.EventType eventType, DebugContext debugContext, Object... parameters) {
+        if(DebugContext.EventType.CONTEXT_COMMIT.equals(eventType) && debugContext != null) {
+            Object sessionId = debugContext.getProperty(SESSION_ID_PROPERTY);
+            if(sessionId instanceof String) {
+                write(debugContext.getDebugData(), sessionId);
+            }
+        }
+    }
+
+    @Override
+    protected void doWrite(Collection<DebugData> data, Object... params) throws Exception {
+        if(params != null && params.length > 0 && isValidSessionId((String) params[0])) {
+            store((String) params[0], data);
+        }
+    }
+
+    /**
+     * Store debug data of the session. Collection passed here is not shared with the context, so it may be kept
+     * as is.
+     *
+     * @param sessionId
+     * @param data
+     */
+    protected abstract void store(@Nonnull String sessionId, @Nonnull Collection<DebugData> data) throws Exception;
+
+    /**
+     * Get debug data of the session as json array string.
+     *
+     * @param sessionId
+     * @return json array or <code>null</code> if session is unknown or has expired
+     */
+    @Nullable
+    public abstract String load(@Nonnull String sessionId);
+
+    /**
+     * Generates new session id. Ids are random, so they can not be guessed by other clients.
+     *
+     * @return
+     */
+    @Nonnull
+    public static String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Session id is used as a file name by some stores, so only hex digits and dashes are accepted.
+     *
+     * @param sessionId
+     * @return
+     */
+    public static boolean isValidSessionId(@Nullable String sessionId) {
+        if(sessionId == null || sessionId.length() == 0 || sessionId.length() > MAX_SESSION_ID_LENGTH) {
+            return false;
+        }
+        for(int i = 0; i < sessionId.length(); i++) {
+            char c = sessionId.charAt(i);
+            if(c != '-' && Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
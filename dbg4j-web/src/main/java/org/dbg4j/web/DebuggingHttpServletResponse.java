@@ -18,11 +18,24 @@
 
 package org.dbg4j.web;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.Locale;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.Cookie;
@@ -40,6 +53,13 @@ import org.dbg4j.core.context.DebugContext;
  * In general all this wrapper does is just provides buffered output, which is updated with debugging information and
  * flushed to the original output  stream.
  *
+ * Compressed output is supported as well: if application sets <code>Content-Encoding</code> header to
+ * <code>gzip</code> or <code>deflate</code> and writes pre-compressed content, the body is inflated, updated with
+ * debugging information and compressed back. Content encoded in other way is flushed unchanged. Note that if response
+ * is compressed by another filter, <code>DebugFilter</code> should be mapped after it (so it wraps the response before
+ * compression happens) - wrapper never sees compressed content in this case. <code>Content-Length</code> set by
+ * application is held back until commit and then is replaced with the length of the actual content.
+ *
  * @author Maksym Fedoryshyn
  */
 public class DebuggingHttpServletResponse implements HttpServletResponse, ContextListener {
@@ -52,9 +72,17 @@ public class DebuggingHttpServletResponse implements HttpServletResponse, Contex
 
     boolean isGetOuputStreamCalled;
     boolean isGetWriterCalled;
+    boolean isFlushed;
+
+    private String contentEncoding;
+    private long contentLength = -1;
 
     protected HttpServletResponse response;
 
+    static final String CONTENT_LENGTH_HEADER = "Content-Length";
+    static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    static final String DEFAULT_CHARSET = "ISO-8859-1";
+
 
     public DebuggingHttpServletResponse(HttpServletResponse response) {
         if(response == null) {
@@ -88,18 +116,26 @@ public class DebuggingHttpServletResponse implements HttpServletResponse, Contex
                 try {
                     if(isGetOuputStreamCalled) {
                         try {
-                            String content = doesApply() ? appendDebugInfo(debugServletOutputStream.commit()) :
-                                    debugServletOutputStream.commit();
-                            response.getOutputStream().print(content);
+                            byte[] content = doesApply() ? injectDebugInfo(debugServletOutputStream.commitBytes()) :
+                                    debugServletOutputStream.commitBytes();
+                            updateContentLength(content.length);
+                            response.getOutputStream().write(content);
                         } catch (IllegalStateException ignored) { }
                     } else if(isGetWriterCalled) {
                         printWriter.flush();
-                        String content = doesApply() ? appendDebugInfo(stringWriter.toString()) : stringWriter.toString();
+                        String content = doesApply() && isIdentityEncoding()
+                                ? appendDebugInfo(stringWriter.toString()) : stringWriter.toString();
+                        if(contentLength >= 0) {
+                            updateContentLength(content.getBytes(getCharset()).length);
+                        }
                         response.getWriter().print(content);
                         stringWriter.close();
+                    } else if(contentLength >= 0) {
+                        updateContentLength(contentLength);
                     }
                 } catch (IOException ignored) { }
             } finally {
+                isFlushed = true;
                 writerlock.unlock();
             }
         }
@@ -165,21 +201,43 @@ public class DebuggingHttpServletResponse implements HttpServletResponse, Contex
 
     @Override
     public void setHeader(String name, String value) {
+        if(!isFlushed && CONTENT_LENGTH_HEADER.equalsIgnoreCase(name)) {
+            holdContentLength(value);
+            return;
+        }
+        if(CONTENT_ENCODING_HEADER.equalsIgnoreCase(name)) {
+            contentEncoding = value;
+        }
         response.setHeader(name, value);
     }
 
     @Override
     public void addHeader(String name, String value) {
+        if(!isFlushed && CONTENT_LENGTH_HEADER.equalsIgnoreCase(name)) {
+            holdContentLength(value);
+            return;
+        }
+        if(CONTENT_ENCODING_HEADER.equalsIgnoreCase(name)) {
+            contentEncoding = value;
+        }
         response.addHeader(name, value);
     }
 
     @Override
     public void setIntHeader(String name, int value) {
+        if(!isFlushed && CONTENT_LENGTH_HEADER.equalsIgnoreCase(name)) {
+            contentLength = value;
+            return;
+        }
         response.setIntHeader(name, value);
     }
 
     @Override
     public void addIntHeader(String name, int value) {
+        if(!isFlushed && CONTENT_LENGTH_HEADER.equalsIgnoreCase(name)) {
+            contentLength = value;
+            return;
+        }
         response.addIntHeader(name, value);
     }
 
@@ -246,7 +304,11 @@ public class DebuggingHttpServletResponse implements HttpServletResponse, Contex
 
     @Override
     public void setContentLength(int len) {
-        response.setContentLength(len);
+        if(isFlushed) {
+            response.setContentLength(len);
+        } else {
+            contentLength = len;
+        }
     }
 
     @Override
@@ -291,6 +353,8 @@ public class DebuggingHttpServletResponse implements HttpServletResponse, Contex
             writerlock.lock();
             response.reset();   //in case if response is committed
             resetDebuggingBuffers();
+            contentEncoding = null;
+            contentLength = -1;
         } finally {
             writerlock.unlock();
         }
@@ -315,6 +379,96 @@ public class DebuggingHttpServletResponse implements HttpServletResponse, Contex
         }
     }
 
+    /**
+     * Applies debugging info to the content written into output stream. Content is decoded with response character
+     * encoding (and inflated in a case of <code>gzip</code> or <code>deflate</code> content encoding), passed to
+     * {@link #appendDebugInfo(String)} and encoded back. Content with unsupported encoding and content which cannot be
+     * inflated is returned as is.
+     *
+     * @param content raw bytes written by application
+     * @return content which should be sent to the client
+     */
+    protected byte[] injectDebugInfo(byte[] content) {
+        String encoding = contentEncoding == null ? "" : contentEncoding.trim().toLowerCase(Locale.ENGLISH);
+        try {
+            if(isIdentityEncoding()) {
+                if(isGzipped(content)) {
+                    return content; //pre-compressed content without Content-Encoding header, leave it alone
+                }
+                ByteArrayOutputStream result = new ByteArrayOutputStream();
+                splice(new ByteArrayInputStream(content), result);
+                return result.toByteArray();
+            }
+            if("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+                ByteArrayOutputStream result = new ByteArrayOutputStream();
+                GZIPOutputStream out = new GZIPOutputStream(result);
+                splice(new GZIPInputStream(new ByteArrayInputStream(content)), out);
+                out.finish();
+                return result.toByteArray();
+            }
+            if("deflate".equals(encoding)) {
+                ByteArrayOutputStream result = new ByteArrayOutputStream();
+                DeflaterOutputStream out = new DeflaterOutputStream(result);
+                splice(new InflaterInputStream(new ByteArrayInputStream(content)), out);
+                out.finish();
+                return result.toByteArray();
+            }
+        } catch (IOException ignored) { }
+        return content;
+    }
+
+    private void splice(InputStream in, OutputStream out) throws IOException {
+        String charset = getCharset();
+        Reader reader = new InputStreamReader(in, charset);
+        StringWriter content = new StringWriter();
+        char[] buffer = new char[4096];
+        int read;
+        while((read = reader.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        Writer writer = new OutputStreamWriter(out, charset);
+        writer.write(appendDebugInfo(content.toString()));
+        writer.flush();
+    }
+
+    private boolean isIdentityEncoding() {
+        return contentEncoding == null || contentEncoding.trim().length() == 0
+                || "identity".equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    private static boolean isGzipped(byte[] content) {
+        return content.length > 1 && content[0] == (byte) 0x1f && content[1] == (byte) 0x8b;
+    }
+
+    private String getCharset() {
+        String charset = response.getCharacterEncoding();
+        if(charset != null) {
+            try {
+                "".getBytes(charset);
+                return charset;
+            } catch (UnsupportedEncodingException ignored) { }
+        }
+        return DEFAULT_CHARSET;
+    }
+
+    private void holdContentLength(String value) {
+        try {
+            contentLength = Long.parseLong(value.trim());
+        } catch (Exception e) {
+            contentLength = -1;
+        }
+    }
+
+    private void updateContentLength(long length) {
+        if(contentLength >= 0 && !response.isCommitted()) {
+            if(length <= Integer.MAX_VALUE) {
+                response.setContentLength((int) length);
+            } else {
+                response.setHeader(CONTENT_LENGTH_HEADER, String.valueOf(length));
+            }
+        }
+    }
+
     /**
      * This method should be overridden in extended class. Default implementation always returns content which is
      * passed as parameter. Overridden implementation should append debugging info to the content.
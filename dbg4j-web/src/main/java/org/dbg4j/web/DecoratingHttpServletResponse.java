@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbg4j.core.appenders.ContentFilter;
+import org.dbg4j.core.appenders.FilterableAppender;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+/**
+ * DecoratingHttpServletResponse extends <code>DebuggingHttpServletResponse</code> and adds debug information to
+ * responses of different content types. Decorator ({@link ResponseDecorator}) is selected by content type of the
+ * response: first decorator which supports it is used. By default json ({@link JsonResponseDecorator}), html
+ * ({@link HtmlResponseDecorator}) and xml ({@link XmlResponseDecorator}) responses are decorated, binary responses may
+ * be handled by {@link BinaryResponseDecorator}.
+ *
+ * Set of content filters ({@link ContentFilter}) also may be set-up here in order to filter out sensitive
+ * information from debugging data (if needed)
+ *
+ * @see DebuggingHttpServletResponse
+ * @see ResponseDecorator
+ * @author Maksym Fedoryshyn
+ */
+public class DecoratingHttpServletResponse extends DebuggingHttpServletResponse {
+
+    protected Collection<ContentFilter> filters = Collections.EMPTY_LIST;
+    protected List<ResponseDecorator> decorators;
+
+    public DecoratingHttpServletResponse(HttpServletResponse response) {
+        this(response, getDefaultDecorators());
+    }
+
+    public DecoratingHttpServletResponse(HttpServletResponse response, @Nonnull List<ResponseDecorator> decorators) {
+        super(response);
+        setDecorators(decorators);
+    }
+
+    /**
+     * Default decorators: json, html and xml.
+     *
+     * @return
+     */
+    @Nonnull
+    public static List<ResponseDecorator> getDefaultDecorators() {
+        return Arrays.<ResponseDecorator>asList(new JsonResponseDecorator(), new HtmlResponseDecorator(),
+                new XmlResponseDecorator());
+    }
+
+    @Override
+    protected boolean doesApply() {
+        return getDecorator() != null;
+    }
+
+    /**
+     * Decorators which do not modify content get the data here (with empty content), body is passed through as is.
+     *
+     * @param content
+     * @return
+     */
+    @Override
+    protected byte[] injectDebugInfo(byte[] content) {
+        ResponseDecorator decorator = getDecorator();
+        if(decorator != null && !decorator.modifiesContent()) {
+            decorator.decorate("", getDebugData(), response);
+            return content;
+        }
+        return super.injectDebugInfo(content);
+    }
+
+    @Override
+    protected String appendDebugInfo(String content) {
+        ResponseDecorator decorator = getDecorator();
+        if(decorator == null) {
+            return content;
+        }
+        if(!decorator.modifiesContent()) {
+            //same as injectDebugInfo(): body is not passed to decorators which do not modify it
+            decorator.decorate("", getDebugData(), response);
+            return content;
+        }
+        return decorator.decorate(content, getDebugData(), response);
+    }
+
+    /**
+     * Decorator of the response content type.
+     *
+     * @return decorator or <code>null</code> if content type is not supported
+     */
+    @Nullable
+    protected ResponseDecorator getDecorator() {
+        String contentType = getContentType();
+        for(ResponseDecorator decorator: decorators) {
+            if(decorator.supports(contentType)) {
+                return decorator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Debug data of current context with content filters applied.
+     *
+     * @return
+     */
+    @Nonnull
+    protected Collection<DebugData> getDebugData() {
+        DebugContext context = DebugContext.getContext();
+        if(context == null) {
+            return Collections.emptyList();
+        }
+        final List<DebugData> result = new ArrayList<DebugData>();
+        FilterableAppender appender = new FilterableAppender() {
+            @Override
+            protected void doWrite(Collection<DebugData> data, Object... params) throws Exception {
+                result.addAll(data);
+            }
+        };
+        appender.setFilters(filters);
+        appender.write(context.getDebugData());
+        return result;
+    }
+
+    public List<ResponseDecorator> getDecorators() {
+        return decorators;
+    }
+
+    public void setDecorators(@Nonnull List<ResponseDecorator> decorators) {
+        if(decorators == null) {
+            throw new NullPointerException("argument cannot be a null");
+        }
+        this.decorators = decorators;
+    }
+
+    public void setFilters(Collection<ContentFilter> filters) {
+        this.filters = filters;
+    }
+}
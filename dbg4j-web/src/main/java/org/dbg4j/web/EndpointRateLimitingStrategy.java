@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.dbg4j.web;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletRequest;
+
+import org.dbg4j.core.context.strategies.RateLimitingDebugAllowanceStrategy;
+
+/**
+ * Rate limiting strategy with separate token bucket per endpoint (request URI), so rarely called endpoints are
+ * debugged as well as the busy ones.
+ *
+ * @see RateLimitingDebugAllowanceStrategy
+ * @author Maksym Fedoryshyn
+ */
+public class EndpointRateLimitingStrategy extends RateLimitingDebugAllowanceStrategy {
+
+    public EndpointRateLimitingStrategy(double permitsPerSecond, int burst) {
+        super(permitsPerSecond, burst);
+    }
+
+    public EndpointRateLimitingStrategy(double permitsPerSecond, int burst, int maxKeys) {
+        super(permitsPerSecond, burst, maxKeys);
+    }
+
+    @Nonnull
+    @Override
+    protected String getKey(@Nullable Object... params) {
+        if(params != null && params.length > 0 && params[0] instanceof HttpServletRequest) {
+            String uri = ((HttpServletRequest) params[0]).getRequestURI();
+            if(uri != null) {
+                return uri;
+            }
+        }
+        return DEFAULT_KEY;
+    }
+}
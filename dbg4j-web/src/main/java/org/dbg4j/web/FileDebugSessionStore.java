@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * {@link DebugSessionStore} which keeps sessions as json files (one file per session) in local directory. Suitable
+ * for large sessions which should not be kept in memory. Data is serialized when session is stored. Sessions are
+ * evicted (files are deleted) when they are older than ttl or when store exceeds max number of sessions.
+ * Files left by previous runs are picked up on start.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class FileDebugSessionStore extends DebugSessionStore {
+
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+    public static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(1);
+
+    private static final String ENCODING = "UTF-8";
+    private static final String EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final File directory;
+    private final Map<String, Long> sessions = new LinkedHashMap<String, Long>();
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+    private long ttl = DEFAULT_TTL;
+
+    public FileDebugSessionStore() {
+        this(new File(System.getProperty("java.io.tmpdir"), "dbg4j-sessions"));
+    }
+
+    public FileDebugSessionStore(@Nonnull File directory) {
+        if(directory == null) {
+            throw new NullPointerException("argument cannot be a null");
+        }
+        this.directory = directory;
+        directory.mkdirs();
+        loadIndex();
+    }
+
+    @Override
+    protected void store(@Nonnull String sessionId, @Nonnull Collection<DebugData> data) throws IOException {
+        String json = DebugUtils.toJsonArray(data);
+        File temp = new File(directory, sessionId + TEMP_EXTENSION);
+        Writer writer = new OutputStreamWriter(new FileOutputStream(temp), ENCODING);
+        try {
+            writer.write(json);
+        } finally {
+            writer.close();
+        }
+        File file = getFile(sessionId);
+        synchronized (sessions) {
+            file.delete();
+            if(!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+            sessions.remove(sessionId);
+            sessions.put(sessionId, System.currentTimeMillis());
+            evict();
+        }
+    }
+
+    @Nullable
+    @Override
+    public String load(@Nonnull String sessionId) {
+        if(!isValidSessionId(sessionId)) {
+            return null;
+        }
+        synchronized (sessions) {
+            evict();
+            if(!sessions.containsKey(sessionId)) {
+                return null;
+            }
+        }
+        try {
+            Reader reader = new InputStreamReader(new FileInputStream(getFile(sessionId)), ENCODING);
+            try {
+                StringBuilder result = new StringBuilder();
+                char[] buffer = new char[8192];
+                int read;
+                while((read = reader.read(buffer)) != -1) {
+                    result.append(buffer, 0, read);
+                }
+                return result.toString();
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return null;   //evicted concurrently
+        }
+    }
+
+    /**
+     * Number of sessions currently kept.
+     *
+     * @return
+     */
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private File getFile(String sessionId) {
+        return new File(directory, sessionId + EXTENSION);
+    }
+
+    private void loadIndex() {
+        File[] files = directory.listFiles();
+        if(files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                long m1 = f1.lastModified();
+                long m2 = f2.lastModified();
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        synchronized (sessions) {
+            for(File file: files) {
+                String name = file.getName();
+                if(name.endsWith(EXTENSION)) {
+                    String sessionId = name.substring(0, name.length() - EXTENSION.length());
+                    if(isValidSessionId(sessionId)) {
+                        sessions.put(sessionId, file.lastModified());
+                    }
+                }
+            }
+            evict();
+        }
+    }
+
+    private void evict() {
+        long expiration = System.currentTimeMillis() - ttl;
+        Iterator<Map.Entry<String, Long>> iterator = sessions.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<String, Long> oldest = iterator.next();
+            if(oldest.getValue() >= expiration && sessions.size() <= maxSessions) {
+                break;
+            }
+            iterator.remove();
+            getFile(oldest.getKey()).delete();
+        }
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Time (in milliseconds) session is kept for.
+     *
+     * @param ttl
+     */
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
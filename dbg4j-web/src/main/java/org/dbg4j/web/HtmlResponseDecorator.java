@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Adds debug data to html pages as json data block (<code>&lt;script type="application/json"&gt;</code>) which is
+ * inserted before closing <code>body</code> tag. Tag is searched within the tail of the page only (see
+ * {@link #setScanWindow(int)}), if it is not found there, data block is appended to the end of the page.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class HtmlResponseDecorator extends AbstractResponseDecorator {
+
+    public static final String DEFAULT_ELEMENT_ID = "dbg4j-debug-info";
+    public static final int DEFAULT_SCAN_WINDOW = 8 * 1024;
+
+    private static final String BODY_END = "</body";
+
+    private String elementId = DEFAULT_ELEMENT_ID;
+    private int scanWindow = DEFAULT_SCAN_WINDOW;
+
+    public HtmlResponseDecorator() {
+        super("text/html", "application/xhtml+xml");
+    }
+
+    @Nonnull
+    @Override
+    public String decorate(@Nonnull String content, @Nonnull Collection<DebugData> data,
+                           @Nonnull HttpServletResponse response) {
+        int position = findBodyEnd(content);
+        //'<' may appear in json strings only, escaping it keeps "</script>" and "<!--" out of the data block
+        String json = DebugUtils.toJsonArray(data).replace("<", "\\u003c");
+        StringBuilder result = new StringBuilder(content.length() + json.length() + 64);
+        result.append(content, 0, position)
+                .append("<script type=\"application/json\" id=\"").append(elementId).append("\">")
+                .append(json)
+                .append("</script>")
+                .append(content, position, content.length());
+        return result.toString();
+    }
+
+    /**
+     * Position of the last <code>&lt;/body</code> tag within scan window or end of content.
+     *
+     * @param content
+     * @return
+     */
+    protected int findBodyEnd(@Nonnull String content) {
+        int limit = Math.max(0, content.length() - scanWindow);
+        for(int i = content.length() - BODY_END.length(); i >= limit; i--) {
+            if(content.charAt(i) == '<' && content.regionMatches(true, i, BODY_END, 0, BODY_END.length())) {
+                return i;
+            }
+        }
+        return content.length();
+    }
+
+    public String getElementId() {
+        return elementId;
+    }
+
+    public void setElementId(String elementId) {
+        this.elementId = elementId;
+    }
+
+    public int getScanWindow() {
+        return scanWindow;
+    }
+
+    /**
+     * Number of characters at the end of the page closing <code>body</code> tag is searched within.
+     *
+     * @param scanWindow
+     */
+    public void setScanWindow(int scanWindow) {
+        this.scanWindow = scanWindow;
+    }
+}
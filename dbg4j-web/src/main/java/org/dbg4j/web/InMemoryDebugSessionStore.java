@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Bounded in-memory {@link DebugSessionStore}. Sessions are evicted when they are older than ttl or when store
+ * exceeds max number of sessions or max total number of records (oldest sessions go first). Records are kept as is
+ * and are serialized only when session is loaded.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class InMemoryDebugSessionStore extends DebugSessionStore {
+
+    public static final int DEFAULT_MAX_SESSIONS = 1000;
+    public static final int DEFAULT_MAX_RECORDS = 100000;
+    public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private final Map<String, Session> sessions = new LinkedHashMap<String, Session>();
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+    private int maxRecords = DEFAULT_MAX_RECORDS;
+    private long ttl = DEFAULT_TTL;
+    private int records;
+
+    @Override
+    protected synchronized void store(@Nonnull String sessionId, @Nonnull Collection<DebugData> data) {
+        Session previous = sessions.remove(sessionId);
+        if(previous != null) {
+            records -= previous.data.size();
+        }
+        sessions.put(sessionId, new Session(data, System.currentTimeMillis()));
+        records += data.size();
+        evict();
+    }
+
+    @Nullable
+    @Override
+    public synchronized String load(@Nonnull String sessionId) {
+        evict();
+        Session session = sessions.get(sessionId);
+        return session == null ? null : DebugUtils.toJsonArray(session.data);
+    }
+
+    /**
+     * Number of sessions currently kept.
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    private void evict() {
+        long expiration = System.currentTimeMillis() - ttl;
+        Iterator<Session> iterator = sessions.values().iterator();
+        while(iterator.hasNext()) {
+            Session oldest = iterator.next();
+            if(oldest.created >= expiration && sessions.size() <= maxSessions && records <= maxRecords) {
+                break;
+            }
+            iterator.remove();
+            records -= oldest.data.size();
+        }
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    /**
+     * Max total number of records kept by the store.
+     *
+     * @param maxRecords
+     */
+    public void setMaxRecords(int maxRecords) {
+        this.maxRecords = maxRecords;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Time (in milliseconds) session is kept for.
+     *
+     * @param ttl
+     */
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    private static class Session {
+        final Collection<DebugData> data;
+        final long created;
+
+        Session(Collection<DebugData> data, long created) {
+            this.data = data;
+            this.created = created;
+        }
+    }
+}
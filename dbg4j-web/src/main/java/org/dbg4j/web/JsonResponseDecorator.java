@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletResponse;
+
+import org.json.JSONObject;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Adds debug data to json responses without parsing them: debug field is inserted before closing brace of the object
+ * (same as {@link JsonDebuggingHttpServletResponse} does) or debug array is appended to the array.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class JsonResponseDecorator extends AbstractResponseDecorator {
+
+    private String debugFieldName = JsonDebuggingHttpServletResponse.DEFAULT_DEBUG_FIELD_NAME;
+
+    public JsonResponseDecorator() {
+        super("application/json", "text/json", "*/*+json");
+    }
+
+    @Nonnull
+    @Override
+    public String decorate(@Nonnull String content, @Nonnull Collection<DebugData> data,
+                           @Nonnull HttpServletResponse response) {
+        int end = lastNonWhitespace(content, content.length() - 1);
+        int previous = lastNonWhitespace(content, end - 1);
+        if(end < 1 || previous < 0) {
+            return content;
+        }
+        char last = content.charAt(end);
+        char beforeLast = content.charAt(previous);
+        StringBuilder result = new StringBuilder(content.length() + 256);
+        if(last == '}') {
+            result.append(content, 0, end);
+            if(beforeLast != '{') {
+                result.append(',');
+            }
+            result.append(JSONObject.quote(debugFieldName)).append(':');
+        } else if(last == ']') {
+            result.append(content, 0, end);
+            if(beforeLast != '[') {
+                result.append(',');
+            }
+        } else {
+            return content;
+        }
+        return result.append(DebugUtils.toJsonArray(data)).append(content, end, content.length()).toString();
+    }
+
+    public String getDebugFieldName() {
+        return debugFieldName;
+    }
+
+    public void setDebugFieldName(String debugFieldName) {
+        this.debugFieldName = debugFieldName;
+    }
+}
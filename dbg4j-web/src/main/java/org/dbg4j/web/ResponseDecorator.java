@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Response decorator adds debug data to response of particular content type. Decorators are selected by content type
+ * in {@link DecoratingHttpServletResponse}. Implementations should not parse the whole document, content should be
+ * scanned from the tail instead (debug data is usually appended to the end of the document).
+ *
+ * @see AbstractResponseDecorator
+ * @author Maksym Fedoryshyn
+ */
+public interface ResponseDecorator {
+
+    /**
+     * Whether decorator is able to decorate response of the content type.
+     *
+     * @param contentType content type of the response (may contain parameters, f.e. charset)
+     * @return
+     */
+    boolean supports(@Nullable String contentType);
+
+    /**
+     * Decorators which return <code>false</code> do not touch response body (f.e. they reference debug data in
+     * headers). Body of such responses is not decoded, they get empty content and result is ignored.
+     *
+     * @return
+     */
+    boolean modifiesContent();
+
+    /**
+     * Add debug data to the content.
+     *
+     * @param content response body
+     * @param data debug data (content filters are already applied)
+     * @param response original response (headers may be updated, body must not be written)
+     * @return decorated content or original content if it cannot be decorated
+     */
+    @Nonnull
+    String decorate(@Nonnull String content, @Nonnull Collection<DebugData> data,
+                    @Nonnull HttpServletResponse response);
+}
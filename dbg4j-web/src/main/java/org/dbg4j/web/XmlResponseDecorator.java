@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.dbg4j.web;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbg4j.core.DebugUtils;
+import org.dbg4j.core.beans.DebugData;
+
+/**
+ * Adds debug data to xml responses as json in CDATA section of <code>dbg4j:debugInfo</code> element (own namespace,
+ * so default namespace of the document is not affected) which is inserted before closing tag of the root element.
+ * Document is scanned from the end: trailing whitespaces, comments and processing instructions are skipped. Documents
+ * with empty root element (<code>&lt;root/&gt;</code>) are not decorated.
+ *
+ * @author Maksym Fedoryshyn
+ */
+public class XmlResponseDecorator extends AbstractResponseDecorator {
+
+    public static final String NAMESPACE = "urn:dbg4j:debug";
+
+    public XmlResponseDecorator() {
+        super("application/xml", "text/xml", "*/*+xml");
+    }
+
+    @Nonnull
+    @Override
+    public String decorate(@Nonnull String content, @Nonnull Collection<DebugData> data,
+                           @Nonnull HttpServletResponse response) {
+        int position = findRootEnd(content);
+        if(position < 0) {
+            return content;
+        }
+        String json = DebugUtils.toJsonArray(data).replace("]]>", "]]]]><![CDATA[>");
+        StringBuilder result = new StringBuilder(content.length() + json.length() + 96);
+        result.append(content, 0, position)
+                .append("<dbg4j:debugInfo xmlns:dbg4j=\"").append(NAMESPACE).append("\"><![CDATA[")
+                .append(json)
+                .append("]]></dbg4j:debugInfo>")
+                .append(content, position, content.length());
+        return result.toString();
+    }
+
+    /**
+     * Position of closing tag of the root element or <code>-1</code> if it is not found.
+     *
+     * @param content
+     * @return
+     */
+    protected int findRootEnd(@Nonnull String content) {
+        int end = lastNonWhitespace(content, content.length() - 1);
+        while(end >= 0) {
+            int start;
+            if(content.startsWith("-->", end - 2)) {
+                start = content.lastIndexOf("<!--", end - 3);
+            } else if(content.startsWith("?>", end - 1)) {
+                start = content.lastIndexOf("<?", end - 2);
+            } else if(content.charAt(end) == '>') {
+                start = content.lastIndexOf('<', end);
+                return (start >= 0 && content.startsWith("</", start)) ? start : -1;
+            } else {
+                return -1;
+            }
+            if(start < 0) {
+                return -1;
+            }
+            end = lastNonWhitespace(content, start - 1);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,35 @@
+package org.dbg4j.web;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static junit.framework.Assert.*;
+
+public class CapturingHttpServletRequestTest {
+
+    @Test
+    public void testGetBody_encodingSetAfterWrapping() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("\u00e4bc".getBytes("UTF-8"));
+        CapturingHttpServletRequest wrapper = new CapturingHttpServletRequest(request, 1024);
+
+        //f.e. character encoding filter which runs after debug filter
+        wrapper.setCharacterEncoding("UTF-8");
+        assertEquals("\u00e4bc", wrapper.getReader().readLine());
+
+        assertEquals("\u00e4bc", wrapper.getBody().toString());
+        assertEquals("UTF-8", wrapper.getBody().getCharset().name());
+    }
+
+    @Test
+    public void testGetBody_defaultEncoding() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(new byte[] {(byte) 0xe4, 'b', 'c'});
+        CapturingHttpServletRequest wrapper = new CapturingHttpServletRequest(request, 1024);
+
+        while(wrapper.getInputStream().read() >= 0) {}
+
+        assertEquals("\u00e4bc", wrapper.getBody().toString());
+        assertEquals("ISO-8859-1", wrapper.getBody().getCharset().name());
+    }
+}
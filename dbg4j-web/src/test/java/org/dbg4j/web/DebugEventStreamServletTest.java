@@ -0,0 +1,75 @@
+package org.dbg4j.web;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+
+public class DebugEventStreamServletTest {
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testDoGet() throws Exception {
+        final DebugRecordBroadcaster broadcaster = new DebugRecordBroadcaster();
+        final DebugEventStreamServlet servlet = new DebugEventStreamServlet();
+        servlet.setBroadcaster(broadcaster);
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tail/abc-1");
+        request.setPathInfo("/abc-1");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Thread stream = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    servlet.service(request, response);
+                } catch (Exception ignored) {}
+            }
+        };
+        stream.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while(broadcaster.getSubscriberCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        DebugContext context = DebugContext.init(null, broadcaster);
+        context.addProperty(DebugRecordBroadcaster.SUBSCRIPTION_ID_PROPERTY, "abc-1");
+        context.addDebugRecord(new DebugData("key", "val"));
+        DebugContext.commit();
+        stream.join(5000);
+
+        assertFalse(stream.isAlive());
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertEquals("text/event-stream", response.getContentType().split(";")[0]);
+        String content = response.getContentAsString();
+        assertTrue(content, content.contains("id: 1\nevent: record\ndata: {\"key\":\"val\"}\n\n"));
+        assertTrue(content, content.endsWith("event: commit\ndata: 0\n\n"));
+    }
+
+    @Test
+    public void testDoGet_invalidRequest() throws Exception {
+        DebugEventStreamServlet servlet = new DebugEventStreamServlet();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tail");
+        request.addParameter(DebugEventStreamServlet.SUBSCRIPTION_ID_PARAMETER, "abc-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+
+        servlet.setBroadcaster(new DebugRecordBroadcaster());
+        request = new MockHttpServletRequest("GET", "/tail");
+        request.addParameter(DebugEventStreamServlet.SUBSCRIPTION_ID_PARAMETER, "not valid");
+        response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    }
+}
@@ -3,19 +3,31 @@
 package org.dbg4j.web;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
 
 import org.dbg4j.web.DebugFilter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.json.JSONArray;
+import org.springframework.mock.web.MockFilterConfig;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
 
+import org.dbg4j.core.adapters.impl.DefaultDebuggingAdapter;
+import org.dbg4j.core.beans.DebugData;
 import org.dbg4j.core.context.ContextListener;
 import org.dbg4j.core.context.DebugAllowanceStrategy;
 import org.dbg4j.core.context.DebugContext;
+import org.dbg4j.core.context.strategies.AdaptiveSamplingDebugAllowanceStrategy;
 
 import static org.mockito.Mockito.*;
 import static junit.framework.Assert.*;
@@ -76,6 +88,198 @@ public class DebugFilterTest {
         verify(filterChain, times(1)).doFilter(request, response);
     }
 
+    @Test
+    public void testDoFilter_listeningStrategy() throws Exception {
+        AdaptiveSamplingDebugAllowanceStrategy strategy = spy(new AdaptiveSamplingDebugAllowanceStrategy(10));
+        debugFilter.setDebugAllowanceStrategy(strategy);
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        verify(strategy, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), any(DebugContext.class),
+                isNull());
+        verify(listener1, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), any(DebugContext.class),
+                isNull());
+    }
+
+    @Test
+    public void testDoFilter_speculative_discarded() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        debugFilter.setSpeculative(true);
+        debugFilter.setLatencyThreshold(60000);
+        doAnswer(new RequestHandler(HttpServletResponse.SC_OK)).when(filterChain).doFilter(eq(request),
+                any(ServletResponse.class));
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        verifyZeroInteractions(listener1, listener2);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+
+    @Test
+    public void testDoFilter_speculative_serverError() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        debugFilter.setSpeculative(true);
+        debugFilter.setLatencyThreshold(60000);
+        RequestHandler handler = new RequestHandler(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        doAnswer(handler).when(filterChain).doFilter(eq(request), any(ServletResponse.class));
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response.getStatus());
+        verify(listener1, times(1)).notify(DebugContext.EventType.RECORD_ADDED, handler.context, handler.record);
+        verify(listener1, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), eq(handler.context),
+                isNull());
+        verify(listener2, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), eq(handler.context),
+                isNull());
+        assertEquals(2, handler.context.getDebugData().size());
+        //recorded values keep their meaning in speculative mode
+        assertNull(handler.context.getProperty(DefaultDebuggingAdapter.DEFER_EVALUATION_PROPERTY));
+    }
+
+    @Test
+    public void testDoFilter_deferEvaluation() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        debugFilter.setSpeculative(true);
+        debugFilter.setDeferEvaluation(true);
+        debugFilter.setLatencyThreshold(-1);
+        RequestHandler handler = new RequestHandler(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        doAnswer(handler).when(filterChain).doFilter(eq(request), any(ServletResponse.class));
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        assertEquals(Boolean.TRUE, handler.context.getProperty(DefaultDebuggingAdapter.DEFER_EVALUATION_PROPERTY));
+    }
+
+    @Test
+    public void testDoFilter_speculative_slowRequest() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        debugFilter.setSpeculative(true);
+        debugFilter.setLatencyThreshold(0);
+        debugFilter.setSpeculativeBufferSize(1);
+        RequestHandler handler = new RequestHandler(HttpServletResponse.SC_OK);
+        doAnswer(handler).when(filterChain).doFilter(eq(request), any(ServletResponse.class));
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        verify(listener1, times(1)).notify(DebugContext.EventType.RECORD_ADDED, handler.context, handler.record);
+        verify(listener1, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), eq(handler.context),
+                isNull());
+        assertEquals(1, handler.context.getDebugData().size());
+        assertEquals(1, handler.context.getDroppedRecords());
+    }
+
+    @Test
+    public void testDoFilter_speculative_error() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        debugFilter.setSpeculative(true);
+        debugFilter.setLatencyThreshold(-1);
+        RuntimeException exception = new RuntimeException();
+        doThrow(exception).when(filterChain).doFilter(eq(request), any(ServletResponse.class));
+
+        try {
+            debugFilter.doFilter(request, response, filterChain);
+            fail("Exception should be rethrown");
+        } catch (RuntimeException expected) {
+            assertSame(exception, expected);
+        }
+
+        verify(listener1, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), any(DebugContext.class),
+                isNull());
+    }
+
+    @Test
+    public void testDoFilter_recordRequest() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        debugFilter.setRecordRequest(true);
+        debugFilter.setMaxRequestBodySize(5);
+        request.setQueryString("a=b");
+        request.addHeader("Accept", "text/plain");
+        request.setContent("request body".getBytes("ISO-8859-1"));
+        final DebugContext[] context = new DebugContext[1];
+        final StringBuilder body = new StringBuilder();
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                context[0] = DebugContext.getContext();
+                ServletRequest wrapped = (ServletRequest) invocation.getArguments()[0];
+                int b;
+                while((b = wrapped.getInputStream().read()) >= 0) {
+                    body.append((char) b);
+                }
+                ((HttpServletResponse) invocation.getArguments()[1]).setStatus(HttpServletResponse.SC_CREATED);
+                return null;
+            }
+        }).when(filterChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        assertEquals("request body", body.toString());
+        assertEquals(1, context[0].getDebugData().size());
+        DebugData record = context[0].getDebugData().iterator().next();
+        assertEquals(DebugFilter.REQUEST_TYPE, record.get("Type"));
+        assertEquals("GET", record.get("Method"));
+        assertEquals("http://localhost:80/test.html?a=b", record.get("Url"));
+        assertEquals("Accept: text/plain\n", record.get("Headers"));
+        assertEquals(HttpServletResponse.SC_CREATED, record.get("Status"));
+        assertEquals("reque...", record.get("Body").toString());
+        assertNotNull(record.get("Duration"));
+        assertEquals(HttpServletResponse.SC_CREATED, response.getStatus());
+    }
+
+    @Test
+    public void testDoFilter_outOfBand() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        debugFilter.setSessionStore(store);
+        debugFilter.setRecordRequest(true);
+        MockServletContext servletContext = new MockServletContext();
+        debugFilter.init(new MockFilterConfig(servletContext));
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        assertSame(store, servletContext.getAttribute(DebugSessionStore.STORE_ATTRIBUTE));
+        String sessionId = (String) response.getHeader(DebugSessionStore.SESSION_HEADER);
+        assertNotNull(sessionId);
+        JSONArray data = new JSONArray(store.load(sessionId));
+        assertEquals(1, data.length());
+        assertEquals(DebugFilter.REQUEST_TYPE, data.getJSONObject(0).getString("Type"));
+        verify(listener1, times(1)).notify(eq(DebugContext.EventType.CONTEXT_COMMIT), any(DebugContext.class),
+                anyVararg());
+    }
+
+    @Test
+    public void testDoFilter_recordBroadcaster() throws Exception {
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(null, request, response);
+        doReturn(true).when(debugAllowanceStrategy).isAllowed(any(DebugContext.class));
+        DebugRecordBroadcaster broadcaster = new DebugRecordBroadcaster();
+        debugFilter.setRecordBroadcaster(broadcaster);
+        debugFilter.setRecordRequest(true);
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        debugFilter.setSessionStore(store);
+        request.addHeader(DebugRecordBroadcaster.SUBSCRIPTION_HEADER, "abc-1");
+        //session id of the store is never taken from client
+        request.addHeader(DebugSessionStore.SESSION_HEADER, "abc-2");
+        DebugRecordBroadcaster.Subscriber subscriber = broadcaster.subscribe("abc-1");
+
+        debugFilter.doFilter(request, response, filterChain);
+
+        assertEquals(DebugFilter.REQUEST_TYPE, subscriber.poll(0, TimeUnit.MILLISECONDS).get("Type"));
+        assertTrue(subscriber.isCompleted());
+        String sessionId = (String) response.getHeader(DebugSessionStore.SESSION_HEADER);
+        assertFalse("abc-1".equals(sessionId));
+        assertFalse("abc-2".equals(sessionId));
+        assertNotNull(store.load(sessionId));
+        assertNull(store.load("abc-1"));
+        assertNull(store.load("abc-2"));
+    }
+
     @Test
     public void testInitDebugContext_disabled() throws Exception {
         debugFilter.setDisabled(true);
@@ -191,4 +395,24 @@ public class DebugFilterTest {
                 isNull());
         assertFalse(DebugContext.isDebugAllowed());
     }
+
+    private static class RequestHandler implements Answer<Object> {
+        private final int status;
+        private DebugContext context;
+        private DebugData record;
+
+        private RequestHandler(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+            context = DebugContext.getContext();
+            record = new DebugData("key", "value");
+            context.addDebugRecord(record);
+            context.addDebugRecord(new DebugData("key", "value2"));
+            ((HttpServletResponse) invocation.getArguments()[1]).setStatus(status);
+            return null;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package org.dbg4j.web;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+
+public class DebugRecordBroadcasterTest {
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testSubscribe() throws Exception {
+        DebugRecordBroadcaster broadcaster = new DebugRecordBroadcaster();
+        broadcaster.setQueueSize(2);
+        DebugRecordBroadcaster.Subscriber subscriber = broadcaster.subscribe("abc-1");
+        DebugRecordBroadcaster.Subscriber other = broadcaster.subscribe("abc-2");
+        assertEquals(2, broadcaster.getSubscriberCount());
+
+        DebugContext context = DebugContext.init(null, broadcaster);
+        context.addProperty(DebugRecordBroadcaster.SUBSCRIPTION_ID_PROPERTY, "abc-1");
+        context.addDebugRecord(new DebugData("key", "1"));
+        context.addDebugRecord(new DebugData("key", "2"));
+        context.addDebugRecord(new DebugData("key", "3"));
+
+        assertEquals(1, subscriber.getDropped());
+        assertEquals("1", subscriber.poll(0, TimeUnit.MILLISECONDS).get("key"));
+        assertFalse(subscriber.isCompleted());
+
+        DebugContext.commit();
+        assertFalse(subscriber.isCompleted());
+        assertEquals("2", subscriber.poll(0, TimeUnit.MILLISECONDS).get("key"));
+        assertTrue(subscriber.isCompleted());
+        assertNull(subscriber.poll(1, TimeUnit.MINUTES));
+
+        assertNull(other.poll(0, TimeUnit.MILLISECONDS));
+        assertFalse(other.isCompleted());
+
+        broadcaster.unsubscribe(subscriber);
+        broadcaster.unsubscribe(subscriber);
+        broadcaster.unsubscribe(other);
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    public void testMaxSubscribers() throws Exception {
+        DebugRecordBroadcaster broadcaster = new DebugRecordBroadcaster();
+        broadcaster.setMaxSubscribers(1);
+
+        DebugRecordBroadcaster.Subscriber subscriber = broadcaster.subscribe("abc-1");
+        assertNotNull(subscriber);
+        assertNull(broadcaster.subscribe("abc-1"));
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        broadcaster.unsubscribe(subscriber);
+        assertNotNull(broadcaster.subscribe("abc-1"));
+    }
+}
@@ -0,0 +1,70 @@
+package org.dbg4j.web;
+
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+
+public class DebugSessionServletTest {
+
+    private DebugSessionServlet servlet;
+    private InMemoryDebugSessionStore store;
+    private MockServletContext servletContext;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new InMemoryDebugSessionStore();
+        store.write(Collections.singletonList(new DebugData("key", "val")), "abc-1");
+        servletContext = new MockServletContext();
+        servlet = new DebugSessionServlet();
+        servlet.init(new MockServletConfig(servletContext));
+    }
+
+    @Test
+    public void testDoGet() throws Exception {
+        servletContext.setAttribute(DebugSessionStore.STORE_ATTRIBUTE, store);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/debug/abc-1");
+        request.setPathInfo("/abc-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("[{\"key\":\"val\"}]", response.getContentAsString());
+
+        request = new MockHttpServletRequest("GET", "/debug");
+        request.addParameter(DebugSessionServlet.SESSION_ID_PARAMETER, "abc-2");
+        response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+
+        request = new MockHttpServletRequest("GET", "/debug/..");
+        request.setPathInfo("/..");
+        response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    }
+
+    @Test
+    public void testDoGet_noStore() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/debug/abc-1");
+        request.setPathInfo("/abc-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+
+        servlet.setStore(store);
+        response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+}
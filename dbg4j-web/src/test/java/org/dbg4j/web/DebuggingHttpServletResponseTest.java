@@ -2,7 +2,13 @@
 
 package org.dbg4j.web;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
@@ -15,6 +21,7 @@ import org.junit.Test;
 import org.dbg4j.core.context.DebugContext;
 
 import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 import static org.dbg4j.core.context.DebugContext.*;
@@ -60,10 +67,67 @@ public class DebuggingHttpServletResponseTest {
 
         httpServletResponse.notify(EventType.CONTEXT_COMMIT, DebugContext.getContext());
 
-        verify(servletOutputStream, times(1)).print(RESPONSE_CONTENT);
+        verify(servletOutputStream, times(1)).write(aryEq(RESPONSE_CONTENT.getBytes()));
         verify(originalResponse, never()).getWriter();
     }
 
+    @Test
+    public void testNotify_updatesContentLength() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        doReturn(toServletOutputStream(output)).when(originalResponse).getOutputStream();
+        httpServletResponse = new AppendingResponse(originalResponse);
+
+        httpServletResponse.setContentLength(RESPONSE_CONTENT.length());
+        httpServletResponse.setHeader("Content-Length", String.valueOf(RESPONSE_CONTENT.length()));
+        httpServletResponse.getOutputStream().print(RESPONSE_CONTENT);
+        verify(originalResponse, never()).setContentLength(anyInt());
+        verify(originalResponse, never()).setHeader(eq("Content-Length"), anyString());
+
+        httpServletResponse.notify(EventType.CONTEXT_COMMIT, DebugContext.getContext());
+
+        assertEquals(RESPONSE_CONTENT + AppendingResponse.DEBUG_INFO, output.toString("ISO-8859-1"));
+        verify(originalResponse).setContentLength(output.size());
+    }
+
+    @Test
+    public void testNotify_gzipEncodedContent() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        doReturn(toServletOutputStream(output)).when(originalResponse).getOutputStream();
+        httpServletResponse = new AppendingResponse(originalResponse);
+        byte[] compressed = gzip(RESPONSE_CONTENT);
+
+        httpServletResponse.setHeader("Content-Encoding", "gzip");
+        httpServletResponse.setContentLength(compressed.length);
+        httpServletResponse.getOutputStream().write(compressed);
+        httpServletResponse.notify(EventType.CONTEXT_COMMIT, DebugContext.getContext());
+
+        assertEquals(RESPONSE_CONTENT + AppendingResponse.DEBUG_INFO,
+                gunzip(new ByteArrayInputStream(output.toByteArray())));
+        verify(originalResponse).setHeader("Content-Encoding", "gzip");
+        verify(originalResponse).setContentLength(output.size());
+    }
+
+    @Test
+    public void testNotify_unsupportedOrCorruptedEncoding() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        doReturn(toServletOutputStream(output)).when(originalResponse).getOutputStream();
+        httpServletResponse = new AppendingResponse(originalResponse);
+        byte[] content = {1, 2, 3, (byte) 0xff};
+
+        httpServletResponse.addHeader("Content-Encoding", "br");
+        httpServletResponse.getOutputStream().write(content);
+        httpServletResponse.notify(EventType.CONTEXT_COMMIT, DebugContext.getContext());
+        assertArrayEquals(content, output.toByteArray());
+        verify(originalResponse, never()).setContentLength(anyInt());
+
+        output.reset();
+        httpServletResponse = new AppendingResponse(originalResponse);
+        httpServletResponse.setHeader("Content-Encoding", "gzip");
+        httpServletResponse.getOutputStream().write(content);
+        httpServletResponse.notify(EventType.CONTEXT_COMMIT, DebugContext.getContext());
+        assertArrayEquals(content, output.toByteArray());
+    }
+
     @Test
     public void testNotify_onWriterIsCalled() throws Exception {
         doReturn(writer).when(originalResponse).getWriter();
@@ -101,4 +165,50 @@ public class DebuggingHttpServletResponseTest {
             fail("IllegalStateException should be thrown");
         } catch (IllegalStateException expected) {}
     }
+
+    private static ServletOutputStream toServletOutputStream(final ByteArrayOutputStream output) {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                output.write(b);
+            }
+        };
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(result);
+        out.write(content.getBytes("ISO-8859-1"));
+        out.close();
+        return result.toByteArray();
+    }
+
+    private static String gunzip(InputStream content) throws IOException {
+        InputStream in = new GZIPInputStream(content);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int b;
+        while((b = in.read()) != -1) {
+            result.write(b);
+        }
+        return result.toString("ISO-8859-1");
+    }
+
+    private static class AppendingResponse extends DebuggingHttpServletResponse {
+
+        static final String DEBUG_INFO = " + debug info";
+
+        AppendingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        protected boolean doesApply() {
+            return true;
+        }
+
+        @Override
+        protected String appendDebugInfo(String content) {
+            return content + DEBUG_INFO;
+        }
+    }
 }
@@ -0,0 +1,117 @@
+package org.dbg4j.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.json.JSONArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dbg4j.core.appenders.ContentFilter;
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DecoratingHttpServletResponseTest {
+
+    HttpServletResponse originalResponse;
+    ByteArrayOutputStream output;
+
+    @Before
+    public void setUp() throws Exception {
+        originalResponse = mock(HttpServletResponse.class);
+        output = new ByteArrayOutputStream();
+        doReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                output.write(b);
+            }
+        }).when(originalResponse).getOutputStream();
+
+        DebugContext.init(null).addDebugRecord(new DebugData("key", "val"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DebugContext.commit();
+    }
+
+    @Test
+    public void testHtmlResponse() throws Exception {
+        doReturn("text/html").when(originalResponse).getContentType();
+        DecoratingHttpServletResponse response = new DecoratingHttpServletResponse(originalResponse);
+        response.setFilters(Collections.<ContentFilter>singletonList(new ContentFilter() {
+            @Override
+            public DebugData filter(DebugData debugData) {
+                debugData.set("key", "filtered");
+                return debugData;
+            }
+        }));
+
+        response.getOutputStream().print("<body></body>");
+        response.notify(DebugContext.EventType.CONTEXT_COMMIT, DebugContext.getContext());
+
+        assertEquals("<body><script type=\"application/json\" id=\"dbg4j-debug-info\">[{\"key\":\"filtered\"}]"
+                + "</script></body>", output.toString("ISO-8859-1"));
+    }
+
+    @Test
+    public void testUnsupportedResponse() throws Exception {
+        doReturn("text/plain").when(originalResponse).getContentType();
+        DecoratingHttpServletResponse response = new DecoratingHttpServletResponse(originalResponse);
+
+        response.getOutputStream().print("{}");
+        response.notify(DebugContext.EventType.CONTEXT_COMMIT, DebugContext.getContext());
+
+        assertEquals("{}", output.toString("ISO-8859-1"));
+    }
+
+    @Test
+    public void testBinaryResponse() throws Exception {
+        doReturn("application/x-protobuf").when(originalResponse).getContentType();
+        doReturn("UTF-8").when(originalResponse).getCharacterEncoding();
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        DebugContext.getContext().addProperty(DebugSessionStore.SESSION_ID_PROPERTY, "abc-1");
+        DecoratingHttpServletResponse response = new DecoratingHttpServletResponse(originalResponse,
+                Arrays.<ResponseDecorator>asList(new BinaryResponseDecorator(store), new JsonResponseDecorator()));
+        byte[] content = {10, (byte) 0xff, (byte) 0xc3, 0};
+
+        response.getOutputStream().write(content);
+        response.notify(DebugContext.EventType.CONTEXT_COMMIT, DebugContext.getContext());
+
+        assertArrayEquals(content, output.toByteArray());
+        verify(originalResponse).setHeader(DebugSessionStore.SESSION_HEADER, "abc-1");
+        assertEquals("val", new JSONArray(store.load("abc-1")).getJSONObject(0).getString("key"));
+    }
+
+    @Test
+    public void testNotModifyingDecorator_writer() throws Exception {
+        StringWriter written = new StringWriter();
+        doReturn(new PrintWriter(written)).when(originalResponse).getWriter();
+        doReturn("application/x-custom").when(originalResponse).getContentType();
+        ResponseDecorator decorator = mock(ResponseDecorator.class);
+        doReturn(true).when(decorator).supports("application/x-custom");
+        doReturn(false).when(decorator).modifiesContent();
+        doReturn("ignored").when(decorator).decorate(anyString(), anyCollection(), any(HttpServletResponse.class));
+        DecoratingHttpServletResponse response = new DecoratingHttpServletResponse(originalResponse,
+                Arrays.asList(decorator));
+
+        response.getWriter().print("body");
+        response.notify(DebugContext.EventType.CONTEXT_COMMIT, DebugContext.getContext());
+        response.getWriter().flush();
+
+        //body is not passed to decorator which does not modify it
+        verify(decorator).decorate(eq(""), anyCollection(), eq(originalResponse));
+        assertEquals("body", written.toString());
+    }
+}
@@ -0,0 +1,22 @@
+package org.dbg4j.web;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static junit.framework.Assert.*;
+
+public class EndpointRateLimitingStrategyTest {
+
+    @Test
+    public void testIsAllowed() throws Exception {
+        EndpointRateLimitingStrategy strategy = new EndpointRateLimitingStrategy(0.001, 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(strategy.isAllowed(null, new MockHttpServletRequest("GET", "/a"), response));
+        assertFalse(strategy.isAllowed(null, new MockHttpServletRequest("GET", "/a"), response));
+        assertTrue(strategy.isAllowed(null, new MockHttpServletRequest("POST", "/b"), response));
+        assertTrue(strategy.isAllowed(null));
+        assertFalse(strategy.isAllowed(null, "not a request"));
+    }
+}
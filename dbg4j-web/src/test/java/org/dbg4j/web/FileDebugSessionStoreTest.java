@@ -0,0 +1,67 @@
+package org.dbg4j.web;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.json.JSONArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+
+public class FileDebugSessionStoreTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("dbg4j", "sessions");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file: files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        FileDebugSessionStore store = new FileDebugSessionStore(directory);
+        store.write(Collections.singletonList(new DebugData("key", "v\u00e4l")), "abc-1");
+
+        assertTrue(new File(directory, "abc-1.json").isFile());
+        JSONArray json = new JSONArray(store.load("abc-1"));
+        assertEquals("v\u00e4l", json.getJSONObject(0).getString("key"));
+        assertNull(store.load("abc-2"));
+        assertNull(store.load("../abc-1"));
+
+        FileDebugSessionStore reopened = new FileDebugSessionStore(directory);
+        assertEquals(1, reopened.size());
+        assertNotNull(reopened.load("abc-1"));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        FileDebugSessionStore store = new FileDebugSessionStore(directory);
+        store.setMaxSessions(1);
+
+        store.write(Collections.singletonList(new DebugData("key", "1")), "1");
+        store.write(Collections.singletonList(new DebugData("key", "2")), "2");
+        assertEquals(1, store.size());
+        assertNull(store.load("1"));
+        assertFalse(new File(directory, "1.json").exists());
+
+        store.setTtl(-1);
+        assertNull(store.load("2"));
+        assertEquals(0, directory.listFiles().length);
+    }
+}
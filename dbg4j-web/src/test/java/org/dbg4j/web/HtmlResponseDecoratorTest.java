@@ -0,0 +1,42 @@
+package org.dbg4j.web;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class HtmlResponseDecoratorTest {
+
+    private final Collection<DebugData> data = Collections.singletonList(new DebugData("key", "</script>"));
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+
+    @Test
+    public void testDecorate() throws Exception {
+        HtmlResponseDecorator decorator = new HtmlResponseDecorator();
+        assertTrue(decorator.supports("text/html;charset=UTF-8"));
+
+        String result = decorator.decorate("<html><body><p>text</p></BODY>\n</html>", data, response);
+
+        assertEquals("<html><body><p>text</p><script type=\"application/json\" id=\"dbg4j-debug-info\">"
+                + "[{\"key\":\"\\u003c\\/script>\"}]</script></BODY>\n</html>", result);
+    }
+
+    @Test
+    public void testDecorate_noBodyWithinScanWindow() throws Exception {
+        HtmlResponseDecorator decorator = new HtmlResponseDecorator();
+        decorator.setScanWindow(10);
+
+        String result = decorator.decorate("<div>fragment</div>", data, response);
+        assertTrue(result, result.startsWith("<div>fragment</div><script"));
+
+        result = decorator.decorate("<body></body>" + "<!-- long trailing comment -->", data, response);
+        assertTrue(result, result.startsWith("<body></body><!-- long trailing comment --><script"));
+    }
+}
@@ -0,0 +1,76 @@
+package org.dbg4j.web;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.json.JSONArray;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+import org.dbg4j.core.context.DebugContext;
+
+import static org.junit.Assert.*;
+
+public class InMemoryDebugSessionStoreTest {
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        DebugContext context = DebugContext.init(null, store);
+        context.addProperty(DebugSessionStore.SESSION_ID_PROPERTY, "abc-1");
+        context.addDebugRecord(new DebugData("key", "val"));
+        DebugContext.commit();
+
+        JSONArray json = new JSONArray(store.load("abc-1"));
+        assertEquals(1, json.length());
+        assertEquals("val", json.getJSONObject(0).getString("key"));
+        assertNull(store.load("abc-2"));
+    }
+
+    @Test
+    public void testNoSessionId() throws Exception {
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        DebugContext.init(null, store).addDebugRecord(new DebugData("key", "val"));
+        DebugContext.commit();
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        store.setMaxSessions(2);
+        store.setMaxRecords(3);
+
+        store.write(Collections.singletonList(new DebugData("key", "1")), "1");
+        store.write(Collections.singletonList(new DebugData("key", "2")), "2");
+        store.write(Collections.singletonList(new DebugData("key", "3")), "3");
+        assertEquals(2, store.size());
+        assertNull(store.load("1"));
+        assertNotNull(store.load("2"));
+
+        store.write(Arrays.asList(new DebugData("key", "4"), new DebugData("key", "4")), "4");
+        assertEquals(2, store.size());
+        assertNotNull(store.load("3"));
+
+        store.write(Arrays.asList(new DebugData("key", "5"), new DebugData("key", "5")), "5");
+        assertEquals(1, store.size());
+        assertNull(store.load("4"));
+        assertNotNull(store.load("5"));
+
+        store.setTtl(-1);
+        assertNull(store.load("5"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testInvalidSessionId() throws Exception {
+        InMemoryDebugSessionStore store = new InMemoryDebugSessionStore();
+        store.write(Collections.singletonList(new DebugData("key", "val")), "../etc");
+
+        assertEquals(0, store.size());
+        assertTrue(DebugSessionStore.isValidSessionId(DebugSessionStore.newSessionId()));
+        assertFalse(DebugSessionStore.isValidSessionId(""));
+        assertFalse(DebugSessionStore.isValidSessionId(null));
+    }
+}
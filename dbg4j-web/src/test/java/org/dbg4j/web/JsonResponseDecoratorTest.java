@@ -0,0 +1,53 @@
+package org.dbg4j.web;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class JsonResponseDecoratorTest {
+
+    private final Collection<DebugData> data = Collections.singletonList(new DebugData("key", "val"));
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+
+    @Test
+    public void testSupports() throws Exception {
+        JsonResponseDecorator decorator = new JsonResponseDecorator();
+
+        assertTrue(decorator.supports("application/json"));
+        assertTrue(decorator.supports("Application/JSON; charset=UTF-8"));
+        assertTrue(decorator.supports("application/hal+json"));
+        assertFalse(decorator.supports("text/html"));
+        assertFalse(decorator.supports(null));
+    }
+
+    @Test
+    public void testDecorate() throws Exception {
+        JsonResponseDecorator decorator = new JsonResponseDecorator();
+
+        JSONObject json = new JSONObject(decorator.decorate("{\"a\": 1}\n", data, response));
+        assertEquals(1, json.getInt("a"));
+        assertEquals("val", json.getJSONArray(JsonDebuggingHttpServletResponse.DEFAULT_DEBUG_FIELD_NAME)
+                .getJSONObject(0).getString("key"));
+
+        json = new JSONObject(decorator.decorate("{ }", data, response));
+        assertEquals(1, json.length());
+
+        JSONArray array = new JSONArray(decorator.decorate("[1, 2]", data, response));
+        assertEquals(3, array.length());
+        assertEquals("val", array.getJSONArray(2).getJSONObject(0).getString("key"));
+        assertEquals(1, new JSONArray(decorator.decorate("[]", data, response)).length());
+
+        assertEquals("\"string\"", decorator.decorate("\"string\"", data, response));
+        assertEquals("", decorator.decorate("", data, response));
+    }
+}
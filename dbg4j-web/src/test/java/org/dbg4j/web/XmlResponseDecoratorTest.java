@@ -0,0 +1,43 @@
+package org.dbg4j.web;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+import org.dbg4j.core.beans.DebugData;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class XmlResponseDecoratorTest {
+
+    private static final String DEBUG_INFO = "<dbg4j:debugInfo xmlns:dbg4j=\"urn:dbg4j:debug\">"
+            + "<![CDATA[[{\"key\":\"]]]]><![CDATA[>\"}]]]></dbg4j:debugInfo>";
+
+    private final Collection<DebugData> data = Collections.singletonList(new DebugData("key", "]]>"));
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+
+    @Test
+    public void testDecorate() throws Exception {
+        XmlResponseDecorator decorator = new XmlResponseDecorator();
+        assertTrue(decorator.supports("application/atom+xml"));
+        assertTrue(decorator.supports("text/xml"));
+
+        assertEquals("<?xml version=\"1.0\"?><root><a/>" + DEBUG_INFO + "</root>",
+                decorator.decorate("<?xml version=\"1.0\"?><root><a/></root>", data, response));
+        assertEquals("<root>" + DEBUG_INFO + "</root >\n<!-- </b> --><?pi?>\n",
+                decorator.decorate("<root></root >\n<!-- </b> --><?pi?>\n", data, response));
+    }
+
+    @Test
+    public void testDecorate_notDecorated() throws Exception {
+        XmlResponseDecorator decorator = new XmlResponseDecorator();
+
+        assertEquals("<root/>", decorator.decorate("<root/>", data, response));
+        assertEquals("<root>text", decorator.decorate("<root>text", data, response));
+        assertEquals("", decorator.decorate("", data, response));
+    }
+}
@@ -4,15 +4,15 @@ import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang3.StringUtils;
-import org.dbg4j.core.context.DebugAllowanceStrategy;
 import org.dbg4j.core.context.DebugContext;
+import org.dbg4j.core.context.MemoizableDebugAllowanceStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Very simple allowance strategy. When url contains "debug=true" attribute, it allows debugging.
  */
-public class MyWebAppAllowanceStrategy implements DebugAllowanceStrategy {
+public class MyWebAppAllowanceStrategy implements MemoizableDebugAllowanceStrategy {
 
     private static final Logger log = LoggerFactory.getLogger(MyWebAppAllowanceStrategy.class);
 